@@ -0,0 +1,66 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation tracking by {@link GCProfiler}, equivalent to <code>-prof gc</code>.  All other
+ * JMH command line options are supported.
+ *
+ * <p>Build and run all benchmarks, saving the results for later comparison:</p>
+ *
+ * <pre>mvn package
+ * java -jar target/benchmarks.jar -rf json -rff target/results.json</pre>
+ *
+ * <p>Results are only comparable when run on the same machine, so no baseline results are committed.  Instead, record
+ * the baseline by building and running the benchmarks at the commit before a change, on the same machine as the
+ * change, saving each with <code>-rf json</code> to a different file.</p>
+ *
+ * <p>Select benchmarks and scales by regular expression and parameters, such as
+ * <code>java -jar target/benchmarks.jar JavadocBenchmark.filterJavadocJar -p entries=10000</code>.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Benchmarks {
+
+  /** Make no instances. */
+  private Benchmarks() {
+    throw new AssertionError();
+  }
+
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    new Runner(
+        new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build()
+    ).run();
+  }
+}
@@ -0,0 +1,536 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+/**
+ * Generates synthetic Javadoc JAR and WAR files for benchmarking and scale testing, without any network access or real
+ * Javadocs.  The content is derived only from the given parameters and seeds, so the same files are generated on every
+ * run and may be shared in bug reports by their parameters alone.
+ *
+ * <p>The Javadocs are shaped like those generated by the JDK, with a <code>&lt;head&gt;</code> on every page, nested
+ * packages, <code>class-use</code> pages, an overview or redirecting <code>index.html</code>, relative links between
+ * pages, and external links to {@link #NOFOLLOW_PREFIX} and {@link #FOLLOW_PREFIX}.</p>
+ *
+ * <p>Each file has its own seed, so the file of a previous build may be generated with only a given fraction of files
+ * changed.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Corpus {
+
+  /** Make no instances. */
+  private Corpus() {
+    throw new AssertionError();
+  }
+
+  /**
+   * The apidocs URL of the generated Javadocs.
+   */
+  public static final String APIDOCS_URL = "https://oss.example.com/corpus/apidocs/";
+
+  /**
+   * External links starting with this prefix are expected to be nofollow.
+   */
+  public static final String NOFOLLOW_PREFIX = "https://docs.oracle.com/";
+
+  /**
+   * External links starting with this prefix are expected to be followed.
+   */
+  public static final String FOLLOW_PREFIX = "https://www.example.com/";
+
+  /**
+   * The time of all generated entries, unless otherwise specified.
+   */
+  public static final Instant DEFAULT_TIME = Instant.parse("2024-01-02T03:04:06Z");
+
+  /**
+   * The time of all generated entries of a previous build from the command line.
+   */
+  public static final Instant PREVIOUS_BUILD_TIME = Instant.parse("2024-01-01T00:00:00Z");
+
+  private static final String NL = System.lineSeparator();
+
+  private static final String HTML_EXTENSION = ".html";
+
+  private static final String CLASS_USE = "class-use/";
+
+  private static final String PACKAGE_SUMMARY_HTML = "package-summary.html";
+
+  private static final String INDEX_HTML = "index.html";
+
+  /**
+   * The entries outside packages, not including <code>overview-summary.html</code>.
+   */
+  private static final String[] ROOT_ENTRIES = {
+    "META-INF/", "META-INF/MANIFEST.MF", "com/", "com/example/", "element-list", INDEX_HTML, "allclasses-index.html",
+    "allpackages-index.html", "overview-tree.html", "stylesheet.css", "script.js"
+  };
+
+  private static final int CLASSES_PER_PACKAGE = 25;
+
+  /**
+   * The entries of each package other than its classes: the directory, <code>package-summary.html</code>,
+   * <code>package-tree.html</code>, and the <code>class-use/</code> directory.
+   */
+  private static final int ENTRIES_PER_PACKAGE = 4;
+
+  private static final int FILES_PER_DIRECTORY = 50;
+
+  private static final String[] WORDS = {
+    "the", "value", "returns", "given", "object", "when", "null", "of", "is", "this", "method", "to", "and", "a",
+    "instance", "be", "may", "not", "list", "string", "index", "thrown", "if", "an", "for", "with", "in", "class"
+  };
+
+  /**
+   * Converts a time to the ZIP entry time that is stored with the same fields in the local time zone.
+   */
+  static long toZipTime(Instant time) {
+    long millis = time.toEpochMilli();
+    return millis - TimeZone.getDefault().getOffset(millis);
+  }
+
+  /**
+   * Selects the seed of the next file, which is changed with the given probability.
+   */
+  private static long nextSeed(Random changedRandom, double changedFraction, long fileSeed) {
+    return changedRandom.nextDouble() < changedFraction ? changedRandom.nextLong() : fileSeed;
+  }
+
+  private static long fileSeed(long seed, int fileIndex) {
+    return seed * 31 + fileIndex;
+  }
+
+  private static void putEntry(ZipArchiveOutputStream out, String name, long zipTime, byte[] content)
+      throws IOException {
+    ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setTime(zipTime);
+    out.putArchiveEntry(entry);
+    if (content != null) {
+      out.write(content);
+    }
+    out.closeArchiveEntry();
+  }
+
+  private static void putEntry(ZipArchiveOutputStream out, String name, long zipTime, String content)
+      throws IOException {
+    putEntry(out, name, zipTime, content == null ? null : content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void putDirectory(ZipArchiveOutputStream out, String name, long zipTime) throws IOException {
+    putEntry(out, name, zipTime, (byte[]) null);
+  }
+
+  private static void appendWords(StringBuilder text, Random random, int count) {
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+  }
+
+  /**
+   * Gets the directory of an entry, empty or ending in slash.
+   */
+  private static String getDirectory(String name) {
+    return name.substring(0, name.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Gets the relative link from a directory to an entry, through their nearest common directory.
+   *
+   * @param fromDirectory  The directory, empty or ending in slash
+   */
+  static String relativize(String fromDirectory, String target) {
+    int common = 0;
+    for (int i = 0, len = Math.min(fromDirectory.length(), target.length()); i < len; i++) {
+      char ch = fromDirectory.charAt(i);
+      if (ch != target.charAt(i)) {
+        break;
+      }
+      if (ch == '/') {
+        common = i + 1;
+      }
+    }
+    StringBuilder href = new StringBuilder();
+    for (int i = common; i < fromDirectory.length(); i++) {
+      if (fromDirectory.charAt(i) == '/') {
+        href.append("../");
+      }
+    }
+    return href.append(target, common, target.length()).toString();
+  }
+
+  private static String getPackageName(String name) {
+    String directory = getDirectory(name);
+    if (directory.endsWith(CLASS_USE)) {
+      directory = directory.substring(0, directory.length() - CLASS_USE.length());
+    }
+    return directory.isEmpty() ? "" : directory.substring(0, directory.length() - 1).replace('/', '.');
+  }
+
+  private static String getSimpleName(String name) {
+    return name.substring(name.lastIndexOf('/') + 1, name.length() - HTML_EXTENSION.length());
+  }
+
+  /**
+   * The pages of the generated Javadocs, as targets of links.
+   */
+  private static final class JavadocPages {
+
+    private final List<String> packages;
+    private final List<List<String>> packageClasses;
+    private final List<String> classPages;
+
+    private JavadocPages(int numPackages, int numClasses) {
+      packages = new ArrayList<>(numPackages);
+      packageClasses = new ArrayList<>(numPackages);
+      for (int p = 0; p < numPackages; p++) {
+        // Every other package is nested in the one before
+        packages.add("com/example/p" + (p / 2) + "/" + (p % 2 == 0 ? "" : "impl/"));
+        packageClasses.add(new ArrayList<>());
+      }
+      classPages = new ArrayList<>(numClasses);
+      for (int c = 0; c < numClasses; c++) {
+        int p = c % numPackages;
+        String classPage = packages.get(p) + "Class" + (c / numPackages) + HTML_EXTENSION;
+        packageClasses.get(p).add(classPage);
+        classPages.add(classPage);
+      }
+    }
+
+    private static String getClassUsePage(String classPage) {
+      String directory = getDirectory(classPage);
+      return directory + CLASS_USE + classPage.substring(directory.length());
+    }
+
+    /**
+     * Picks the target of a link, mostly to classes.
+     */
+    private String pickTarget(Random random) {
+      int kind = random.nextInt(10);
+      if (kind == 0) {
+        return packages.get(random.nextInt(packages.size())) + PACKAGE_SUMMARY_HTML;
+      } else if (kind == 1) {
+        return getClassUsePage(classPages.get(random.nextInt(classPages.size())));
+      } else {
+        return classPages.get(random.nextInt(classPages.size()));
+      }
+    }
+  }
+
+  private static void appendHead(StringBuilder html, String title, String root) {
+    html.append("<!DOCTYPE HTML>").append(NL);
+    html.append("<html lang=\"en\">").append(NL);
+    html.append("<head>").append(NL);
+    html.append("<!-- Generated by javadoc (17) -->").append(NL);
+    html.append("<title>").append(title).append("</title>").append(NL);
+    html.append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">").append(NL);
+    html.append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">").append(NL);
+    html.append("<meta name=\"generator\" content=\"javadoc/ClassWriterImpl\">").append(NL);
+    html.append("<link rel=\"stylesheet\" type=\"text/css\" href=\"").append(root)
+        .append("stylesheet.css\" title=\"Style\">").append(NL);
+    html.append("<script type=\"text/javascript\" src=\"").append(root).append("script.js\"></script>").append(NL);
+    html.append("</head>").append(NL);
+  }
+
+  /**
+   * Generates a page of about the given size, with the given number of links.
+   *
+   * @param fixedTargets  Targets linked before any random links, such as the class of a <code>class-use</code> page
+   */
+  private static String generatePage(String name, String bodyClass, JavadocPages pages, int pageBytes,
+      int linksPerPage, long pageSeed, String ... fixedTargets) {
+    Random random = new Random(pageSeed);
+    String directory = getDirectory(name);
+    String root = relativize(directory, "");
+    String title = getSimpleName(name);
+    StringBuilder html = new StringBuilder(pageBytes + 1024);
+    appendHead(html, title, root);
+    html.append("<body class=\"").append(bodyClass).append("\">").append(NL);
+    html.append("<main role=\"main\">").append(NL);
+    html.append("<h1 title=\"").append(title).append("\" class=\"title\">").append(title).append("</h1>").append(NL);
+    for (String target : fixedTargets) {
+      html.append("<div class=\"sub-title\"><a href=\"").append(relativize(directory, target)).append("\">")
+          .append(getSimpleName(target)).append("</a></div>").append(NL);
+    }
+    int linksRemaining = linksPerPage;
+    while (html.length() < pageBytes || linksRemaining > 0) {
+      if (linksRemaining > 0 && (html.length() >= pageBytes || random.nextInt(4) == 0)) {
+        linksRemaining--;
+        html.append("<li><a href=\"");
+        int kind = random.nextInt(20);
+        if (kind == 0) {
+          html.append("#method-summary\">Method Summary");
+        } else if (kind == 1) {
+          html.append(NOFOLLOW_PREFIX).append("en/java/javase/11/docs/api/java.base/java/lang/Object.html\""
+              + " title=\"class or interface in java.lang\" class=\"external-link\">Object");
+        } else if (kind == 2) {
+          html.append(FOLLOW_PREFIX).append("page-").append(random.nextInt(1000)).append(".html\">External");
+        } else if (kind == 3) {
+          html.append(root).append(INDEX_HTML).append("\">Overview");
+        } else {
+          String target = pages.pickTarget(random);
+          html.append(relativize(directory, target)).append("\" title=\"class in ")
+              .append(getPackageName(target)).append("\">")
+              .append(getSimpleName(target));
+        }
+        html.append("</a></li>").append(NL);
+      } else {
+        html.append("<div class=\"block\">");
+        appendWords(html, random, 8 + random.nextInt(24));
+        html.append(".</div>").append(NL);
+      }
+    }
+    html.append("</main>").append(NL);
+    html.append("</body>").append(NL);
+    html.append("</html>").append(NL);
+    return html.toString();
+  }
+
+  /**
+   * Generates a page that redirects to the given target, as generated for <code>index.html</code> or
+   * <code>overview-summary.html</code>.
+   */
+  private static String generateRedirectPage(String target) {
+    StringBuilder html = new StringBuilder();
+    html.append("<!DOCTYPE HTML>").append(NL);
+    html.append("<html lang=\"en\">").append(NL);
+    html.append("<head>").append(NL);
+    html.append("<!-- Generated by javadoc (17) -->").append(NL);
+    html.append("<title>API Overview</title>").append(NL);
+    html.append("<meta name=\"description\" content=\"index redirect\">").append(NL);
+    html.append("<meta name=\"generator\" content=\"javadoc/IndexRedirectWriter\">").append(NL);
+    html.append("<link rel=\"canonical\" href=\"").append(target).append("\">").append(NL);
+    html.append("<link rel=\"stylesheet\" type=\"text/css\" href=\"stylesheet.css\" title=\"Style\">").append(NL);
+    html.append("<script type=\"text/javascript\">window.location.replace('").append(target).append("')</script>")
+        .append(NL);
+    html.append("<noscript>").append(NL);
+    html.append("<meta http-equiv=\"Refresh\" content=\"0;").append(target).append("\">").append(NL);
+    html.append("</noscript>").append(NL);
+    html.append("</head>").append(NL);
+    html.append("<body class=\"index-redirect-page\">").append(NL);
+    html.append("<main role=\"main\">").append(NL);
+    html.append("<noscript>").append(NL);
+    html.append("<p>JavaScript is disabled on your browser.</p>").append(NL);
+    html.append("</noscript>").append(NL);
+    html.append("<p><a href=\"").append(target).append("\">").append(target).append("</a></p>").append(NL);
+    html.append("</main>").append(NL);
+    html.append("</body>").append(NL);
+    html.append("</html>").append(NL);
+    return html.toString();
+  }
+
+  /**
+   * Generates a Javadoc JAR file.
+   *
+   * @param entries         The approximate number of entries, including directories
+   * @param pageBytes       The approximate size of each HTML page
+   * @param linksPerPage    The number of links on each HTML page
+   * @param redirectIndex   When {@code true}, <code>index.html</code> redirects to the first package, as generated for
+   *                        a single package.  Otherwise, <code>index.html</code> is an overview of all packages and
+   *                        <code>overview-summary.html</code> redirects to it.
+   * @param changedFraction The fraction of pages with different content, between {@code 0.0} and {@code 1.0}, such as
+   *                        to generate the Javadocs of a previous build
+   * @param changedSeed     The seed selecting the changed pages and their content
+   * @param time            The time of all entries
+   */
+  public static void writeJavadocJar(File file, int entries, int pageBytes, int linksPerPage, boolean redirectIndex,
+      long seed, double changedFraction, long changedSeed, Instant time) throws IOException {
+    int rootEntries = ROOT_ENTRIES.length + (redirectIndex ? 0 : 1);
+    int numPackages = Math.max(1, (entries - rootEntries) / (ENTRIES_PER_PACKAGE + CLASSES_PER_PACKAGE * 2));
+    int numClasses = Math.max(numPackages, (entries - rootEntries - numPackages * ENTRIES_PER_PACKAGE) / 2);
+    JavadocPages pages = new JavadocPages(numPackages, numClasses);
+    long zipTime = toZipTime(time);
+    Random changedRandom = new Random(changedSeed);
+    int pageIndex = 0;
+    try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(file)) {
+      putDirectory(out, "META-INF/", zipTime);
+      putEntry(out, "META-INF/MANIFEST.MF", zipTime, "Manifest-Version: 1.0" + NL + "Created-By: Corpus" + NL + NL);
+      putDirectory(out, "com/", zipTime);
+      putDirectory(out, "com/example/", zipTime);
+      StringBuilder elementList = new StringBuilder();
+      for (String pkg : pages.packages) {
+        elementList.append(pkg, 0, pkg.length() - 1).append(NL);
+      }
+      putEntry(out, "element-list", zipTime, elementList.toString().replace('/', '.'));
+      String firstPackageSummary = pages.packages.get(0) + PACKAGE_SUMMARY_HTML;
+      if (redirectIndex) {
+        putEntry(out, INDEX_HTML, zipTime, generateRedirectPage(firstPackageSummary));
+      } else {
+        putEntry(out, INDEX_HTML, zipTime, generatePage(INDEX_HTML, "package-index-page", pages, pageBytes,
+            linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++)), firstPackageSummary));
+        putEntry(out, "overview-summary.html", zipTime, generateRedirectPage(INDEX_HTML));
+      }
+      putEntry(out, "allclasses-index.html", zipTime, generatePage("allclasses-index.html", "all-classes-index-page",
+          pages, pageBytes, linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++))));
+      putEntry(out, "allpackages-index.html", zipTime, generatePage("allpackages-index.html",
+          "all-packages-index-page", pages, pageBytes, linksPerPage,
+          nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++))));
+      putEntry(out, "overview-tree.html", zipTime, generatePage("overview-tree.html", "tree-page", pages, pageBytes,
+          linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++))));
+      putEntry(out, "stylesheet.css", zipTime, "body { margin: 0; }" + NL);
+      putEntry(out, "script.js", zipTime, "var pathtoroot;" + NL);
+      for (int p = 0; p < numPackages; p++) {
+        String pkg = pages.packages.get(p);
+        List<String> classPages = pages.packageClasses.get(p);
+        putDirectory(out, pkg, zipTime);
+        putEntry(out, pkg + PACKAGE_SUMMARY_HTML, zipTime, generatePage(pkg + PACKAGE_SUMMARY_HTML,
+            "package-declaration-page", pages, pageBytes, linksPerPage,
+            nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++)),
+            classPages.toArray(new String[classPages.size()])));
+        putEntry(out, pkg + "package-tree.html", zipTime, generatePage(pkg + "package-tree.html", "package-tree-page",
+            pages, pageBytes, linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++))));
+        for (String classPage : classPages) {
+          putEntry(out, classPage, zipTime, generatePage(classPage, "class-declaration-page", pages, pageBytes,
+              linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++)),
+              pkg + PACKAGE_SUMMARY_HTML, JavadocPages.getClassUsePage(classPage)));
+        }
+        putDirectory(out, pkg + CLASS_USE, zipTime);
+        for (String classPage : classPages) {
+          String classUsePage = JavadocPages.getClassUsePage(classPage);
+          putEntry(out, classUsePage, zipTime, generatePage(classUsePage, "class-use-page", pages, pageBytes,
+              linksPerPage, nextSeed(changedRandom, changedFraction, fileSeed(seed, pageIndex++)), classPage));
+        }
+      }
+    }
+  }
+
+  /**
+   * Generates a Javadoc JAR file with an overview, with no changes and the {@linkplain #DEFAULT_TIME default time}.
+   *
+   * @see #writeJavadocJar(java.io.File, int, int, int, boolean, long, double, long, java.time.Instant)
+   */
+  public static void writeJavadocJar(File file, int entries, int pageBytes, int linksPerPage, long seed)
+      throws IOException {
+    writeJavadocJar(file, entries, pageBytes, linksPerPage, false, seed, 0, 0, DEFAULT_TIME);
+  }
+
+  /**
+   * Generates the content of one WAR entry.  Class files are random binary, while other files are text.
+   */
+  private static byte[] generateWarContent(String name, int entryBytes, long fileSeed) {
+    Random random = new Random(fileSeed);
+    if (name.endsWith(".class")) {
+      byte[] content = new byte[entryBytes];
+      random.nextBytes(content);
+      return content;
+    } else {
+      StringBuilder text = new StringBuilder(entryBytes + 256);
+      while (text.length() < entryBytes) {
+        appendWords(text, random, 8 + random.nextInt(24));
+        text.append(NL);
+      }
+      return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Generates a WAR file.
+   *
+   * @param entries         The approximate number of entries, including directories
+   * @param entryBytes      The approximate size of each file
+   * @param changedFraction The fraction of files with different content, between {@code 0.0} and {@code 1.0}, such as
+   *                        to generate the WAR of a previous build
+   * @param changedSeed     The seed selecting the changed files and their content
+   * @param time            The time of all entries
+   */
+  public static void writeWar(File file, int entries, int entryBytes, long seed, double changedFraction,
+      long changedSeed, Instant time) throws IOException {
+    final String[] extensions = {".class", ".html", ".css", ".class", ".js"};
+    long zipTime = toZipTime(time);
+    Random changedRandom = new Random(changedSeed);
+    int fileIndex = 0;
+    try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(file)) {
+      putDirectory(out, "META-INF/", zipTime);
+      putEntry(out, "META-INF/MANIFEST.MF", zipTime, "Manifest-Version: 1.0" + NL + "Created-By: Corpus" + NL + NL);
+      putDirectory(out, "WEB-INF/", zipTime);
+      putDirectory(out, "WEB-INF/classes/", zipTime);
+      putEntry(out, "WEB-INF/web.xml", zipTime, "<web-app/>" + NL);
+      putDirectory(out, "static/", zipTime);
+      int remaining = entries - 6;
+      for (int d = 0; remaining > 0; d++) {
+        String directory = (d % 2 == 0 ? "WEB-INF/classes/d" : "static/d") + d + "/";
+        putDirectory(out, directory, zipTime);
+        remaining--;
+        for (int f = 0; f < FILES_PER_DIRECTORY && remaining > 0; f++, remaining--) {
+          String name = directory + "f" + f + extensions[f % extensions.length];
+          putEntry(out, name, zipTime, generateWarContent(name, entryBytes,
+              nextSeed(changedRandom, changedFraction, fileSeed(seed, fileIndex++))));
+        }
+      }
+    }
+  }
+
+  private static final String USAGE = "usage: " + Corpus.class.getName() + " javadoc <file> <entries> <pageBytes>"
+      + " <linksPerPage> <redirectIndex> <seed> [<changedPercent> <changedSeed>]" + NL
+      + "       " + Corpus.class.getName() + " war <file> <entries> <entryBytes> <seed> [<changedPercent>"
+      + " <changedSeed>]" + NL
+      + NL
+      + "When <changedPercent> is given, generates a previous build at " + PREVIOUS_BUILD_TIME + "." + NL;
+
+  /**
+   * Generates a single file from the command line, such as to reproduce an issue from its parameters alone.
+   */
+  @SuppressWarnings({"UseOfSystemOutOrSystemErr", "CallToSystemExit"})
+  public static void main(String[] args) throws IOException {
+    String type = args.length == 0 ? "" : args[0];
+    int numArgs;
+    if ("javadoc".equals(type)) {
+      numArgs = 7;
+    } else if ("war".equals(type)) {
+      numArgs = 5;
+    } else {
+      numArgs = -1;
+    }
+    if (numArgs == -1 || (args.length != numArgs && args.length != numArgs + 2)) {
+      System.err.print(USAGE);
+      System.exit(1);
+      return;
+    }
+    boolean previous = args.length == numArgs + 2;
+    double changedFraction = previous ? (Integer.parseInt(args[numArgs]) / 100.0) : 0;
+    long changedSeed = previous ? Long.parseLong(args[numArgs + 1]) : 0;
+    Instant time = previous ? PREVIOUS_BUILD_TIME : DEFAULT_TIME;
+    File file = new File(args[1]);
+    int entries = Integer.parseInt(args[2]);
+    if ("javadoc".equals(type)) {
+      writeJavadocJar(file, entries, Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+          Boolean.parseBoolean(args[5]), Long.parseLong(args[6]), changedFraction, changedSeed, time);
+    } else {
+      writeWar(file, entries, Integer.parseInt(args[3]), Long.parseLong(args[4]), changedFraction, changedSeed, time);
+    }
+  }
+}
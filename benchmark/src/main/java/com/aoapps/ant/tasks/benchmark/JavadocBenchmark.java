@@ -0,0 +1,128 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks.benchmark;
+
+import com.aoapps.ant.tasks.GenerateJavadocSitemap;
+import com.aoapps.ant.tasks.InsertGoogleAnalyticsTracking;
+import com.aoapps.ant.tasks.JavadocPipeline;
+import com.aoapps.ant.tasks.SeoJavadocFilter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the Javadoc processing of {@link SeoJavadocFilter}, {@link GenerateJavadocSitemap},
+ * {@link InsertGoogleAnalyticsTracking}, and {@link JavadocPipeline}.
+ *
+ * <p>Each operation modifies the JAR file in-place, so a fresh copy of the generated JAR file is made before each
+ * iteration of a single operation.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JavadocBenchmark {
+
+  private static final List<String> NOFOLLOW = Collections.singletonList(Corpus.NOFOLLOW_PREFIX);
+
+  private static final List<String> FOLLOW = Collections.singletonList(Corpus.FOLLOW_PREFIX);
+
+  private static final String GOOGLE_ANALYTICS_TRACKING_ID = "G-BENCHMARK";
+
+  private static final long SEED = 1;
+
+  @Param({"1000", "10000", "100000"})
+  public int entries;
+
+  @Param({"4096", "32768"})
+  public int pageBytes;
+
+  @Param({"8", "64"})
+  public int linksPerPage;
+
+  private File directory;
+  private File generatedJar;
+  private File javadocJar;
+
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    directory = Files.createTempDirectory(JavadocBenchmark.class.getSimpleName()).toFile();
+    generatedJar = new File(directory, "generated-javadoc.jar");
+    javadocJar = new File(directory, "corpus-javadoc.jar");
+    Corpus.writeJavadocJar(generatedJar, entries, pageBytes, linksPerPage, SEED);
+  }
+
+  @Setup(Level.Iteration)
+  public void copy() throws IOException {
+    Files.copy(generatedJar.toPath(), javadocJar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Benchmark
+  public void filterJavadocJar() throws IOException {
+    SeoJavadocFilter.filterJavadocJar(javadocJar, Corpus.APIDOCS_URL, NOFOLLOW, FOLLOW);
+  }
+
+  @Benchmark
+  public void addSitemapToJavadocJar() throws IOException {
+    GenerateJavadocSitemap.addSitemapToJavadocJar(javadocJar, Corpus.APIDOCS_URL);
+  }
+
+  @Benchmark
+  public void addTrackingCodeToZip() throws IOException {
+    InsertGoogleAnalyticsTracking.addTrackingCodeToZip(javadocJar, GOOGLE_ANALYTICS_TRACKING_ID);
+  }
+
+  @Benchmark
+  public void processJavadocJar() throws IOException {
+    JavadocPipeline.processJavadocJar(javadocJar, Corpus.APIDOCS_URL, true, NOFOLLOW, FOLLOW,
+        GOOGLE_ANALYTICS_TRACKING_ID, true);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks.benchmark;
+
+import com.aoapps.ant.tasks.ZipTimestampMerge;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link ZipTimestampMerge} between the WAR files of a previous and current build.
+ *
+ * <p>The build WAR file is patched in-place, so a fresh copy of the generated WAR file is made before each iteration of
+ * a single operation.  Likewise, the cache file is replaced after each merge, so a fresh copy of a cache primed by
+ * merging the last build is made before each iteration.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ZipTimestampMergeBenchmark {
+
+  private static final String WAR_NAME = "corpus-1.0.0-SNAPSHOT.war";
+
+  private static final long SEED = 1;
+
+  private static final long CHANGED_SEED = 2;
+
+  @Param({"1000", "10000", "100000"})
+  public int entries;
+
+  @Param({"1024", "16384"})
+  public int entryBytes;
+
+  /**
+   * The percentage of entries changed since the last build.
+   */
+  @Param({"0", "10", "100"})
+  public int changedPercent;
+
+  private File directory;
+  private File generatedWar;
+  private File lastBuildDirectory;
+  private File lastBuildWar;
+  private File buildDirectory;
+  private File buildWar;
+  private File primedCacheFile;
+  private File cacheFile;
+
+  @Setup(Level.Trial)
+  public void generate() throws IOException {
+    directory = Files.createTempDirectory(ZipTimestampMergeBenchmark.class.getSimpleName()).toFile();
+    generatedWar = new File(directory, WAR_NAME);
+    lastBuildDirectory = new File(directory, "lastBuild");
+    lastBuildWar = new File(lastBuildDirectory, WAR_NAME);
+    buildDirectory = new File(directory, "build");
+    buildWar = new File(buildDirectory, WAR_NAME);
+    Files.createDirectory(lastBuildDirectory.toPath());
+    Files.createDirectory(buildDirectory.toPath());
+    Corpus.writeWar(generatedWar, entries, entryBytes, SEED, 0, CHANGED_SEED, Corpus.DEFAULT_TIME);
+    Corpus.writeWar(lastBuildWar, entries, entryBytes, SEED, changedPercent / 100.0, CHANGED_SEED,
+        Corpus.PREVIOUS_BUILD_TIME);
+    // Prime the cache by merging a build of the same content as the last build, as if the last build had been merged
+    File primeDirectory = new File(directory, "prime");
+    Files.createDirectory(primeDirectory.toPath());
+    Corpus.writeWar(new File(primeDirectory, WAR_NAME), entries, entryBytes, SEED, changedPercent / 100.0, CHANGED_SEED,
+        Corpus.DEFAULT_TIME);
+    primedCacheFile = new File(directory, "primed.cache");
+    cacheFile = new File(directory, "merge.cache");
+    try {
+      ZipTimestampMerge.mergeDirectory(Corpus.DEFAULT_TIME, true, true, lastBuildDirectory, primeDirectory, 1, false,
+          primedCacheFile, false, null);
+    } catch (ParseException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void copy() throws IOException {
+    Files.copy(generatedWar.toPath(), buildWar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    Files.copy(primedCacheFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Benchmark
+  public void mergeFile() throws IOException {
+    ZipTimestampMerge.mergeFile(Corpus.DEFAULT_TIME, true, lastBuildWar, buildWar);
+  }
+
+  @Benchmark
+  public void mergeDirectory() throws IOException, ParseException {
+    ZipTimestampMerge.mergeDirectory(Corpus.DEFAULT_TIME, true, true, lastBuildDirectory, buildDirectory);
+  }
+
+  @Benchmark
+  public void mergeDirectoryCached() throws IOException, ParseException {
+    ZipTimestampMerge.mergeDirectory(Corpus.DEFAULT_TIME, true, true, lastBuildDirectory, buildDirectory, 1, false,
+        cacheFile, false, null);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.apache.commons.io.function.IOConsumer;
+
+/**
+ * File utilities shared by the sidecar and summary files written between builds.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class AtomicFiles {
+
+  /** Make no instances. */
+  private AtomicFiles() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Writes a file through a temporary file in the same directory, replacing any existing file only after the new file
+   * is fully written.  The replacement is atomic when supported by the file system.
+   *
+   * @param writer  Writes the content to a buffered stream, which is closed once written
+   */
+  static void write(File file, IOConsumer<OutputStream> writer) throws IOException {
+    Path path = file.toPath().toAbsolutePath();
+    Path tempPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+        writer.accept(out);
+      }
+      try {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+}
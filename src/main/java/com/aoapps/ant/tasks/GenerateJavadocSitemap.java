@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,22 +26,22 @@ package com.aoapps.ant.tasks;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.AT;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.AT_LINE;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.ENCODING;
-import static com.aoapps.ant.tasks.SeoJavadocFilter.FILTER_EXTENSION;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.NL;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.NOINDEX;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.ROBOTS_PREFIX;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.ROBOTS_SUFFIX;
-import static com.aoapps.ant.tasks.SeoJavadocFilter.readLinesWithEof;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.io.Closeable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -52,14 +52,17 @@ import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import org.apache.commons.compress.archivers.zip.ExtraFieldUtils;
 import org.apache.commons.compress.archivers.zip.GeneralPurposeBit;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
 import org.apache.commons.text.StringEscapeUtils;
 
 /**
@@ -70,6 +73,13 @@ import org.apache.commons.text.StringEscapeUtils;
  * total sitemap index.  The timestamp of the added <code>sitemap.xml</code> and <code>META-INF/sitemap-index.xml</code>
  * will be based on the most recent modified time they contain.
  *
+ * <p>When exceeding the sitemaps.org limit of 50,000 URLs or 50MB in a single sitemap, the sitemap is split into
+ * <code>sitemap-1.xml</code> through <code>sitemap-N.xml</code>, each listed in the index with its own most recent
+ * modified time.</p>
+ *
+ * <p>Sitemaps may optionally be compressed with gzip, such as <code>sitemap.xml.gz</code>, and are then stored without
+ * additional compression in the JAR.</p>
+ *
  * <p>This does not have any direct Ant dependencies.
  * If only using this class, it is permissible to exclude the ant dependencies.</p>
  *
@@ -91,10 +101,52 @@ public final class GenerateJavadocSitemap {
   private static final String GENERATED_COMMENT = "Generated by " + GenerateJavadocSitemap.class.getName();
 
   /**
-   * The ZIP entry containing the sitemap.
+   * The ZIP entry containing the sitemap, when not split into parts.
    */
   private static final String SITEMAP_NAME = "sitemap.xml";
 
+  /**
+   * The prefix of the ZIP entries containing each part of the sitemap, when split into parts.  Parts are numbered
+   * starting at one.
+   */
+  private static final String SITEMAP_PART_PREFIX = "sitemap-";
+
+  private static final String SITEMAP_PART_SUFFIX = ".xml";
+
+  /**
+   * The suffix added to the ZIP entries of gzip-compressed sitemaps.
+   */
+  private static final String GZIP_SUFFIX = ".gz";
+
+  /**
+   * Matches the ZIP entries of sitemap parts, with or without gzip compression.
+   */
+  private static final Pattern SITEMAP_PART_PATTERN = Pattern.compile(
+      Pattern.quote(SITEMAP_PART_PREFIX) + "[1-9][0-9]*" + Pattern.quote(SITEMAP_PART_SUFFIX)
+          + "(" + Pattern.quote(GZIP_SUFFIX) + ")?");
+
+  /**
+   * The operating system written to the gzip header, which is always "unknown" for reproducibility.
+   */
+  private static final int GZIP_OS_UNKNOWN = 255;
+
+  /**
+   * The maximum number of URLs in each sitemap.
+   * See <a href="https://www.sitemaps.org/protocol.html#index">sitemaps.org - Protocol - Using Sitemap index files</a>.
+   */
+  private static final int SITEMAP_MAX_URLS = 50000;
+
+  /**
+   * The maximum size of each sitemap, uncompressed.
+   * See <a href="https://www.sitemaps.org/protocol.html#index">sitemaps.org - Protocol - Using Sitemap index files</a>.
+   */
+  private static final long SITEMAP_MAX_BYTES = 52428800;
+
+  /**
+   * The buffer size used while writing each sitemap.
+   */
+  private static final int WRITE_BUFFER_SIZE = 8192;
+
   /**
    * The ZIP entry for <code>META-INF/</code> directory.
    */
@@ -121,6 +173,11 @@ public final class GenerateJavadocSitemap {
     private final String entryName;
     private final long entryTime;
 
+    /**
+     * The entry name, escaped for XML and encoded, since pages may be filtered concurrently.
+     */
+    private final byte[] entryNameXml;
+
     @SuppressFBWarnings("CT_CONSTRUCTOR_THROW")
     private SitemapPath(String entryName, long entryTime) {
       this.entryName = entryName;
@@ -128,6 +185,7 @@ public final class GenerateJavadocSitemap {
         throw new IllegalArgumentException("entryTime == -1");
       }
       this.entryTime = entryTime;
+      this.entryNameXml = escapeXml(entryName);
     }
 
     @Override
@@ -159,8 +217,30 @@ public final class GenerateJavadocSitemap {
     }
   }
 
+  /**
+   * Escapes a value for XML and encodes it.  Values that are printable ASCII without any XML special characters, which
+   * is nearly all Javadoc paths, are encoded directly without going through {@link StringEscapeUtils#escapeXml10(java.lang.String)}.
+   */
+  private static byte[] escapeXml(String value) {
+    int len = value.length();
+    byte[] ascii = new byte[len];
+    for (int i = 0; i < len; i++) {
+      char ch = value.charAt(i);
+      if (
+          ch < ' ' || ch > '~'
+              || ch == '&' || ch == '<' || ch == '>' || ch == '"' || ch == '\''
+      ) {
+        return StringEscapeUtils.escapeXml10(value).getBytes(ENCODING);
+      }
+      ascii[i] = (byte) ch;
+    }
+    return ascii;
+  }
+
   /**
    * Creates a date formatter.
+   * Only used for times outside the range of {@link LastmodFormat#MIN_FAST_YEAR} through
+   * {@link LastmodFormat#MAX_FAST_YEAR}.
    * See <a href="https://stackoverflow.com/a/3914498/7121505">java - How to get current moment in ISO 8601 format with
    * date, hour, and minute? - Stack Overflow</a>.
    */
@@ -172,54 +252,211 @@ public final class GenerateJavadocSitemap {
   }
 
   /**
-   * Generates the sitemap.
+   * The beginning of each sitemap, before the first URL.
    */
-  private static String generateSitemap(String apidocsUrlWithSlash, SortedSet<SitemapPath> sitemapPaths) {
-    final String apidocsUrlWithSlashXmlEscaped = StringEscapeUtils.escapeXml10(apidocsUrlWithSlash);
-    final DateFormat iso8601 = createIso8601Format();
-    StringBuilder sitemap = new StringBuilder();
-    sitemap.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>").append(NL);
-    sitemap.append("<!-- ").append(StringEscapeUtils.escapeXml10(GENERATED_COMMENT)).append(" -->").append(NL);
-    sitemap.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">").append(NL);
-    for (SitemapPath sitemapPath : sitemapPaths) {
-      sitemap.append("  <url>").append(NL);
-      sitemap.append("    <loc>");
-      sitemap.append(apidocsUrlWithSlashXmlEscaped);
-      sitemap.append(StringEscapeUtils.escapeXml10(sitemapPath.entryName));
-      sitemap.append("</loc>").append(NL);
-      sitemap.append("    <lastmod>");
+  private static final byte[] SITEMAP_START = (
+      "<?xml version=\"1.0\" encoding=\"" + ENCODING + "\"?>" + NL
+          + "<!-- " + StringEscapeUtils.escapeXml10(GENERATED_COMMENT) + " -->" + NL
+          + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">" + NL
+  ).getBytes(ENCODING);
+
+  private static final byte[] URL_START = ("  <url>" + NL + "    <loc>").getBytes(ENCODING);
+
+  private static final byte[] URL_LASTMOD = ("</loc>" + NL + "    <lastmod>").getBytes(ENCODING);
+
+  private static final byte[] URL_END = (
+      "</lastmod>" + NL
+          + "    <priority>" + SITEMAP_PRIORITY + "</priority>" + NL
+          + "  </url>" + NL
+  ).getBytes(ENCODING);
+
+  /**
+   * The end of each sitemap, after the last URL.
+   */
+  private static final byte[] SITEMAP_END = ("</urlset>" + NL).getBytes(ENCODING);
+
+  /**
+   * Formats the last modified times of the sitemap as ISO 8601 in UTC, such as <code>2024-01-02T03:04:05Z</code>.
+   * Since the URLs are ordered by time, the most recently formatted second is reused for consecutive URLs within the
+   * same second.
+   *
+   * <p>The digits are written directly into a reused buffer, so formatting does not allocate.  Years before the
+   * Gregorian cutover or beyond four digits fall back to {@link #createIso8601Format()}.</p>
+   */
+  private static final class LastmodFormat {
+
+    /**
+     * The first full year after the Gregorian cutover used by {@link SimpleDateFormat}.
+     */
+    private static final int MIN_FAST_YEAR = 1583;
+
+    private static final int MAX_FAST_YEAR = 9999;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    private static final long SECONDS_PER_DAY = 24L * 60 * 60;
+
+    /**
+     * The template for the buffer, with separators in place.
+     */
+    private static final byte[] TEMPLATE = "0000-00-00T00:00:00Z".getBytes(ENCODING);
+
+    private final TimeZone defaultTimeZone = TimeZone.getDefault();
+    private final byte[] buffer = TEMPLATE.clone();
+    private DateFormat fallbackFormat;
+    private boolean hasLast;
+    private long lastEpochSecond;
+    private byte[] lastLastmod;
+
+    /**
+     * Formats the given ZIP entry time, converted to UTC.
+     *
+     * @return  the formatted time, which may be overwritten by the next call
+     */
+    private byte[] format(long entryTime) {
       // Convert time to UTC
-      long time = ZipTimestampMerge.offsetFromZipToUtc(sitemapPath.entryTime);
-      sitemap.append(StringEscapeUtils.escapeXml10(iso8601.format(new Date(time))));
-      sitemap.append("</lastmod>").append(NL);
-      sitemap.append("    <priority>").append(SITEMAP_PRIORITY).append("</priority>").append(NL);
-      sitemap.append("  </url>").append(NL);
+      long time = ZipTimestampMerge.offsetFromZipToUtc(defaultTimeZone, entryTime);
+      long epochSecond = Math.floorDiv(time, MILLIS_PER_SECOND);
+      if (!hasLast || epochSecond != lastEpochSecond) {
+        lastLastmod = format(time, epochSecond);
+        lastEpochSecond = epochSecond;
+        hasLast = true;
+      }
+      return lastLastmod;
+    }
+
+    private byte[] format(long time, long epochSecond) {
+      long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+      int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+      // Proleptic Gregorian date from days since epoch, see http://howardhinnant.github.io/date_algorithms.html
+      long z = epochDay + 719468;
+      long era = Math.floorDiv(z, 146097);
+      int dayOfEra = (int) (z - era * 146097);
+      int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+      int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      int mp = (5 * dayOfYear + 2) / 153;
+      int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+      int month = mp < 10 ? mp + 3 : mp - 9;
+      long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+      if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+        if (fallbackFormat == null) {
+          fallbackFormat = createIso8601Format();
+        }
+        return fallbackFormat.format(new Date(time)).getBytes(ENCODING);
+      }
+      writeDigits((int) year, 0, 4);
+      writeDigits(month, 5, 2);
+      writeDigits(day, 8, 2);
+      writeDigits(secondOfDay / 3600, 11, 2);
+      writeDigits(secondOfDay / 60 % 60, 14, 2);
+      writeDigits(secondOfDay % 60, 17, 2);
+      return buffer;
+    }
+
+    private void writeDigits(int value, int offset, int digits) {
+      for (int i = offset + digits - 1; i >= offset; i--) {
+        buffer[i] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+    }
+  }
+
+  /**
+   * Splits the sitemap into parts within the limits of {@link #SITEMAP_MAX_URLS} and {@link #SITEMAP_MAX_BYTES}.
+   *
+   * @return  the index one past the last URL of each part
+   */
+  private static List<Integer> splitSitemap(byte[] apidocsUrlWithSlashXml, List<SitemapPath> sitemapPaths) {
+    List<Integer> partEnds = new ArrayList<>();
+    LastmodFormat lastmodFormat = new LastmodFormat();
+    long partBytes = (long) SITEMAP_START.length + SITEMAP_END.length;
+    int partUrls = 0;
+    for (int i = 0, size = sitemapPaths.size(); i < size; i++) {
+      SitemapPath sitemapPath = sitemapPaths.get(i);
+      long urlBytes = (long) URL_START.length + apidocsUrlWithSlashXml.length + sitemapPath.entryNameXml.length
+          + URL_LASTMOD.length + lastmodFormat.format(sitemapPath.entryTime).length + URL_END.length;
+      if (partUrls > 0 && (partUrls == SITEMAP_MAX_URLS || partBytes + urlBytes > SITEMAP_MAX_BYTES)) {
+        partEnds.add(i);
+        partBytes = (long) SITEMAP_START.length + SITEMAP_END.length;
+        partUrls = 0;
+      }
+      partBytes += urlBytes;
+      partUrls++;
+    }
+    partEnds.add(sitemapPaths.size());
+    return partEnds;
+  }
+
+  /**
+   * Writes one sitemap, streaming each URL as generated.
+   *
+   * @return  the number of bytes written
+   */
+  private static long writeSitemap(byte[] apidocsUrlWithSlashXml, List<SitemapPath> sitemapPaths, OutputStream out)
+      throws IOException {
+    LastmodFormat lastmodFormat = new LastmodFormat();
+    out.write(SITEMAP_START);
+    long size = SITEMAP_START.length;
+    for (SitemapPath sitemapPath : sitemapPaths) {
+      out.write(URL_START);
+      out.write(apidocsUrlWithSlashXml);
+      out.write(sitemapPath.entryNameXml);
+      out.write(URL_LASTMOD);
+      byte[] lastmod = lastmodFormat.format(sitemapPath.entryTime);
+      out.write(lastmod);
+      out.write(URL_END);
+      size += URL_START.length + apidocsUrlWithSlashXml.length + sitemapPath.entryNameXml.length
+          + URL_LASTMOD.length + lastmod.length + URL_END.length;
     }
-    sitemap.append("</urlset>").append(NL);
-    return sitemap.toString();
+    out.write(SITEMAP_END);
+    return size + SITEMAP_END.length;
+  }
+
+  /**
+   * Compresses a sitemap with gzip.  The header has no modification time and an unknown operating system, so the result
+   * is reproducible.
+   *
+   * @return  the compressed sitemap
+   */
+  private static byte[] gzipSitemap(byte[] apidocsUrlWithSlashXml, List<SitemapPath> sitemapPaths)
+      throws IOException {
+    GzipParameters parameters = new GzipParameters();
+    parameters.setCompressionLevel(Deflater.BEST_COMPRESSION);
+    parameters.setModificationTime(0);
+    parameters.setOperatingSystem(GZIP_OS_UNKNOWN);
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    try (OutputStream gzipOut = new BufferedOutputStream(new GzipCompressorOutputStream(bytesOut, parameters),
+        WRITE_BUFFER_SIZE)) {
+      writeSitemap(apidocsUrlWithSlashXml, sitemapPaths, gzipOut);
+    }
+    return bytesOut.toByteArray();
   }
 
   /**
    * Generates the sitemap index.
+   *
+   * @param sitemapNames          the name of each sitemap
+   * @param sitemapLastModifieds  the most recent modified time of each sitemap
    */
-  private static String generateSitemapIndex(String apidocsUrlWithSlash, long sitemapLastModified) {
+  private static String generateSitemapIndex(String apidocsUrlWithSlash, List<String> sitemapNames,
+      List<Long> sitemapLastModifieds) {
     StringBuilder sitemapIndex = new StringBuilder();
     sitemapIndex.append("<?xml version=\"1.0\" encoding=\"").append(ENCODING).append("\"?>").append(NL);
     sitemapIndex.append("<!-- ").append(StringEscapeUtils.escapeXml10(GENERATED_COMMENT)).append(" -->").append(NL);
     sitemapIndex.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">").append(NL);
-    sitemapIndex.append("  <sitemap>").append(NL);
-    sitemapIndex.append("    <loc>");
     String apidocsUrlWithSlashXmlEscaped = StringEscapeUtils.escapeXml10(apidocsUrlWithSlash);
-    sitemapIndex.append(apidocsUrlWithSlashXmlEscaped);
-    sitemapIndex.append(StringEscapeUtils.escapeXml10(SITEMAP_NAME));
-    sitemapIndex.append("</loc>").append(NL);
-    sitemapIndex.append("    <lastmod>");
-    // Convert time to UTC
-    DateFormat iso8601 = createIso8601Format();
-    long time = ZipTimestampMerge.offsetFromZipToUtc(sitemapLastModified);
-    sitemapIndex.append(StringEscapeUtils.escapeXml10(iso8601.format(new Date(time))));
-    sitemapIndex.append("</lastmod>").append(NL);
-    sitemapIndex.append("  </sitemap>").append(NL);
+    LastmodFormat lastmodFormat = new LastmodFormat();
+    for (int i = 0, size = sitemapNames.size(); i < size; i++) {
+      sitemapIndex.append("  <sitemap>").append(NL);
+      sitemapIndex.append("    <loc>");
+      sitemapIndex.append(apidocsUrlWithSlashXmlEscaped);
+      sitemapIndex.append(StringEscapeUtils.escapeXml10(sitemapNames.get(i)));
+      sitemapIndex.append("</loc>").append(NL);
+      sitemapIndex.append("    <lastmod>");
+      sitemapIndex.append(new String(lastmodFormat.format(sitemapLastModifieds.get(i)), ENCODING));
+      sitemapIndex.append("</lastmod>").append(NL);
+      sitemapIndex.append("  </sitemap>").append(NL);
+    }
     sitemapIndex.append("</sitemapindex>").append(NL);
     return sitemapIndex.toString();
   }
@@ -293,12 +530,154 @@ public final class GenerateJavadocSitemap {
   }
 
   /**
-   * Implementation of {@link #addSitemapToJavadocJar(java.io.File)}
+   * The {@link JavadocPipeline} stage that generates the sitemap.
+   */
+  static final class SitemapStage extends JavadocPipeline.Stage {
+
+    private final String apidocsUrlWithSlash;
+    private final boolean gzip;
+    private final Set<String> sitemapNames = new HashSet<>();
+    private final SortedSet<SitemapPath> sitemapPaths = new TreeSet<>();
+
+    SitemapStage(File javadocJar, String apidocsUrl, boolean gzip, Consumer<Supplier<String>> debug) {
+      super(javadocJar, debug);
+      this.apidocsUrlWithSlash = SeoJavadocFilter.getApidocsUrlWithSlash(apidocsUrl);
+      this.gzip = gzip;
+    }
+
+    /**
+     * Drops any existing sitemaps, including all parts, with or without gzip compression.
+     */
+    @Override
+    boolean isDropped(ZipArchiveEntry zipEntry) {
+      String zipEntryName = zipEntry.getName();
+      return zipEntryName.equals(SITEMAP_NAME)
+          || zipEntryName.equals(SITEMAP_NAME + GZIP_SUFFIX)
+          || zipEntryName.equals(META_INF_DIRECTORY + SITEMAP_INDEX_NAME)
+          || SITEMAP_PART_PATTERN.matcher(zipEntryName).matches();
+    }
+
+    /**
+     * Only the robots header is needed from each page.
+     */
+    @Override
+    boolean isHeadOnly() {
+      return true;
+    }
+
+    @Override
+    void filterPage(ZipArchiveEntry zipEntry, List<String> linesWithEof) throws ZipException {
+      String zipEntryName = zipEntry.getName();
+      // Determine the robots header value
+      String robotsHeader = findRobotsHeader(javadocJar, zipEntry, linesWithEof, debug);
+      // Add to sitemap when not noindex
+      if (isInSitemap(robotsHeader)) {
+        // Pages may be filtered concurrently
+        synchronized (sitemapPaths) {
+          if (!sitemapNames.add(zipEntryName)) {
+            throw new ZipException("Duplicate name in " + javadocJar + ": " + zipEntryName);
+          }
+          if (!sitemapPaths.add(new SitemapPath(zipEntryName, zipEntry.getTime()))) {
+            throw new AssertionError();
+          }
+        }
+      }
+    }
+
+    @Override
+    void finish(ZipFile zipFile, JavadocPipeline.EntryOutput out) throws IOException {
+      // Refuse to create empty sitemaps
+      if (sitemapPaths.isEmpty()) {
+        throw new ZipException("Sitemap is empty, empty JAR?: " + javadocJar);
+      }
+      // Copy most ZIP entry attributes from the first entry used in the sitemap (unix mode, permissions, ...)
+      ZipArchiveEntry referenceEntry = zipFile.getEntry(sitemapPaths.first().entryName);
+      assert referenceEntry != null;
+      long sitemapLastModified = sitemapPaths.first().entryTime;
+      assert sitemapLastModified >= sitemapPaths.last().entryTime : "Most recent is first";
+      // Generate sitemap.xml, or sitemap-1.xml through sitemap-N.xml when exceeding the limits of a single sitemap
+      byte[] apidocsUrlWithSlashXml = escapeXml(apidocsUrlWithSlash);
+      List<SitemapPath> sortedPaths = new ArrayList<>(sitemapPaths);
+      List<Integer> partEnds = splitSitemap(apidocsUrlWithSlashXml, sortedPaths);
+      int numParts = partEnds.size();
+      if (numParts > 1) {
+        debug.accept(() -> "Splitting sitemap of " + sortedPaths.size() + " URLs into " + numParts + " parts: "
+            + javadocJar);
+      }
+      List<String> sitemapNames = new ArrayList<>(numParts);
+      List<Long> sitemapLastModifieds = new ArrayList<>(numParts);
+      int partStart = 0;
+      for (int part = 0; part < numParts; part++) {
+        int partEnd = partEnds.get(part);
+        String sitemapName = numParts == 1 ? SITEMAP_NAME : (SITEMAP_PART_PREFIX + (part + 1) + SITEMAP_PART_SUFFIX);
+        if (gzip) {
+          sitemapName += GZIP_SUFFIX;
+        }
+        // Most recent is first in each part
+        long partLastModified = sortedPaths.get(partStart).entryTime;
+        List<SitemapPath> partPaths = sortedPaths.subList(partStart, partEnd);
+        JfrEvents.SitemapWrite event = new JfrEvents.SitemapWrite();
+        event.begin();
+        long size;
+        ZipArchiveEntry sitemapEntry = new ZipArchiveEntry(sitemapName);
+        copyZipMeta(referenceEntry, sitemapEntry);
+        sitemapEntry.setTime(partLastModified);
+        sitemapEntry.setComment(GENERATED_COMMENT);
+        if (gzip) {
+          // Stored since already compressed
+          byte[] gzipped = gzipSitemap(apidocsUrlWithSlashXml, partPaths);
+          CRC32 crc = new CRC32();
+          crc.update(gzipped);
+          sitemapEntry.setMethod(ZipEntry.STORED);
+          sitemapEntry.setSize(gzipped.length);
+          sitemapEntry.setCompressedSize(gzipped.length);
+          sitemapEntry.setCrc(crc.getValue());
+          try (OutputStream sitemapOut = out.putEntry(sitemapEntry)) {
+            sitemapOut.write(gzipped);
+          }
+          size = gzipped.length;
+        } else {
+          try (OutputStream sitemapOut = new BufferedOutputStream(out.putEntry(sitemapEntry), WRITE_BUFFER_SIZE)) {
+            size = writeSitemap(apidocsUrlWithSlashXml, partPaths, sitemapOut);
+          }
+        }
+        if (event.shouldCommit()) {
+          event.javadocJar = javadocJar.getPath();
+          event.sitemap = sitemapName;
+          event.urls = partPaths.size();
+          event.size = size;
+          event.gzip = gzip;
+          event.commit();
+        }
+        sitemapNames.add(sitemapName);
+        sitemapLastModifieds.add(partLastModified);
+        partStart = partEnd;
+      }
+      // Require META-INF directory
+      if (zipFile.getEntry(META_INF_DIRECTORY) == null) {
+        throw new ZipException("Missing " + META_INF_DIRECTORY + " directory: " + javadocJar);
+      }
+      // Generate sitemap-index.xml
+      ZipArchiveEntry sitemapIndexEntry = new ZipArchiveEntry(META_INF_DIRECTORY + SITEMAP_INDEX_NAME);
+      copyZipMeta(referenceEntry, sitemapIndexEntry);
+      sitemapIndexEntry.setTime(sitemapLastModified);
+      sitemapIndexEntry.setComment(GENERATED_COMMENT);
+      try (OutputStream sitemapIndexOut = out.putEntry(sitemapIndexEntry)) {
+        sitemapIndexOut.write(generateSitemapIndex(apidocsUrlWithSlash, sitemapNames, sitemapLastModifieds)
+            .getBytes(ENCODING));
+      }
+    }
+  }
+
+  /**
+   * Implementation of {@link #addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)}
    * with provided logging.
    */
   static void addSitemapToJavadocJar(
       File javadocJar,
       String apidocsUrl,
+      boolean gzip,
+      MetricsListener metrics,
       Consumer<Supplier<String>> debug,
       Consumer<Supplier<String>> info,
       Consumer<Supplier<String>> warn
@@ -312,114 +691,16 @@ public final class GenerateJavadocSitemap {
     if (!javadocJar.isFile()) {
       throw new IOException("javadocJar is not a regular file: " + javadocJar);
     }
-    Objects.requireNonNull(apidocsUrl, "apidocsUrl required");
-    String apidocsUrlWithSlash;
-    if (!apidocsUrl.endsWith("/")) {
-      apidocsUrlWithSlash = apidocsUrl + "/";
-    } else {
-      apidocsUrlWithSlash = apidocsUrl;
-    }
-    File tmpFile = File.createTempFile(javadocJar.getName() + "-", ".jar", javadocJar.getParentFile());
-    Closeable deleteTmpFile = () -> {
-      if (tmpFile.exists()) {
-        FileUtils.delete(tmpFile);
-      }
-    };
-    try (deleteTmpFile) {
-      int totalEntries = 0;
-      int totalHtmlEntries = 0;
-      debug.accept(() -> "Writing temp file " + tmpFile);
-      try (ZipArchiveOutputStream tmpZipOut = new ZipArchiveOutputStream(tmpFile)) {
-        debug.accept(() -> "Reading " + javadocJar);
-        try (ZipFile zipFile = new ZipFile(javadocJar)) {
-          Set<String> sitemapNames = new HashSet<>();
-          SortedSet<SitemapPath> sitemapPaths = new TreeSet<>();
-          Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
-          while (zipEntries.hasMoreElements()) {
-            totalEntries++;
-            ZipArchiveEntry zipEntry = zipEntries.nextElement();
-            debug.accept(() -> "zipEntry: " + zipEntry);
-            String zipEntryName = zipEntry.getName();
-            // Require times on all entries
-            long zipEntryTime = zipEntry.getTime();
-            if (zipEntryTime == -1) {
-              throw new ZipException("No time in entry: " + javadocJar + AT + zipEntryName);
-            }
-            if (zipEntryName.equals(SITEMAP_NAME) || zipEntryName.equals(META_INF_DIRECTORY + SITEMAP_INDEX_NAME)) {
-              // Drop any existing sitemaps
-              debug.accept(() -> zipEntryName + ": Dropping existing sitemap");
-            } else {
-              // Copy all other entriers verbatim
-              try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
-                tmpZipOut.addRawArchiveEntry(zipEntry, rawStream);
-              }
-            }
-            if (StringUtils.endsWithIgnoreCase(zipEntryName, FILTER_EXTENSION)) {
-              totalHtmlEntries++;
-              List<String> linesWithEof = readLinesWithEof(javadocJar, zipFile, zipEntry);
-              String originalHtml = StringUtils.join(linesWithEof, "");
-              debug.accept(() -> zipEntryName + ": Read " + linesWithEof.size() + " lines, " + originalHtml.length()
-                  + " characters");
-              // Determine the robots header value
-              String robotsHeader = findRobotsHeader(javadocJar, zipEntry, linesWithEof, debug);
-              // Add to sitemap when not noindex
-              if (isInSitemap(robotsHeader)) {
-                if (!sitemapNames.add(zipEntryName)) {
-                  throw new ZipException("Duplicate name in " + javadocJar + ": " + zipEntryName);
-                }
-                if (!sitemapPaths.add(new SitemapPath(zipEntryName, zipEntryTime))) {
-                  throw new AssertionError();
-                }
-              }
-            }
-          }
-          // Refuse to create empty sitemaps
-          if (sitemapPaths.isEmpty()) {
-            throw new ZipException("Sitemap is empty, empty JAR?: " + javadocJar);
-          }
-          // Copy most ZIP entry attributes from the first entry used in the sitemap (unix mode, permissions, ...)
-          ZipArchiveEntry referenceEntry = zipFile.getEntry(sitemapPaths.first().entryName);
-          assert referenceEntry != null;
-          // Generate sitemap.xml
-          long sitemapLastModified = sitemapPaths.first().entryTime;
-          assert sitemapLastModified >= sitemapPaths.last().entryTime : "Most recent is first";
-          ZipArchiveEntry sitemapEntry = new ZipArchiveEntry(SITEMAP_NAME);
-          copyZipMeta(referenceEntry, sitemapEntry);
-          sitemapEntry.setTime(sitemapLastModified);
-          sitemapEntry.setComment(GENERATED_COMMENT);
-          tmpZipOut.putArchiveEntry(sitemapEntry);
-          tmpZipOut.write(generateSitemap(apidocsUrlWithSlash, sitemapPaths).getBytes(ENCODING));
-          tmpZipOut.closeArchiveEntry();
-          // Require META-INF directory
-          if (zipFile.getEntry(META_INF_DIRECTORY) == null) {
-            throw new ZipException("Missing " + META_INF_DIRECTORY + " directory: " + javadocJar);
-          }
-          // Generate sitemap-index.xml
-          ZipArchiveEntry sitemapIndexEntry = new ZipArchiveEntry(META_INF_DIRECTORY + SITEMAP_INDEX_NAME);
-          copyZipMeta(referenceEntry, sitemapIndexEntry);
-          sitemapIndexEntry.setTime(sitemapLastModified);
-          sitemapIndexEntry.setComment(GENERATED_COMMENT);
-          tmpZipOut.putArchiveEntry(sitemapIndexEntry);
-          tmpZipOut.write(generateSitemapIndex(apidocsUrlWithSlash, sitemapLastModified).getBytes(ENCODING));
-          tmpZipOut.closeArchiveEntry();
-        }
-      }
-      final int totalHtmlEntriesFinal = totalHtmlEntries;
-      if (totalHtmlEntriesFinal == 0) {
-        final int totalEntriesFinal = totalEntries;
-        warn.accept(() -> "Generate Javadoc Sitemap: No files found matching *" + FILTER_EXTENSION + " in "
-            + totalEntriesFinal + " total " + (totalEntriesFinal == 1 ? "entry" : "entries"));
-      }
-      // Ovewrite if anything changed, delete otherwise
-      if (!FileUtils.contentEquals(javadocJar, tmpFile)) {
-        if (!tmpFile.renameTo(javadocJar)) {
-          throw new IOException("Rename failed: " + tmpFile + " to " + javadocJar);
-        }
-      } else {
-        info.accept(() -> "Generate Javadoc Sitemap: No changes made"
-            + (totalHtmlEntriesFinal == 0 ? "" : " (javadocs already processed?)"));
-      }
-    }
+    JavadocPipeline.process(
+        javadocJar,
+        "Generate Javadoc Sitemap",
+        Collections.singletonList(new SitemapStage(javadocJar, apidocsUrl, gzip, debug)),
+        1,
+        metrics,
+        debug,
+        info,
+        warn
+    );
   }
 
   /**
@@ -428,17 +709,36 @@ public final class GenerateJavadocSitemap {
    * @param javadocJar See {@link GenerateJavadocSitemapTask#setBuildDirectory(java.lang.String)}
    * @param apidocsUrl See {@link GenerateJavadocSitemapTask#setProjectUrl(java.lang.String)}
    *                   and {@link GenerateJavadocSitemapTask#setSubprojectSubpath(java.lang.String)}
+   * @param gzip       See {@link GenerateJavadocSitemapTask#setGzip(boolean)}
+   * @param metrics    Receives the metrics of the JAR file or {@code null} for none.
+   *                   See {@link GenerateJavadocSitemapTask#setMetricsFile(java.lang.String)}.
    */
   public static void addSitemapToJavadocJar(
       File javadocJar,
-      String apidocsUrl
+      String apidocsUrl,
+      boolean gzip,
+      MetricsListener metrics
   ) throws IOException {
     addSitemapToJavadocJar(
         javadocJar,
         apidocsUrl,
+        gzip,
+        metrics == null ? MetricsListener.NONE : metrics,
         logger::fine,
         logger::info,
         logger::warning
     );
   }
+
+  /**
+   * Adds an uncompressed sitemap to a single JAR file as described in {@linkplain GenerateJavadocSitemap this class header}.
+   *
+   * @see #addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)
+   */
+  public static void addSitemapToJavadocJar(
+      File javadocJar,
+      String apidocsUrl
+  ) throws IOException {
+    addSitemapToJavadocJar(javadocJar, apidocsUrl, false, null);
+  }
 }
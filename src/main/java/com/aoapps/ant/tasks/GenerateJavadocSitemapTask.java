@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,7 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.LogLevel;
 
 /**
- * Ant task that invokes {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String)}.
+ * Ant task that invokes {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)}.
  *
  * @author  AO Industries, Inc.
  */
@@ -40,6 +40,8 @@ public class GenerateJavadocSitemapTask extends Task {
   private File buildDirectory;
   private String projectUrl;
   private String subprojectSubpath;
+  private boolean gzip;
+  private File metricsFile;
 
   /**
    * The current build directory.
@@ -80,7 +82,22 @@ public class GenerateJavadocSitemapTask extends Task {
   }
 
   /**
-   * Calls {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String)} for each
+   * Compresses the sitemaps with gzip, such as <code>sitemap.xml.gz</code>.  The compressed sitemaps are stored in the
+   * JAR without further compression and are referenced from the sitemap index.  Defaults to {@code false}.
+   */
+  public void setGzip(boolean gzip) {
+    this.gzip = gzip;
+  }
+
+  /**
+   * See {@link SeoJavadocFilterTask#setMetricsFile(java.lang.String)}.
+   */
+  public void setMetricsFile(String metricsFile) {
+    this.metricsFile = new File(metricsFile);
+  }
+
+  /**
+   * Calls {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)} for each
    * file in {@link #setBuildDirectory(java.lang.String)} that matches {@link SeoJavadocFilterTask#javadocJarFilter}
    * while logging to {@link #log(java.lang.String, int)}.
    */
@@ -96,6 +113,7 @@ public class GenerateJavadocSitemapTask extends Task {
       if (!buildDirectory.isDirectory()) {
         throw new IOException("buildDirectory is not a directory: " + buildDirectory);
       }
+      MetricsSummary metrics = metricsFile == null ? null : new MetricsSummary();
       int count = 0;
       File[] javadocJarFiles = buildDirectory.listFiles(SeoJavadocFilterTask.javadocJarFilter);
       if (javadocJarFiles != null) {
@@ -103,6 +121,8 @@ public class GenerateJavadocSitemapTask extends Task {
           GenerateJavadocSitemap.addSitemapToJavadocJar(
               javadocJar,
               SeoJavadocFilterTask.getApidocsUrl(javadocJar, projectUrl, subprojectSubpath),
+              gzip,
+              metrics == null ? MetricsListener.NONE : metrics,
               msg -> log(msg.get(), LogLevel.DEBUG.getLevel()),
               msg -> log(msg.get(), LogLevel.INFO.getLevel()),
               msg -> log(msg.get(), LogLevel.WARN.getLevel())
@@ -113,6 +133,9 @@ public class GenerateJavadocSitemapTask extends Task {
       if (count == 0) {
         log("Generate Javadoc Sitemap found no files matching *" + SeoJavadocFilterTask.FILTER_SUFFIX, LogLevel.INFO.getLevel());
       }
+      if (metrics != null) {
+        metrics.write(metricsFile);
+      }
     } catch (IOException e) {
       throw new BuildException(e);
     }
@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,17 +25,13 @@ package com.aoapps.ant.tasks;
 
 import static com.aoapps.ant.tasks.SeoJavadocFilter.AT;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.ENCODING;
-import static com.aoapps.ant.tasks.SeoJavadocFilter.FILTER_EXTENSION;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.NL;
-import static com.aoapps.ant.tasks.SeoJavadocFilter.readLinesWithEof;
 
-import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URLEncoder;
 import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -43,9 +39,6 @@ import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.zip.ZipException;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
-import org.apache.commons.compress.archivers.zip.ZipFile;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -123,12 +116,33 @@ public final class InsertGoogleAnalyticsTracking {
   }
 
   /**
-   * Implementation of {@link #addTrackingCodeToZip(java.io.File)}
+   * The {@link JavadocPipeline} stage that inserts the tracking code.
+   */
+  static final class TrackingStage extends JavadocPipeline.Stage {
+
+    private final List<String> googleSiteTag;
+
+    TrackingStage(File file, String googleAnalyticsTrackingId, Consumer<Supplier<String>> debug) {
+      super(file, debug);
+      // Generate the script once, since is the same for all files
+      this.googleSiteTag = generateGlobalSiteTag(googleAnalyticsTrackingId);
+    }
+
+    @Override
+    void filterPage(ZipArchiveEntry zipEntry, List<String> linesWithEof) throws ZipException {
+      // Insert header, failing if already exists and has a different code
+      insertIntoHead(javadocJar, zipEntry, linesWithEof, googleSiteTag, debug);
+    }
+  }
+
+  /**
+   * Implementation of {@link #addTrackingCodeToZip(java.io.File, java.lang.String, com.aoapps.ant.tasks.MetricsListener)}
    * with provided logging.
    */
   static void addTrackingCodeToZip(
       File file,
       String googleAnalyticsTrackingId,
+      MetricsListener metrics,
       Consumer<Supplier<String>> debug,
       Consumer<Supplier<String>> info,
       Consumer<Supplier<String>> warn
@@ -146,81 +160,16 @@ public final class InsertGoogleAnalyticsTracking {
     if (googleAnalyticsTrackingId == null) {
       warn.accept(() -> "No googleAnalyticsTrackingId, skipping " + file);
     } else {
-      // Generate the script once, since is the same for all files
-      List<String> googleSiteTag = generateGlobalSiteTag(googleAnalyticsTrackingId);
-      File tmpFile = File.createTempFile(file.getName() + "-", ".zip", file.getParentFile());
-      Closeable deleteTmpFile = () -> {
-        if (tmpFile.exists()) {
-          FileUtils.delete(tmpFile);
-        }
-      };
-      try (deleteTmpFile) {
-        int totalEntries = 0;
-        int totalHtmlEntries = 0;
-        debug.accept(() -> "Writing temp file " + tmpFile);
-        try (ZipArchiveOutputStream tmpZipOut = new ZipArchiveOutputStream(tmpFile)) {
-          debug.accept(() -> "Reading " + file);
-          try (ZipFile zipFile = new ZipFile(file)) {
-            Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
-            while (zipEntries.hasMoreElements()) {
-              totalEntries++;
-              ZipArchiveEntry zipEntry = zipEntries.nextElement();
-              debug.accept(() -> "zipEntry: " + zipEntry);
-              String zipEntryName = zipEntry.getName();
-              // Require times on all entries
-              long zipEntryTime = zipEntry.getTime();
-              if (zipEntryTime == -1) {
-                throw new ZipException("No time in entry: " + file + AT + zipEntryName);
-              }
-              // Anything not ending in *.html (which will include directories), just copy verbatim
-              if (!StringUtils.endsWithIgnoreCase(zipEntryName, FILTER_EXTENSION)) {
-                // Raw copy
-                try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
-                  tmpZipOut.addRawArchiveEntry(zipEntry, rawStream);
-                }
-              } else {
-                totalHtmlEntries++;
-                List<String> linesWithEof = readLinesWithEof(file, zipFile, zipEntry);
-                String originalHtml = StringUtils.join(linesWithEof, "");
-                debug.accept(() -> zipEntryName + ": Read " + linesWithEof.size() + " lines, " + originalHtml.length()
-                    + " characters");
-                // Insert header, failing if already exists and has a different code
-                insertIntoHead(file, zipEntry, linesWithEof, googleSiteTag, debug);
-                // Recombine
-                String newHtml = StringUtils.join(linesWithEof, "");
-                // Only when modified
-                if (!newHtml.equals(originalHtml)) {
-                  // Store as copy to get as much as possible from old entry
-                  ZipArchiveEntry newEntry = new ZipArchiveEntry(zipEntry);
-                  tmpZipOut.putArchiveEntry(newEntry);
-                  tmpZipOut.write(newHtml.getBytes(ENCODING));
-                  tmpZipOut.closeArchiveEntry();
-                } else {
-                  // Raw copy
-                  try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
-                    tmpZipOut.addRawArchiveEntry(zipEntry, rawStream);
-                  }
-                }
-              }
-            }
-          }
-        }
-        final int totalHtmlEntriesFinal = totalHtmlEntries;
-        if (totalHtmlEntriesFinal == 0) {
-          final int totalEntriesFinal = totalEntries;
-          warn.accept(() -> "Insert Google Analytics Tracking: No files found matching *" + FILTER_EXTENSION + " in "
-              + totalEntriesFinal + " total " + (totalEntriesFinal == 1 ? "entry" : "entries"));
-        }
-        // Ovewrite if anything changed, delete otherwise
-        if (!FileUtils.contentEquals(file, tmpFile)) {
-          if (!tmpFile.renameTo(file)) {
-            throw new IOException("Rename failed: " + tmpFile + " to " + file);
-          }
-        } else {
-          info.accept(() -> "Insert Google Analytics Tracking: No changes made"
-              + (totalHtmlEntriesFinal == 0 ? "" : " (javadocs already processed?)"));
-        }
-      }
+      JavadocPipeline.process(
+          file,
+          "Insert Google Analytics Tracking",
+          Collections.singletonList(new TrackingStage(file, googleAnalyticsTrackingId, debug)),
+          1,
+          metrics,
+          debug,
+          info,
+          warn
+      );
     }
   }
 
@@ -231,17 +180,34 @@ public final class InsertGoogleAnalyticsTracking {
    *
    * @param file See {@link InsertGoogleAnalyticsTrackingTask#setFile(java.lang.String)}
    * @param googleAnalyticsTrackingId See {@link InsertGoogleAnalyticsTrackingTask#setGoogleAnalyticsTrackingId(java.lang.String)}
+   * @param metrics Receives the metrics of the ZIP file or {@code null} for none.
+   *                See {@link InsertGoogleAnalyticsTrackingTask#setMetricsFile(java.lang.String)}.
    */
   public static void addTrackingCodeToZip(
       File file,
-      String googleAnalyticsTrackingId
+      String googleAnalyticsTrackingId,
+      MetricsListener metrics
   ) throws IOException {
     addTrackingCodeToZip(
         file,
         googleAnalyticsTrackingId,
+        metrics == null ? MetricsListener.NONE : metrics,
         logger::fine,
         logger::info,
         logger::warning
     );
   }
+
+  /**
+   * Inserts the tracking code into all {@link SeoJavadocFilter#FILTER_EXTENSION} files in the given ZIP file, without
+   * metrics.
+   *
+   * @see #addTrackingCodeToZip(java.io.File, java.lang.String, com.aoapps.ant.tasks.MetricsListener)
+   */
+  public static void addTrackingCodeToZip(
+      File file,
+      String googleAnalyticsTrackingId
+  ) throws IOException {
+    addTrackingCodeToZip(file, googleAnalyticsTrackingId, null);
+  }
 }
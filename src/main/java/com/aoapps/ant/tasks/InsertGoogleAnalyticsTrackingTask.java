@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023  AO Industries, Inc.
+ * Copyright (C) 2023, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,7 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.LogLevel;
 
 /**
- * Ant task that invokes {@link InsertGoogleAnalyticsTracking#addTrackingCodeToZip(java.io.File, java.lang.String)}.
+ * Ant task that invokes {@link InsertGoogleAnalyticsTracking#addTrackingCodeToZip(java.io.File, java.lang.String, com.aoapps.ant.tasks.MetricsListener)}.
  *
  * @author  AO Industries, Inc.
  */
@@ -39,6 +39,7 @@ public class InsertGoogleAnalyticsTrackingTask extends Task {
 
   private File file;
   private String googleAnalyticsTrackingId;
+  private File metricsFile;
 
   /**
    * The ZIP file to add Google Analytics tracking codes to.
@@ -59,8 +60,15 @@ public class InsertGoogleAnalyticsTrackingTask extends Task {
   }
 
   /**
-   * Calls {@link InsertGoogleAnalyticsTracking#addTrackingCodeToZip(java.io.File, java.lang.String)} with the given ZIP
-   * file while logging to {@link #log(java.lang.String, int)}.
+   * See {@link SeoJavadocFilterTask#setMetricsFile(java.lang.String)}.
+   */
+  public void setMetricsFile(String metricsFile) {
+    this.metricsFile = new File(metricsFile);
+  }
+
+  /**
+   * Calls {@link InsertGoogleAnalyticsTracking#addTrackingCodeToZip(java.io.File, java.lang.String, com.aoapps.ant.tasks.MetricsListener)}
+   * with the given ZIP file while logging to {@link #log(java.lang.String, int)}.
    */
   @Override
   public void execute() throws BuildException {
@@ -74,13 +82,18 @@ public class InsertGoogleAnalyticsTrackingTask extends Task {
       if (!file.isFile()) {
         throw new IOException("file is not a regular file: " + file);
       }
+      MetricsSummary metrics = metricsFile == null ? null : new MetricsSummary();
       InsertGoogleAnalyticsTracking.addTrackingCodeToZip(
           file,
           googleAnalyticsTrackingId,
+          metrics == null ? MetricsListener.NONE : metrics,
           msg -> log(msg.get(), LogLevel.DEBUG.getLevel()),
           msg -> log(msg.get(), LogLevel.INFO.getLevel()),
           msg -> log(msg.get(), LogLevel.WARN.getLevel())
       );
+      if (metrics != null) {
+        metrics.write(metricsFile);
+      }
     } catch (IOException e) {
       throw new BuildException(e);
     }
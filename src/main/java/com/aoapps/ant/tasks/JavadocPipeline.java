@@ -0,0 +1,926 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.SeoJavadocFilter.AT;
+import static com.aoapps.ant.tasks.SeoJavadocFilter.ENCODING;
+import static com.aoapps.ant.tasks.SeoJavadocFilter.FILTER_EXTENSION;
+import static com.aoapps.ant.tasks.SeoJavadocFilter.readPage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import org.apache.commons.compress.archivers.zip.ExtraFieldUtils;
+import org.apache.commons.compress.archivers.zip.Zip64ExtendedInformationExtraField;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipExtraField;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Performs any combination of {@link SeoJavadocFilter}, {@link InsertGoogleAnalyticsTracking}, and
+ * {@link GenerateJavadocSitemap} in a single pass.  Each is a stage operating on the lines of each HTML page, in the
+ * order listed.  The JAR is read once and only written when changed, with results identical to performing each in
+ * sequence.
+ *
+ * <p>This does not have any direct Ant dependencies.
+ * If only using this class, it is permissible to exclude the ant dependencies.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class JavadocPipeline {
+
+  /** Make no instances. */
+  private JavadocPipeline() {
+    throw new AssertionError();
+  }
+
+  private static final Logger logger = Logger.getLogger(JavadocPipeline.class.getName());
+
+  /**
+   * The number of pages, per thread, that may be filtered ahead of the entry currently being written.
+   */
+  private static final int PENDING_PER_THREAD = 4;
+
+  /**
+   * Additional space allowed for the compressed content of a modified page beyond its original compressed size.
+   */
+  private static final int RAW_CONTENT_EXTRA = 1024;
+
+  /**
+   * The buffer size used to combine the lines of a modified page before being compressed.
+   */
+  private static final int WRITE_BUFFER_SIZE = 8192;
+
+  /**
+   * Adds new entries after all existing entries.
+   */
+  interface EntryOutput {
+
+    /**
+     * Starts a new entry.
+     *
+     * @return  the stream for the uncompressed content of the entry, which completes the entry when closed
+     */
+    OutputStream putEntry(ZipArchiveEntry entry) throws IOException;
+  }
+
+  /**
+   * One stage of the pipeline.  A new instance is used for each JAR file processed.
+   */
+  abstract static class Stage {
+
+    final File javadocJar;
+    final Consumer<Supplier<String>> debug;
+
+    Stage(File javadocJar, Consumer<Supplier<String>> debug) {
+      this.javadocJar = javadocJar;
+      this.debug = debug;
+    }
+
+    /**
+     * Called once before any entries are processed.
+     */
+    void start(ZipFile zipFile) throws IOException {
+      // Nothing by default
+    }
+
+    /**
+     * Checks if an existing entry is to be dropped from the output.
+     */
+    boolean isDropped(ZipArchiveEntry zipEntry) {
+      return false;
+    }
+
+    /**
+     * Checks if this stage only reads the head of each page, without modifying it.  When all stages are head-only,
+     * pages are read only through their <code>&lt;/head&gt;</code> line.
+     */
+    boolean isHeadOnly() {
+      return false;
+    }
+
+    /**
+     * Filters the lines of a single HTML page in-place.  Lines include their line endings.
+     * When all stages are {@linkplain #isHeadOnly() head-only}, the lines end at the <code>&lt;/head&gt;</code> line
+     * and are unmodifiable.
+     */
+    abstract void filterPage(ZipArchiveEntry zipEntry, List<String> linesWithEof) throws IOException;
+
+    /**
+     * Gets the result of filtering a page in a previous build, when known to be the same as filtering it again.  Only
+     * called when this is the only stage, since a previous result does not include any other stages.
+     *
+     * @return  the previous result or {@code null} to filter the page
+     */
+    FilteredPage reusePage(ZipArchiveEntry zipEntry) throws IOException {
+      return null;
+    }
+
+    /**
+     * Called once each page has been filtered through all stages or {@linkplain #reusePage(org.apache.commons.compress.archivers.zip.ZipArchiveEntry) reused},
+     * possibly concurrently.
+     *
+     * @param newEntry  the new entry or {@code null} when the page is unchanged
+     */
+    void pageFiltered(ZipArchiveEntry zipEntry, ZipArchiveEntry newEntry) {
+      // Nothing by default
+    }
+
+    /**
+     * Called once after all existing entries have been written, to add any new entries.
+     */
+    void finish(ZipFile zipFile, EntryOutput out) throws IOException {
+      // Nothing by default
+    }
+  }
+
+  /**
+   * The result of filtering one HTML page, compressed and ready to be written.
+   */
+  static final class FilteredPage {
+
+    /**
+     * The new entry or {@code null} when unchanged and the original entry is to be copied verbatim.
+     */
+    private final ZipArchiveEntry newEntry;
+
+    /**
+     * The raw (compressed) content of the new entry.
+     */
+    private final byte[] rawContent;
+
+    FilteredPage(ZipArchiveEntry newEntry, byte[] rawContent) {
+      this.newEntry = newEntry;
+      this.rawContent = rawContent;
+    }
+  }
+
+  /**
+   * The metrics of a single JAR file that are accumulated while filtering pages, possibly concurrently.
+   */
+  private static final class PageMetrics {
+
+    private final LongAdder filterNanos = new LongAdder();
+    private final LongAdder headOnlyPages = new LongAdder();
+    private final LongAdder bytesInflated = new LongAdder();
+    private final LongAdder modifiedPages = new LongAdder();
+    private final LongAdder bytesDeflated = new LongAdder();
+    private final LongAdder reusedPages = new LongAdder();
+  }
+
+  /**
+   * Filters a single HTML page through all stages.  When modified, the new content is compressed here so that this may
+   * be performed concurrently, using the same {@link Deflater} settings as {@link ZipArchiveOutputStream} for identical
+   * compressed content.  Since the sizes are then known when written, the local header does not have the Zip64 extra
+   * field that {@link ZipArchiveOutputStream} may reserve for entries of unknown size.
+   *
+   * @param headOnly  when all stages are {@linkplain Stage#isHeadOnly() head-only}, only the head is read
+   */
+  private static FilteredPage filterPage(
+      File javadocJar,
+      ZipFile zipFile,
+      ZipArchiveEntry zipEntry,
+      List<? extends Stage> stages,
+      boolean headOnly,
+      PageMetrics pageMetrics,
+      Consumer<Supplier<String>> debug
+  ) throws IOException {
+    String zipEntryName = zipEntry.getName();
+    if (headOnly) {
+      pageMetrics.headOnlyPages.increment();
+      List<String> headLinesWithEof = Collections.unmodifiableList(
+          SeoJavadocFilter.readHeadLinesWithEof(javadocJar, zipFile, zipEntry));
+      debug.accept(() -> zipEntryName + ": Read " + headLinesWithEof.size() + " lines of head");
+      for (Stage stage : stages) {
+        stage.filterPage(zipEntry, headLinesWithEof);
+      }
+      return new FilteredPage(null, null);
+    }
+    SeoJavadocFilter.PageContent page = readPage(javadocJar, zipFile, zipEntry);
+    List<String> linesWithEof = page.getLinesWithEof();
+    pageMetrics.bytesInflated.add(page.getContent().length);
+    // Stages replace only the lines they modify, so unchanged lines are compared by identity
+    List<String> originalLines = new ArrayList<>(linesWithEof);
+    debug.accept(() -> zipEntryName + ": Read " + originalLines.size() + " lines, " + page.getContent().length
+        + " bytes");
+    for (Stage stage : stages) {
+      stage.filterPage(zipEntry, linesWithEof);
+    }
+    // Only when modified
+    if (linesWithEof.equals(originalLines)) {
+      return new FilteredPage(null, null);
+    }
+    int method = zipEntry.getMethod();
+    if (method != ZipEntry.DEFLATED && method != ZipEntry.STORED) {
+      throw new ZipException("Unsupported compression method " + method + ": " + javadocJar + AT + zipEntryName);
+    }
+    // Compress each line directly, without combining the page
+    CRC32 crc = new CRC32();
+    long compressedSize = zipEntry.getCompressedSize();
+    ByteArrayOutputStream rawOut = new ByteArrayOutputStream(
+        compressedSize >= 0 && compressedSize <= Integer.MAX_VALUE - RAW_CONTENT_EXTRA
+            ? (int) compressedSize + RAW_CONTENT_EXTRA
+            : RAW_CONTENT_EXTRA);
+    long size;
+    if (method == ZipEntry.STORED) {
+      writeLines(page, originalLines, linesWithEof, new CheckedOutputStream(rawOut, crc));
+      size = rawOut.size();
+    } else {
+      Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      try {
+        writeLines(page, originalLines, linesWithEof,
+            new CheckedOutputStream(new DeflaterOutputStream(rawOut, deflater), crc));
+        size = deflater.getBytesRead();
+      } finally {
+        deflater.end();
+      }
+    }
+    byte[] rawContent = rawOut.toByteArray();
+    pageMetrics.modifiedPages.increment();
+    pageMetrics.bytesDeflated.add(rawContent.length);
+    // Store as copy to get as much as possible from old entry
+    ZipArchiveEntry newEntry = new ZipArchiveEntry(zipEntry);
+    newEntry.setSize(size);
+    newEntry.setCompressedSize(rawContent.length);
+    newEntry.setCrc(crc.getValue());
+    return new FilteredPage(newEntry, rawContent);
+  }
+
+  /**
+   * Writes lines to the given stream, closing the stream.  Lines unchanged from the original page are copied from its
+   * content in contiguous ranges, while only new or modified lines are encoded.
+   */
+  private static void writeLines(SeoJavadocFilter.PageContent page, List<String> originalLines,
+      List<String> linesWithEof, OutputStream out) throws IOException {
+    Map<String, Integer> originalIndexes = new IdentityHashMap<>(originalLines.size());
+    for (int i = 0, size = originalLines.size(); i < size; i++) {
+      originalIndexes.put(originalLines.get(i), i);
+    }
+    byte[] content = page.getContent();
+    try (OutputStream bufferedOut = new BufferedOutputStream(out, WRITE_BUFFER_SIZE)) {
+      // The range of content pending being copied
+      int rangeStart = 0;
+      int rangeEnd = 0;
+      for (String line : linesWithEof) {
+        Integer originalIndex = originalIndexes.get(line);
+        if (originalIndex != null) {
+          int lineStart = page.getLineStart(originalIndex);
+          if (lineStart != rangeEnd) {
+            bufferedOut.write(content, rangeStart, rangeEnd - rangeStart);
+            rangeStart = lineStart;
+          }
+          rangeEnd = page.getLineEnd(originalIndex);
+        } else {
+          bufferedOut.write(content, rangeStart, rangeEnd - rangeStart);
+          rangeStart = rangeEnd;
+          bufferedOut.write(line.getBytes(ENCODING));
+        }
+      }
+      bufferedOut.write(content, rangeStart, rangeEnd - rangeStart);
+    }
+  }
+
+  /**
+   * An entry pending being written, in physical order.
+   */
+  private static final class PendingEntry {
+
+    private final ZipArchiveEntry zipEntry;
+
+    /**
+     * The entry is dropped from the output.
+     */
+    private final boolean dropped;
+
+    /**
+     * The filtered page, {@code null} when the entry is to be copied verbatim.
+     */
+    private final Future<FilteredPage> filteredPage;
+
+    private PendingEntry(ZipArchiveEntry zipEntry, boolean dropped, Future<FilteredPage> filteredPage) {
+      this.zipEntry = zipEntry;
+      this.dropped = dropped;
+      this.filteredPage = filteredPage;
+    }
+  }
+
+  /**
+   * The temporary JAR, which is only created once the first change is found.  Until then, entries that are copied
+   * verbatim are only counted, since they are in the same physical order as the original.  When no changes are found,
+   * no temporary JAR is written.
+   *
+   * <p>Trailing entries that are dropped, such as a previously generated sitemap, are only deferred.  When the same
+   * entries are added back by {@link Stage#finish(org.apache.commons.compress.archivers.zip.ZipFile, com.aoapps.ant.tasks.JavadocPipeline.EntryOutput)}
+   * with the same metadata and content, as compared while being written, the JAR is still unchanged.</p>
+   */
+  private static final class TempJar implements Closeable {
+
+    private final File javadocJar;
+    private final Consumer<Supplier<String>> debug;
+
+    /**
+     * The number of leading entries copied verbatim before the temporary JAR was created.
+     */
+    private int unchangedCount;
+
+    /**
+     * The dropped entries following the leading unchanged entries, before the temporary JAR was created.
+     */
+    private final List<ZipArchiveEntry> deferredDrops = new ArrayList<>();
+
+    /**
+     * The number of deferred drops that have been added back without change, before the temporary JAR was created.
+     */
+    private int readdedCount;
+
+    /**
+     * Set when the content of any page has been modified, in which case the JAR is known to be changed.
+     */
+    private boolean modified;
+
+    /**
+     * The number of new entries added after all existing entries.
+     */
+    private int addedCount;
+
+    private File tmpFile;
+    private ZipArchiveOutputStream zipOut;
+    private boolean finished;
+
+    private TempJar(File javadocJar, Consumer<Supplier<String>> debug) {
+      this.javadocJar = javadocJar;
+      this.debug = debug;
+    }
+
+    /**
+     * Gets the output, creating the temporary JAR and copying all leading unchanged entries and any entries added back
+     * without change on first use.
+     */
+    private ZipArchiveOutputStream getOutput(ZipFile zipFile) throws IOException {
+      if (zipOut == null) {
+        tmpFile = File.createTempFile(javadocJar.getName() + "-", ".tmp", javadocJar.getParentFile());
+        debug.accept(() -> "Writing temp file " + tmpFile + " after " + unchangedCount + " unchanged entries");
+        zipOut = new ZipArchiveOutputStream(tmpFile);
+        Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+        for (int i = 0; i < unchangedCount; i++) {
+          rawCopy(zipFile, zipEntries.nextElement());
+        }
+        for (int i = 0; i < readdedCount; i++) {
+          rawCopy(zipFile, deferredDrops.get(i));
+        }
+      }
+      return zipOut;
+    }
+
+    private void rawCopy(ZipFile zipFile, ZipArchiveEntry zipEntry) throws IOException {
+      try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
+        zipOut.addRawArchiveEntry(zipEntry, rawStream);
+      }
+    }
+
+    /**
+     * Writes the next pending entry, waiting for its page to be filtered when needed.
+     */
+    private void write(ZipFile zipFile, PendingEntry pending) throws IOException {
+      FilteredPage page = pending.filteredPage == null ? null : Threads.get(pending.filteredPage);
+      if (pending.dropped) {
+        if (zipOut == null) {
+          deferredDrops.add(pending.zipEntry);
+        }
+      } else if (page != null && page.newEntry != null) {
+        modified = true;
+        getOutput(zipFile).addRawArchiveEntry(page.newEntry, new ByteArrayInputStream(page.rawContent));
+      } else if (zipOut == null && deferredDrops.isEmpty()) {
+        unchangedCount++;
+      } else {
+        getOutput(zipFile);
+        rawCopy(zipFile, pending.zipEntry);
+      }
+    }
+
+    /**
+     * Gets the local extra data of an entry, without any Zip64 field since it is added as-needed when written.
+     */
+    private static byte[] getExtraWithoutZip64(ZipArchiveEntry entry) {
+      List<ZipExtraField> fields = new ArrayList<>();
+      for (ZipExtraField field : entry.getExtraFields()) {
+        if (!(field instanceof Zip64ExtendedInformationExtraField)) {
+          fields.add(field);
+        }
+      }
+      return ExtraFieldUtils.mergeLocalFileDataData(fields.toArray(new ZipExtraField[fields.size()]));
+    }
+
+    /**
+     * Checks if an added entry has the same metadata as an existing entry.
+     */
+    private static boolean isSameMeta(ZipArchiveEntry existing, ZipArchiveEntry added) {
+      return existing.getName().equals(added.getName())
+          && existing.getMethod() == added.getMethod()
+          && existing.getTime() == added.getTime()
+          && Objects.equals(existing.getComment(), added.getComment())
+          && existing.getInternalAttributes() == added.getInternalAttributes()
+          // Compare as unsigned 32-bit, since setUnixMode may sign-extend
+          && (existing.getExternalAttributes() & 0xffffffffL) == (added.getExternalAttributes() & 0xffffffffL)
+          && existing.getPlatform() == added.getPlatform()
+          && Arrays.equals(getExtraWithoutZip64(existing), getExtraWithoutZip64(added));
+    }
+
+    /**
+     * Starts a new entry in the temporary JAR.
+     */
+    private OutputStream putEntry(ZipFile zipFile, ZipArchiveEntry entry) throws IOException {
+      ZipArchiveOutputStream out = getOutput(zipFile);
+      out.putArchiveEntry(entry);
+      return new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+          out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+          out.closeArchiveEntry();
+        }
+      };
+    }
+
+    /**
+     * Gets the output for new entries.  While the JAR is unchanged, each new entry is compared to the next deferred
+     * drop, only creating the temporary JAR once a difference is found.
+     */
+    private EntryOutput getEntryOutput(ZipFile zipFile) {
+      return entry -> {
+        addedCount++;
+        if (zipOut == null && readdedCount < deferredDrops.size()) {
+          ZipArchiveEntry existing = deferredDrops.get(readdedCount);
+          if (isSameMeta(existing, entry)) {
+            return new ComparingOutputStream(zipFile, existing, entry);
+          }
+        }
+        return putEntry(zipFile, entry);
+      };
+    }
+
+    /**
+     * Compares the content of an added entry to an existing entry while it is written.  Upon the first difference, the
+     * temporary JAR is created and the content matched so far is copied from the existing entry.
+     */
+    private final class ComparingOutputStream extends OutputStream {
+
+      private final ZipFile zipFile;
+      private final ZipArchiveEntry existing;
+      private final ZipArchiveEntry entry;
+      private final InputStream existingIn;
+      private byte[] buff;
+      private long matched;
+      private OutputStream out;
+
+      private ComparingOutputStream(ZipFile zipFile, ZipArchiveEntry existing, ZipArchiveEntry entry) throws IOException {
+        this.zipFile = zipFile;
+        this.existing = existing;
+        this.entry = entry;
+        this.existingIn = zipFile.getInputStream(existing);
+      }
+
+      /**
+       * Switches to writing the entry to the temporary JAR.
+       */
+      private void changed() throws IOException {
+        debug.accept(() -> entry.getName() + ": Changed after " + matched + " bytes");
+        existingIn.close();
+        out = putEntry(zipFile, entry);
+        try (InputStream in = zipFile.getInputStream(existing)) {
+          IOUtils.copyLarge(in, out, 0, matched);
+        }
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+          if (buff == null || buff.length < len) {
+            buff = new byte[len];
+          }
+          if (IOUtils.read(existingIn, buff, 0, len) == len
+              && Arrays.equals(buff, 0, len, b, off, off + len)) {
+            matched += len;
+            return;
+          }
+          changed();
+        }
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (out == null) {
+          if (existingIn.read() == -1) {
+            existingIn.close();
+            debug.accept(() -> entry.getName() + ": Existing entry unchanged");
+            readdedCount++;
+            return;
+          }
+          changed();
+        }
+        out.close();
+      }
+    }
+
+    /**
+     * Finishes writing the temporary JAR.  It is created when any deferred drops were not added back.
+     */
+    private void finish(ZipFile zipFile) throws IOException {
+      finished = true;
+      if (zipOut == null && readdedCount != deferredDrops.size()) {
+        getOutput(zipFile);
+      }
+      if (zipOut != null) {
+        zipOut.close();
+      }
+    }
+
+    /**
+     * Deletes the temporary JAR, if created and not already moved.
+     */
+    @Override
+    public void close() throws IOException {
+      try {
+        if (zipOut != null && !finished) {
+          zipOut.close();
+        }
+      } finally {
+        if (tmpFile != null && tmpFile.exists()) {
+          FileUtils.delete(tmpFile);
+        }
+      }
+    }
+  }
+
+  /**
+   * Processes a single JAR file through the given stages, replacing the JAR file only when modified.
+   *
+   * <p>When using more than one thread, pages are filtered and compressed concurrently while the results are still
+   * written in physical order.  The resulting JAR is byte-identical to the sequential result, and
+   * {@link Stage#filterPage(org.apache.commons.compress.archivers.zip.ZipArchiveEntry, java.util.List)} must be
+   * thread-safe.</p>
+   *
+   * <p>Reports the phases {@code "start"}, {@code "scan"} (reading and writing all existing entries), {@code "filter"}
+   * (per page, possibly concurrent), {@code "finish"}, {@code "replace"}, and {@code "total"}.</p>
+   *
+   * @param logPrefix  The prefix added to the summary log messages
+   * @param threads    The number of threads, {@code 1} for sequential or {@code 0} for the number of available processors
+   */
+  static void process(
+      File javadocJar,
+      String logPrefix,
+      List<? extends Stage> stages,
+      int threads,
+      MetricsListener metrics,
+      Consumer<Supplier<String>> debug,
+      Consumer<Supplier<String>> info,
+      Consumer<Supplier<String>> warn
+  ) throws IOException {
+    final long startNanos = System.nanoTime();
+    final int numThreads = Threads.getThreads(threads);
+    final boolean headOnly = isHeadOnly(stages);
+    final Stage reuseStage = stages.size() == 1 ? stages.get(0) : null;
+    final PageMetrics pageMetrics = new PageMetrics();
+    int totalEntries = 0;
+    int totalHtmlEntries = 0;
+    int droppedEntries = 0;
+    long scanStartNanos;
+    long finishStartNanos;
+    long replaceStartNanos;
+    long bytesWritten = 0;
+    try (TempJar tempJar = new TempJar(javadocJar, debug)) {
+      debug.accept(() -> "Reading " + javadocJar);
+      try (ZipFile zipFile = new ZipFile(javadocJar)) {
+        for (Stage stage : stages) {
+          stage.start(zipFile);
+        }
+        scanStartNanos = System.nanoTime();
+        ExecutorService executor;
+        if (numThreads == 1) {
+          executor = null;
+        } else {
+          debug.accept(() -> "Filtering with " + numThreads + " threads");
+          executor = Threads.newFixedThreadPool(numThreads, JavadocPipeline.class.getSimpleName(), false);
+        }
+        Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+        try {
+          // Limit the number of filtered pages held in memory while waiting to be written in order
+          final int maxPending = executor == null ? 0 : (numThreads * PENDING_PER_THREAD);
+          Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+          while (zipEntries.hasMoreElements()) {
+            totalEntries++;
+            ZipArchiveEntry zipEntry = zipEntries.nextElement();
+            debug.accept(() -> "zipEntry: " + zipEntry);
+            String zipEntryName = zipEntry.getName();
+            // Require times on all entries
+            long zipEntryTime = zipEntry.getTime();
+            if (zipEntryTime == -1) {
+              throw new ZipException("No time in entry: " + javadocJar + AT + zipEntryName);
+            }
+            PendingEntry pending;
+            if (isDropped(stages, zipEntry)) {
+              debug.accept(() -> zipEntryName + ": Dropping existing entry");
+              droppedEntries++;
+              pending = new PendingEntry(zipEntry, true, null);
+            } else if (!StringUtils.endsWithIgnoreCase(zipEntryName, FILTER_EXTENSION)) {
+              // Anything not ending in *.html (which will include directories), just copy verbatim
+              pending = new PendingEntry(zipEntry, false, null);
+            } else {
+              totalHtmlEntries++;
+              Callable<FilteredPage> task = () -> {
+                long filterStartNanos = System.nanoTime();
+                try {
+                  FilteredPage filteredPage = reuseStage == null ? null : reuseStage.reusePage(zipEntry);
+                  if (filteredPage != null) {
+                    debug.accept(() -> zipEntryName + ": Reused from previous build");
+                    pageMetrics.reusedPages.increment();
+                  } else {
+                    filteredPage = filterPage(javadocJar, zipFile, zipEntry, stages, headOnly, pageMetrics, debug);
+                  }
+                  for (Stage stage : stages) {
+                    stage.pageFiltered(zipEntry, filteredPage.newEntry);
+                  }
+                  return filteredPage;
+                } finally {
+                  pageMetrics.filterNanos.add(System.nanoTime() - filterStartNanos);
+                }
+              };
+              if (executor == null) {
+                FutureTask<FilteredPage> future = new FutureTask<>(task);
+                future.run();
+                pending = new PendingEntry(zipEntry, false, future);
+              } else {
+                pending = new PendingEntry(zipEntry, false, executor.submit(task));
+              }
+            }
+            pendingEntries.addLast(pending);
+            while (pendingEntries.size() > maxPending) {
+              tempJar.write(zipFile, pendingEntries.removeFirst());
+            }
+          }
+          while (!pendingEntries.isEmpty()) {
+            tempJar.write(zipFile, pendingEntries.removeFirst());
+          }
+        } finally {
+          if (executor != null) {
+            // Wait for any pages still being filtered before closing the ZIP file
+            List<Future<FilteredPage>> futures = new ArrayList<>(pendingEntries.size());
+            for (PendingEntry pending : pendingEntries) {
+              if (pending.filteredPage != null) {
+                futures.add(pending.filteredPage);
+              }
+            }
+            Threads.shutdown(executor, futures);
+          }
+        }
+        finishStartNanos = System.nanoTime();
+        for (Stage stage : stages) {
+          stage.finish(zipFile, tempJar.getEntryOutput(zipFile));
+        }
+        tempJar.finish(zipFile);
+      }
+      replaceStartNanos = System.nanoTime();
+      final int totalHtmlEntriesFinal = totalHtmlEntries;
+      if (totalHtmlEntriesFinal == 0) {
+        final int totalEntriesFinal = totalEntries;
+        warn.accept(() -> logPrefix + ": No files found matching *" + FILTER_EXTENSION + " in "
+            + totalEntriesFinal + " total " + (totalEntriesFinal == 1 ? "entry" : "entries"));
+      }
+      // Ovewrite if anything changed, delete otherwise.  Only compare when entries were dropped or added without
+      // modifying any page, such as when regenerating the same sitemap.
+      File tmpFile = tempJar.tmpFile;
+      if (tmpFile != null && (tempJar.modified || !FileUtils.contentEquals(javadocJar, tmpFile))) {
+        if (!tmpFile.renameTo(javadocJar)) {
+          throw new IOException("Rename failed: " + tmpFile + " to " + javadocJar);
+        }
+        bytesWritten = javadocJar.length();
+      } else {
+        info.accept(() -> logPrefix + ": No changes made"
+            + (totalHtmlEntriesFinal == 0 ? "" : " (javadocs already processed?)"));
+      }
+      metrics.count(javadocJar, "entries", totalEntries);
+      metrics.count(javadocJar, "htmlEntries", totalHtmlEntries);
+      metrics.count(javadocJar, "headOnlyPages", pageMetrics.headOnlyPages.sum());
+      metrics.count(javadocJar, "modifiedPages", pageMetrics.modifiedPages.sum());
+      metrics.count(javadocJar, "reusedPages", pageMetrics.reusedPages.sum());
+      metrics.count(javadocJar, "droppedEntries", droppedEntries);
+      metrics.count(javadocJar, "addedEntries", tempJar.addedCount);
+      metrics.count(javadocJar, "bytesInflated", pageMetrics.bytesInflated.sum());
+      metrics.count(javadocJar, "bytesDeflated", pageMetrics.bytesDeflated.sum());
+      metrics.count(javadocJar, "bytesWritten", bytesWritten);
+    }
+    long endNanos = System.nanoTime();
+    metrics.time(javadocJar, "start", scanStartNanos - startNanos);
+    metrics.time(javadocJar, "scan", finishStartNanos - scanStartNanos);
+    metrics.time(javadocJar, "filter", pageMetrics.filterNanos.sum());
+    metrics.time(javadocJar, "finish", replaceStartNanos - finishStartNanos);
+    metrics.time(javadocJar, "replace", endNanos - replaceStartNanos);
+    metrics.time(javadocJar, "total", endNanos - startNanos);
+  }
+
+  private static boolean isHeadOnly(List<? extends Stage> stages) {
+    for (Stage stage : stages) {
+      if (!stage.isHeadOnly()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isDropped(List<? extends Stage> stages, ZipArchiveEntry zipEntry) {
+    for (Stage stage : stages) {
+      if (stage.isDropped(zipEntry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Implementation of {@link #processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)}
+   * with provided logging.
+   */
+  static void processJavadocJar(
+      File javadocJar,
+      String apidocsUrl,
+      boolean seoFilter,
+      Iterable<String> nofollow,
+      Iterable<String> follow,
+      String googleAnalyticsTrackingId,
+      boolean generateSitemap,
+      boolean gzipSitemap,
+      int threads,
+      MetricsListener metrics,
+      Consumer<Supplier<String>> debug,
+      Consumer<Supplier<String>> info,
+      Consumer<Supplier<String>> warn
+  ) throws IOException {
+    info.accept(() -> "Javadoc pipeline processing " + javadocJar);
+    // Validate
+    Objects.requireNonNull(javadocJar, "javadocJar required");
+    if (!javadocJar.exists()) {
+      throw new IOException("javadocJar does not exist: " + javadocJar);
+    }
+    if (!javadocJar.isFile()) {
+      throw new IOException("javadocJar is not a regular file: " + javadocJar);
+    }
+    List<Stage> stages = new ArrayList<>(3);
+    if (seoFilter) {
+      stages.add(new SeoJavadocFilter.FilterStage(javadocJar, apidocsUrl, nofollow, follow, debug));
+    }
+    googleAnalyticsTrackingId = StringUtils.trimToNull(googleAnalyticsTrackingId);
+    if (googleAnalyticsTrackingId != null) {
+      stages.add(new InsertGoogleAnalyticsTracking.TrackingStage(javadocJar, googleAnalyticsTrackingId, debug));
+    }
+    if (generateSitemap) {
+      stages.add(new GenerateJavadocSitemap.SitemapStage(javadocJar, apidocsUrl, gzipSitemap, debug));
+    }
+    if (stages.isEmpty()) {
+      warn.accept(() -> "Javadoc pipeline: No stages enabled, skipping " + javadocJar);
+    } else {
+      process(javadocJar, "Javadoc pipeline", stages, threads, metrics, debug, info, warn);
+    }
+  }
+
+  /**
+   * Processes a single JAR file through any combination of the stages described in
+   * {@linkplain JavadocPipeline this class header}.
+   *
+   * @param javadocJar                See {@link ProcessJavadocTask#setBuildDirectory(java.lang.String)}
+   * @param apidocsUrl                See {@link ProcessJavadocTask#setProjectUrl(java.lang.String)}
+   *                                  and {@link ProcessJavadocTask#setSubprojectSubpath(java.lang.String)}
+   * @param seoFilter                 See {@link ProcessJavadocTask#setSeoFilter(boolean)}
+   * @param nofollow                  See {@link ProcessJavadocTask#setNofollow(java.lang.String)}
+   * @param follow                    See {@link ProcessJavadocTask#setFollow(java.lang.String)}
+   * @param googleAnalyticsTrackingId See {@link ProcessJavadocTask#setGoogleAnalyticsTrackingId(java.lang.String)}
+   * @param generateSitemap           See {@link ProcessJavadocTask#setGenerateSitemap(boolean)}
+   * @param gzipSitemap               See {@link ProcessJavadocTask#setGzipSitemap(boolean)}
+   * @param threads                   See {@link ProcessJavadocTask#setThreads(int)}
+   * @param metrics                   Receives the metrics of the JAR file or {@code null} for none.
+   *                                  See {@link ProcessJavadocTask#setMetricsFile(java.lang.String)}.
+   */
+  public static void processJavadocJar(
+      File javadocJar,
+      String apidocsUrl,
+      boolean seoFilter,
+      Iterable<String> nofollow,
+      Iterable<String> follow,
+      String googleAnalyticsTrackingId,
+      boolean generateSitemap,
+      boolean gzipSitemap,
+      int threads,
+      MetricsListener metrics
+  ) throws IOException {
+    if (nofollow == null) {
+      nofollow = Collections.emptyList();
+    }
+    if (follow == null) {
+      follow = Collections.emptyList();
+    }
+    if (metrics == null) {
+      metrics = MetricsListener.NONE;
+    }
+    processJavadocJar(
+        javadocJar,
+        apidocsUrl,
+        seoFilter,
+        nofollow,
+        follow,
+        googleAnalyticsTrackingId,
+        generateSitemap,
+        gzipSitemap,
+        threads,
+        metrics,
+        logger::fine,
+        logger::info,
+        logger::warning
+    );
+  }
+
+  /**
+   * Processes a single JAR file sequentially through any combination of the stages described in
+   * {@linkplain JavadocPipeline this class header}, with an uncompressed sitemap and no metrics.
+   *
+   * @see #processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)
+   */
+  public static void processJavadocJar(
+      File javadocJar,
+      String apidocsUrl,
+      boolean seoFilter,
+      Iterable<String> nofollow,
+      Iterable<String> follow,
+      String googleAnalyticsTrackingId,
+      boolean generateSitemap
+  ) throws IOException {
+    processJavadocJar(javadocJar, apidocsUrl, seoFilter, nofollow, follow, googleAnalyticsTrackingId,
+        generateSitemap, false, 1, null);
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events emitted while processing artifacts, so that slow artifacts and entries may be found
+ * directly from a recording.
+ *
+ * <p>Each event is created and {@linkplain Event#begin() begun} unconditionally, but its fields are only set when
+ * {@link Event#shouldCommit()}.  When not recording, this is only a check of a constant flag and the allocation is
+ * eliminated by escape analysis.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class JfrEvents {
+
+  /** Make no instances. */
+  private JfrEvents() {
+    throw new AssertionError();
+  }
+
+  private static final String CATEGORY = "AO Ant Tasks";
+
+  private static final String ZIP_TIMESTAMP_MERGE = "ZIP Timestamp Merge";
+
+  private static final String JAVADOC = "Javadoc";
+
+  /**
+   * The merge of the timestamps of a single artifact.
+   */
+  @Name("com.aoapps.ant.tasks.ArtifactMerge")
+  @Label("Artifact Merge")
+  @Description("Merging the timestamps of one artifact from the last build")
+  @Category({CATEGORY, ZIP_TIMESTAMP_MERGE})
+  @SuppressFBWarnings("URF_UNREAD_FIELD")
+  static final class ArtifactMerge extends Event {
+
+    @Label("Build Artifact")
+    String buildArtifact;
+
+    @Label("Last Build Artifact")
+    String lastBuildArtifact;
+
+    @Label("Entries")
+    int entries;
+
+    @Label("Updated Entries")
+    int updatedEntries;
+
+    @Label("Patched Entries")
+    int patchedEntries;
+  }
+
+  /**
+   * The comparison of a single file entry to the last build.
+   */
+  @Name("com.aoapps.ant.tasks.EntryCompare")
+  @Label("Entry Compare")
+  @Description("Comparing the content of one entry to the last build")
+  @Category({CATEGORY, ZIP_TIMESTAMP_MERGE})
+  @StackTrace(false)
+  @SuppressFBWarnings("URF_UNREAD_FIELD")
+  static final class EntryCompare extends Event {
+
+    @Label("Build Artifact")
+    String buildArtifact;
+
+    @Label("Entry")
+    String entry;
+
+    @Label("Tier")
+    @Description("How the content was compared, in the order tried: SIZE, CRC, TRUSTED_CRC, CACHED_DIGEST, or CONTENT")
+    String tier;
+
+    @Label("Bytes Compared")
+    @Description("The bytes read to compare content or compute digests, counting entries in full")
+    @DataAmount
+    long bytesCompared;
+
+    @Label("Updated")
+    boolean updated;
+  }
+
+  /**
+   * The application of one batch of timestamp patches to an artifact.
+   */
+  @Name("com.aoapps.ant.tasks.PatchBatch")
+  @Label("Patch Batch")
+  @Description("Patching timestamps in-place in one artifact")
+  @Category({CATEGORY, ZIP_TIMESTAMP_MERGE})
+  @SuppressFBWarnings("URF_UNREAD_FIELD")
+  static final class PatchBatch extends Event {
+
+    @Label("Artifact")
+    String artifact;
+
+    @Label("Patches")
+    int patches;
+
+    @Label("Writes")
+    @Description("The number of read-modify-writes, after coalescing nearby patches")
+    int writes;
+
+    @Label("Synced")
+    boolean synced;
+  }
+
+  /**
+   * The SEO filtering of a single HTML page.
+   */
+  @Name("com.aoapps.ant.tasks.PageFilter")
+  @Label("HTML Page Filter")
+  @Description("SEO filtering one HTML page of a Javadoc JAR")
+  @Category({CATEGORY, JAVADOC})
+  @StackTrace(false)
+  @SuppressFBWarnings("URF_UNREAD_FIELD")
+  static final class PageFilter extends Event {
+
+    @Label("Javadoc JAR")
+    String javadocJar;
+
+    @Label("Entry")
+    String entry;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Links")
+    @Description("The number of links with an href")
+    int links;
+  }
+
+  /**
+   * The generation of one sitemap.
+   */
+  @Name("com.aoapps.ant.tasks.SitemapWrite")
+  @Label("Sitemap Write")
+  @Description("Generating one sitemap of a Javadoc JAR")
+  @Category({CATEGORY, JAVADOC})
+  @SuppressFBWarnings("URF_UNREAD_FIELD")
+  static final class SitemapWrite extends Event {
+
+    @Label("Javadoc JAR")
+    String javadocJar;
+
+    @Label("Sitemap")
+    String sitemap;
+
+    @Label("URLs")
+    int urls;
+
+    @Label("Size")
+    @Description("The size of the sitemap entry, compressed when gzip")
+    @DataAmount
+    long size;
+
+    @Label("Gzip")
+    boolean gzip;
+  }
+}
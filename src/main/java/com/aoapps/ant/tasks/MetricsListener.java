@@ -0,0 +1,72 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.File;
+
+/**
+ * Receives the counters and per-phase timings of processing each artifact, such as the entries scanned, bytes inflated,
+ * bytes written, and patches applied.  These are reported once per artifact after it is processed, so the overhead is
+ * independent of the number of entries.
+ *
+ * <p>Implementations must be thread-safe, since artifacts may be processed concurrently.</p>
+ *
+ * @see MetricsSummary
+ *
+ * @author  AO Industries, Inc.
+ */
+public interface MetricsListener {
+
+  /**
+   * A listener that ignores all metrics.
+   */
+  MetricsListener NONE = new MetricsListener() {
+    @Override
+    public void count(File artifact, String counter, long amount) {
+      // Ignored
+    }
+
+    @Override
+    public void time(File artifact, String phase, long nanos) {
+      // Ignored
+    }
+  };
+
+  /**
+   * Adds to a counter of the given artifact.
+   *
+   * @param counter  The name of the counter, such as {@code "entries"} or {@code "bytesWritten"}
+   */
+  void count(File artifact, String counter, long amount);
+
+  /**
+   * Adds the time spent in a phase of processing the given artifact.  The phase {@code "total"} is the elapsed time
+   * of processing the artifact.  Other phases may overlap when performed concurrently, so their sum may exceed the
+   * total.
+   *
+   * @param phase  The name of the phase, such as {@code "compare"} or {@code "filter"}
+   * @param nanos  The time in nanoseconds, as measured by {@link System#nanoTime()}
+   */
+  void time(File artifact, String phase, long nanos);
+}
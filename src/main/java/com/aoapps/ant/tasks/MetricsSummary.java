@@ -0,0 +1,133 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * Accumulates metrics by artifact, to be written as a JSON summary.  Artifacts, counters, and phases are listed in the
+ * order first reported:
+ *
+ * <pre>{
+ *   "artifacts": [
+ *     {
+ *       "artifact": "target/example-1.0.0-javadoc.jar",
+ *       "counters": {"entries": 1234, ...},
+ *       "phaseNanos": {"filter": 123456789, ..., "total": 234567890}
+ *     }
+ *   ]
+ * }</pre>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class MetricsSummary implements MetricsListener {
+
+  private static final String NL = System.lineSeparator();
+
+  /**
+   * The metrics of a single artifact.
+   */
+  private static final class ArtifactMetrics {
+
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+  }
+
+  private final Map<File, ArtifactMetrics> artifacts = new LinkedHashMap<>();
+
+  @Override
+  public synchronized void count(File artifact, String counter, long amount) {
+    artifacts.computeIfAbsent(artifact, k -> new ArtifactMetrics()).counters.merge(counter, amount, Long::sum);
+  }
+
+  @Override
+  public synchronized void time(File artifact, String phase, long nanos) {
+    artifacts.computeIfAbsent(artifact, k -> new ArtifactMetrics()).phaseNanos.merge(phase, nanos, Long::sum);
+  }
+
+  private static void appendJson(StringBuilder json, String indent, Map<String, Long> values) {
+    json.append('{');
+    boolean first = true;
+    for (Map.Entry<String, Long> entry : values.entrySet()) {
+      if (first) {
+        first = false;
+      } else {
+        json.append(',');
+      }
+      json.append(NL).append(indent).append("  \"").append(StringEscapeUtils.escapeJson(entry.getKey())).append("\": ")
+          .append(entry.getValue());
+    }
+    if (!first) {
+      json.append(NL).append(indent);
+    }
+    json.append('}');
+  }
+
+  /**
+   * Gets the summary of all metrics reported so far, as JSON.
+   */
+  public synchronized String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append('{').append(NL);
+    json.append("  \"artifacts\": [");
+    boolean first = true;
+    for (Map.Entry<File, ArtifactMetrics> entry : artifacts.entrySet()) {
+      if (first) {
+        first = false;
+      } else {
+        json.append(',');
+      }
+      ArtifactMetrics metrics = entry.getValue();
+      json.append(NL).append("    {").append(NL);
+      json.append("      \"artifact\": \"").append(StringEscapeUtils.escapeJson(entry.getKey().getPath())).append("\",")
+          .append(NL);
+      json.append("      \"counters\": ");
+      appendJson(json, "      ", metrics.counters);
+      json.append(',').append(NL);
+      json.append("      \"phaseNanos\": ");
+      appendJson(json, "      ", metrics.phaseNanos);
+      json.append(NL).append("    }");
+    }
+    if (!first) {
+      json.append(NL).append("  ");
+    }
+    json.append(']').append(NL);
+    json.append('}').append(NL);
+    return json.toString();
+  }
+
+  /**
+   * Writes the summary of all metrics reported so far to the given file, replacing any existing file only after the
+   * summary is fully written.
+   */
+  public void write(File summaryFile) throws IOException {
+    byte[] json = toJson().getBytes(StandardCharsets.UTF_8);
+    AtomicFiles.write(summaryFile, out -> out.write(json));
+  }
+}
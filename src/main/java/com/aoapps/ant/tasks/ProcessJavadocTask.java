@@ -0,0 +1,210 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.LogLevel;
+
+/**
+ * Ant task that invokes {@link JavadocPipeline#processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)}.
+ *
+ * <p>Note: {@link SeoJavadocFilterTask} should be performed before {@link ZipTimestampMergeTask}, while
+ * {@link GenerateJavadocSitemapTask} should be performed after.  When timestamps are being merged, use this task once
+ * with <code>generateSitemap="false"</code> before {@link ZipTimestampMergeTask} and once with only
+ * <code>generateSitemap="true"</code> after.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@SuppressWarnings("CloneableImplementsClone")
+public class ProcessJavadocTask extends Task {
+
+  private File buildDirectory;
+  private String projectUrl;
+  private String subprojectSubpath;
+  private boolean seoFilter = true;
+  private Iterable<String> nofollow = UrlPrefixes.of(SeoJavadocFilterTask.defaultNofollow);
+  private Iterable<String> follow = UrlPrefixes.of(SeoJavadocFilterTask.defaultFollow);
+  private String googleAnalyticsTrackingId;
+  private boolean generateSitemap = true;
+  private boolean gzipSitemap;
+  private int threads = 1;
+  private File metricsFile;
+
+  /**
+   * The current build directory.
+   * Must exist and be a directory.
+   *
+   * <p>Each file ending with <code>"{@value SeoJavadocFilterTask#FILTER_SUFFIX}"</code> (case-insensitive) will be processed.</p>
+   *
+   * <p>Each file is a Javadoc JAR file to process and must be a regular file.</p>
+   */
+  public void setBuildDirectory(String buildDirectory) {
+    this.buildDirectory = new File(buildDirectory);
+  }
+
+  /**
+   * The project url.  The apidocs URLs will be based on this, depending on artifact classifier.
+   * Ending in {@code "*-test-javadoc.jar"} will be {@code "${projectUrl}${subprojectSubpath}test/apidocs/"}.
+   * Otherwise will be {@code "${projectUrl}${subprojectSubpath}apidocs/"}
+   *
+   * @see #setSubprojectSubpath(java.lang.String)
+   */
+  public void setProjectUrl(String projectUrl) {
+    if (!projectUrl.endsWith("/")) {
+      projectUrl += "/";
+    }
+    this.projectUrl = projectUrl;
+  }
+
+  /**
+   * The sub-project sub-path used in the url.
+   *
+   * @see #setProjectUrl(java.lang.String)
+   */
+  public void setSubprojectSubpath(String subprojectSubpath) {
+    if (!subprojectSubpath.isEmpty() && !subprojectSubpath.endsWith("/")) {
+      subprojectSubpath += "/";
+    }
+    this.subprojectSubpath = subprojectSubpath;
+  }
+
+  /**
+   * Performs the {@link SeoJavadocFilter} stage.  Defaults to {@code true}.
+   */
+  public void setSeoFilter(boolean seoFilter) {
+    this.seoFilter = seoFilter;
+  }
+
+  /**
+   * See {@link SeoJavadocFilterTask#setNofollow(java.lang.String)}.
+   */
+  public void setNofollow(String nofollow) {
+    this.nofollow = SeoJavadocFilterTask.parseNofollow(nofollow);
+  }
+
+  /**
+   * See {@link SeoJavadocFilterTask#setFollow(java.lang.String)}.
+   */
+  public void setFollow(String follow) {
+    this.follow = SeoJavadocFilterTask.parseFollow(follow);
+  }
+
+  /**
+   * Performs the {@link InsertGoogleAnalyticsTracking} stage with the given tracking ID.
+   * See {@link InsertGoogleAnalyticsTrackingTask#setGoogleAnalyticsTrackingId(java.lang.String)}.
+   *
+   * @param googleAnalyticsTrackingId  The stage is skipped when {@code null} or empty (after trimming), the default
+   */
+  public void setGoogleAnalyticsTrackingId(String googleAnalyticsTrackingId) {
+    this.googleAnalyticsTrackingId = googleAnalyticsTrackingId;
+  }
+
+  /**
+   * Performs the {@link GenerateJavadocSitemap} stage.  Defaults to {@code true}.
+   */
+  public void setGenerateSitemap(boolean generateSitemap) {
+    this.generateSitemap = generateSitemap;
+  }
+
+  /**
+   * See {@link GenerateJavadocSitemapTask#setGzip(boolean)}.
+   */
+  public void setGzipSitemap(boolean gzipSitemap) {
+    this.gzipSitemap = gzipSitemap;
+  }
+
+  /**
+   * The number of threads used to filter and compress the HTML pages of each JAR file.  The resulting JAR file is
+   * byte-identical regardless of the number of threads.
+   *
+   * <p>Defaults to {@code 1} (sequential).  Use {@code 0} for the number of available processors.</p>
+   */
+  public void setThreads(int threads) {
+    if (threads < 0) {
+      throw new BuildException("threads may not be negative: " + threads);
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * See {@link SeoJavadocFilterTask#setMetricsFile(java.lang.String)}.
+   */
+  public void setMetricsFile(String metricsFile) {
+    this.metricsFile = new File(metricsFile);
+  }
+
+  /**
+   * Calls {@link JavadocPipeline#processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)}
+   * for each file in {@link #setBuildDirectory(java.lang.String)} that matches {@link SeoJavadocFilterTask#javadocJarFilter}
+   * while logging to {@link #log(java.lang.String, int)}.
+   */
+  @Override
+  public void execute() throws BuildException {
+    try {
+      if (buildDirectory == null) {
+        throw new BuildException("buildDirectory required");
+      }
+      if (!buildDirectory.exists()) {
+        throw new IOException("buildDirectory does not exist: " + buildDirectory);
+      }
+      if (!buildDirectory.isDirectory()) {
+        throw new IOException("buildDirectory is not a directory: " + buildDirectory);
+      }
+      MetricsSummary metrics = metricsFile == null ? null : new MetricsSummary();
+      int count = 0;
+      File[] javadocJarFiles = buildDirectory.listFiles(SeoJavadocFilterTask.javadocJarFilter);
+      if (javadocJarFiles != null) {
+        for (File javadocJar : javadocJarFiles) {
+          JavadocPipeline.processJavadocJar(
+              javadocJar,
+              SeoJavadocFilterTask.getApidocsUrl(javadocJar, projectUrl, subprojectSubpath),
+              seoFilter,
+              nofollow,
+              follow,
+              googleAnalyticsTrackingId,
+              generateSitemap,
+              gzipSitemap,
+              threads,
+              metrics == null ? MetricsListener.NONE : metrics,
+              msg -> log(msg.get(), LogLevel.DEBUG.getLevel()),
+              msg -> log(msg.get(), LogLevel.INFO.getLevel()),
+              msg -> log(msg.get(), LogLevel.WARN.getLevel())
+          );
+          count++;
+        }
+      }
+      if (count == 0) {
+        log("Javadoc pipeline found no files matching *" + SeoJavadocFilterTask.FILTER_SUFFIX, LogLevel.INFO.getLevel());
+      }
+      if (metrics != null) {
+        metrics.write(metricsFile);
+      }
+    } catch (IOException e) {
+      throw new BuildException(e);
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,18 +23,15 @@
 
 package com.aoapps.ant.tasks;
 
-import java.io.BufferedReader;
-import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -42,6 +39,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -49,9 +49,8 @@ import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.zip.ZipException;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.function.IOSupplier;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
@@ -69,7 +68,7 @@ import org.apache.commons.text.StringEscapeUtils;
  * <li>
  *   Adds <a href="https://www.robotstxt.org/meta.html">{@code <meta name="robots" content="noindex, nofollow">}</a>
  *   to selective pages. See
- *   {@link #getRobotsHeader(java.io.File, org.apache.commons.compress.archivers.zip.ZipArchiveEntry, org.apache.commons.io.function.IOSupplier, java.util.Map, java.lang.Iterable)}.
+ *   {@link #getRobotsHeader(java.io.File, org.apache.commons.compress.archivers.zip.ZipArchiveEntry, org.apache.commons.io.function.IOSupplier, com.aoapps.ant.tasks.UrlPrefixes)}.
  * </li>
  * <li>
  *   rel="nofollow" is added to all links matching the configured nofollow and follow prefixes.
@@ -128,13 +127,37 @@ public final class SeoJavadocFilter {
    */
   static final String NL = System.lineSeparator();
 
-  private static final char LAST_NL_CHAR = NL.charAt(NL.length() - 1);
+  private static final byte LAST_NL_BYTE;
+
+  static {
+    char lastNlChar = NL.charAt(NL.length() - 1);
+    // Pages are split on the last newline byte, which must be ASCII to never be part of a multibyte UTF-8 sequence
+    assert lastNlChar < 0x80;
+    LAST_NL_BYTE = (byte) lastNlChar;
+  }
+
   private static final boolean NL_HAS_CR = NL.indexOf('\r') != -1;
 
+  /**
+   * The initial capacity of the line ends of a page, which grows as needed.
+   */
+  private static final int INITIAL_LINE_CAPACITY = 256;
+
+  /**
+   * The initial buffer size when reading only the head of a page, which grows as needed for longer lines.
+   */
+  private static final int HEAD_READ_BUFFER_SIZE = 4096;
+
   static final String HEAD_ELEM_START = "<head>" + NL;
 
   static final String HEAD_ELEM_END = "</head>" + NL;
 
+  private static final String LINK_START = "<a ";
+
+  private static final String HREF_ATTR = " href=\"";
+
+  private static final String REL_ATTR = " rel=\"";
+
   private static final String CANONICAL_PREFIX = "<link rel=\"canonical\" href=\"";
 
   private static final String CANONICAL_SUFFIX = "\">" + NL;
@@ -159,54 +182,26 @@ public final class SeoJavadocFilter {
   private static final String OVERVIEW_SUMMARY_HTML = "overview-summary.html";
 
   /**
-   * Placeholder value put into cache to represent no header value.
+   * Placeholder value put into the robots table to represent no header value.
    */
   private static final String NO_ROBOTS_HEADER = "NO_ROBOTS_HEADER";
 
-  /**
-   * Determines if a page should be noindex, nofollow based on matching the nofollow settings.
-   */
-  private static boolean isPageNofollow(Iterable<String> nofollow, String name) {
-    String slashName = null; // Creation deferred since most apidocs do not use this feature
-    for (String nofollowPrefix : nofollow) {
-      if (
-          !nofollowPrefix.isEmpty()
-          && nofollowPrefix.charAt(0) == '/'
-      ) {
-        if (slashName == null) {
-          slashName = '/' + name;
-        }
-        if (StringUtils.startsWithIgnoreCase(slashName, nofollowPrefix)) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
   /**
    * Determines the robots header value.
    *
    * @return  the header value or {@code null} for none.
    */
   private static String getRobotsHeader(File javadocJar, ZipArchiveEntry zipEntry,
-      IOSupplier<? extends List<String>> linesWithEofSupplier, Map<String, String> robotsHeaderCache,
-      Iterable<String> nofollow
+      IOSupplier<? extends List<String>> linesWithEofSupplier, UrlPrefixes nofollow
   ) throws IOException {
     if (zipEntry.isDirectory()) {
       return null;
     }
     String name = zipEntry.getName();
-    // Check cache first
-    String value = robotsHeaderCache.get(name);
-    if (value != null) {
-      return NO_ROBOTS_HEADER.equals(value) ? null : value;
-    }
-    // Resolve value, if any
     final String robotsHeaderValue;
     if (
         // Check for manual nofollow
-        isPageNofollow(nofollow, name)
+        nofollow.matchesPage(name)
         // Packages
         || StringUtils.containsIgnoreCase(name, "/class-use/")
         || StringUtils.endsWithIgnoreCase(name, "/package-tree.html")
@@ -258,36 +253,199 @@ public final class SeoJavadocFilter {
     } else {
       robotsHeaderValue = null;
     }
-    // Store in cache
-    robotsHeaderCache.put(name, robotsHeaderValue == null ? NO_ROBOTS_HEADER : robotsHeaderValue);
     return robotsHeaderValue;
   }
 
+  /**
+   * Determines the robots header value of every file entry up-front, so link targets are resolved by a single lookup.
+   * Only the entries whose header depends on their content are read.
+   *
+   * @return  the map from entry name to header value, or {@link #NO_ROBOTS_HEADER} for none.
+   */
+  private static Map<String, String> getRobotsTable(File javadocJar, ZipFile zipFile, UrlPrefixes nofollow)
+      throws IOException {
+    Map<String, String> robotsTable = new HashMap<>();
+    Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntries();
+    while (zipEntries.hasMoreElements()) {
+      ZipArchiveEntry zipEntry = zipEntries.nextElement();
+      if (!zipEntry.isDirectory()) {
+        String robotsHeader = getRobotsHeader(javadocJar, zipEntry,
+            () -> readLinesWithEof(javadocJar, zipFile, zipEntry), nofollow);
+        robotsTable.put(zipEntry.getName(), robotsHeader == null ? NO_ROBOTS_HEADER : robotsHeader);
+      }
+    }
+    return robotsTable;
+  }
+
+  /**
+   * Resolves a relative link to its target entry name.  Targets are memoized per directory, since the same relative
+   * links are repeated across the pages of each directory.
+   *
+   * @param resolvedTargets  the map from directory to the map from href to target
+   */
+  private static String resolveTarget(Map<String, Map<String, String>> resolvedTargets, String name,
+      String hrefValue) {
+    String directory = name.substring(0, name.lastIndexOf('/') + 1);
+    Map<String, String> targets = resolvedTargets.computeIfAbsent(directory, d -> new ConcurrentHashMap<>());
+    return targets.computeIfAbsent(hrefValue, h -> {
+      // Resolve any ../ using URI
+      String targetPath = URI.create("/" + directory).resolve(h).getPath();
+      if (!targetPath.startsWith("/")) {
+        throw new AssertionError("target does not begin with slash (/): " + targetPath);
+      }
+      return targetPath.substring(1);
+    });
+  }
+
+  /**
+   * The UTF-8 content of a page along with its lines.  The content is kept so that unchanged lines may be written
+   * without being encoded again.
+   */
+  static final class PageContent {
+
+    private final byte[] content;
+
+    /**
+     * The offset just past the end of each line within the content.
+     */
+    private final int[] lineEnds;
+
+    private final List<String> linesWithEof;
+
+    private PageContent(byte[] content, int[] lineEnds, List<String> linesWithEof) {
+      this.content = content;
+      this.lineEnds = lineEnds;
+      this.linesWithEof = linesWithEof;
+    }
+
+    byte[] getContent() {
+      return content;
+    }
+
+    int getLineStart(int lineIndex) {
+      return lineIndex == 0 ? 0 : lineEnds[lineIndex - 1];
+    }
+
+    int getLineEnd(int lineIndex) {
+      return lineEnds[lineIndex];
+    }
+
+    /**
+     * Gets the lines, which may be modified.
+     */
+    List<String> getLinesWithEof() {
+      return linesWithEof;
+    }
+  }
+
+  /**
+   * Reads a page, splitting on lines while keeping the line endings.  The page is read as bytes and split on the
+   * newline byte, with each line decoded from the bytes directly.
+   */
+  static PageContent readPage(File javadocJar, ZipFile zipFile, ZipArchiveEntry zipEntry) throws IOException {
+    byte[] content;
+    try (InputStream in = zipFile.getInputStream(zipEntry)) {
+      long size = zipEntry.getSize();
+      content = size >= 0 && size < Integer.MAX_VALUE ? IOUtils.toByteArray(in, size) : IOUtils.toByteArray(in);
+    }
+    List<String> linesWithEof = new ArrayList<>();
+    int[] lineEnds = new int[INITIAL_LINE_CAPACITY];
+    int lineStart = 0;
+    for (int i = 0; i < content.length; i++) {
+      byte b = content[i];
+      // Make sure only POSIX newlines when on POSIX
+      if (b == '\r' && !NL_HAS_CR) {
+        throw new ZipException("Carriage return in javadocs but not in NL, requiring POSIX newlines only: " + javadocJar + AT
+            + zipEntry + AT_LINE + (linesWithEof.size() + 1));
+      }
+      if (b == LAST_NL_BYTE) {
+        lineEnds = addLine(content, lineStart, i + 1, linesWithEof, lineEnds);
+        lineStart = i + 1;
+      }
+    }
+    if (lineStart < content.length) {
+      lineEnds = addLine(content, lineStart, content.length, linesWithEof, lineEnds);
+    }
+    return new PageContent(content, lineEnds, linesWithEof);
+  }
+
+  /**
+   * Adds a line decoded from the given range of content.
+   *
+   * @return  the line ends, which may be a new array when the given array is too small
+   */
+  private static int[] addLine(byte[] content, int lineStart, int lineEnd, List<String> linesWithEof, int[] lineEnds) {
+    int lineIndex = linesWithEof.size();
+    if (lineIndex == lineEnds.length) {
+      lineEnds = Arrays.copyOf(lineEnds, lineEnds.length * 2);
+    }
+    lineEnds[lineIndex] = lineEnd;
+    linesWithEof.add(new String(content, lineStart, lineEnd - lineStart, ENCODING));
+    return lineEnds;
+  }
+
   /**
    * Reads all lines, splitting on lines while keeping the line endings.
+   *
+   * @see #readPage(java.io.File, org.apache.commons.compress.archivers.zip.ZipFile, org.apache.commons.compress.archivers.zip.ZipArchiveEntry)
    */
   static List<String> readLinesWithEof(File javadocJar, ZipFile zipFile, ZipArchiveEntry zipEntry) throws IOException {
-    try (Reader in = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry), ENCODING))) {
-      List<String> linesWithEof = new ArrayList<>();
-      StringBuilder lineSb = new StringBuilder(80);
-      int ch;
-      while ((ch = in.read()) != -1) {
-        // Make sure only POSIX newlines when on POSIX
-        if (ch == '\r' && !NL_HAS_CR) {
-          throw new ZipException("Carriage return in javadocs but not in NL, requiring POSIX newlines only: " + javadocJar + AT
-              + zipEntry + AT_LINE + (linesWithEof.size() + 1));
+    return readPage(javadocJar, zipFile, zipEntry).getLinesWithEof();
+  }
+
+  /**
+   * Reads lines through the first {@link #HEAD_ELEM_END} line, keeping the line endings.  The rest of the entry is not
+   * inflated.  When there is no {@link #HEAD_ELEM_END} line, all lines are read.
+   *
+   * @see #readLinesWithEof(java.io.File, org.apache.commons.compress.archivers.zip.ZipFile, org.apache.commons.compress.archivers.zip.ZipArchiveEntry)
+   */
+  static List<String> readHeadLinesWithEof(File javadocJar, ZipFile zipFile, ZipArchiveEntry zipEntry)
+      throws IOException {
+    List<String> linesWithEof = new ArrayList<>();
+    try (InputStream in = zipFile.getInputStream(zipEntry)) {
+      byte[] buffer = new byte[HEAD_READ_BUFFER_SIZE];
+      int length = 0;
+      int lineStart = 0;
+      int pos = 0;
+      while (true) {
+        if (length == buffer.length) {
+          if (lineStart > 0) {
+            // Discard lines already added
+            System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+            length -= lineStart;
+            pos -= lineStart;
+            lineStart = 0;
+          } else {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          }
+        }
+        int count = in.read(buffer, length, buffer.length - length);
+        if (count == -1) {
+          break;
         }
-        lineSb.append((char) ch);
-        if (ch == LAST_NL_CHAR) {
-          linesWithEof.add(lineSb.toString());
-          lineSb.setLength(0);
+        length += count;
+        for (; pos < length; pos++) {
+          byte b = buffer[pos];
+          // Make sure only POSIX newlines when on POSIX
+          if (b == '\r' && !NL_HAS_CR) {
+            throw new ZipException("Carriage return in javadocs but not in NL, requiring POSIX newlines only: " + javadocJar + AT
+                + zipEntry + AT_LINE + (linesWithEof.size() + 1));
+          }
+          if (b == LAST_NL_BYTE) {
+            String lineWithEof = new String(buffer, lineStart, pos + 1 - lineStart, ENCODING);
+            linesWithEof.add(lineWithEof);
+            if (lineWithEof.equals(HEAD_ELEM_END)) {
+              return linesWithEof;
+            }
+            lineStart = pos + 1;
+          }
         }
       }
-      if (lineSb.length() != 0) {
-        linesWithEof.add(lineSb.toString());
+      if (lineStart < length) {
+        linesWithEof.add(new String(buffer, lineStart, length - lineStart, ENCODING));
       }
-      return linesWithEof;
     }
+    return linesWithEof;
   }
 
   static int findHeadStartIndex(File javadocJar, ZipArchiveEntry zipEntry, List<String> linesWithEof,
@@ -368,25 +526,23 @@ public final class SeoJavadocFilter {
     }
   }
 
-  private static String getExpectedRelForTarget(File javadocJar, ZipFile zipFile, ZipArchiveEntry zipEntry,
-      Map<String, String> robotsHeaderCache, Iterable<String> nofollow, String hrefValue, String target,
-      Consumer<Supplier<String>> debug) throws IOException {
-    // Find target ZIP entry
-    ZipArchiveEntry targetEntry = zipFile.getEntry(target);
-    if (targetEntry == null) {
-      // Fail if target ZIP entry not found
-      throw new ZipException("Target of internal link not found in ZIP archive: zipEntry = " + zipEntry
-          + ", hrefValue = " + hrefValue + ", target = " + target);
-    }
-    if (targetEntry.isDirectory()) {
-      // Fail if target ZIP entry is a directory
-      throw new ZipException("Target of internal link is a directory: zipEntry = " + zipEntry
-          + ", hrefValue = " + hrefValue + ", target = " + target);
-    }
-    String targetRobotsHeader = getRobotsHeader(javadocJar, targetEntry,
-        () -> readLinesWithEof(javadocJar, zipFile, targetEntry), robotsHeaderCache, nofollow);
-    // Also rel for internal pages that are are noindex, using robotsHeaderCache
-    if (GenerateJavadocSitemap.isInSitemap(targetRobotsHeader)) {
+  private static String getExpectedRelForTarget(ZipFile zipFile, ZipArchiveEntry zipEntry,
+      Map<String, String> robotsTable, String hrefValue, String target,
+      Consumer<Supplier<String>> debug) throws ZipException {
+    String targetRobotsHeader = robotsTable.get(target);
+    if (targetRobotsHeader == null) {
+      if (zipFile.getEntry(target) == null) {
+        // Fail if target ZIP entry not found
+        throw new ZipException("Target of internal link not found in ZIP archive: zipEntry = " + zipEntry
+            + ", hrefValue = " + hrefValue + ", target = " + target);
+      } else {
+        // Fail if target ZIP entry is a directory
+        throw new ZipException("Target of internal link is a directory: zipEntry = " + zipEntry
+            + ", hrefValue = " + hrefValue + ", target = " + target);
+      }
+    }
+    // Also rel for internal pages that are are noindex, using robotsTable
+    if (GenerateJavadocSitemap.isInSitemap(NO_ROBOTS_HEADER.equals(targetRobotsHeader) ? null : targetRobotsHeader)) {
       return FOLLOW;
     } else {
       debug.accept(() -> "Adding nofollow for internal link from " + zipEntry.getName() + " to " + target);
@@ -394,179 +550,476 @@ public final class SeoJavadocFilter {
     }
   }
 
-  private static void nofollowLinks(String apidocsUrlWithSlash, File javadocJar, ZipFile zipFile,
-      ZipArchiveEntry zipEntry, List<String> linesWithEof, Map<String, String> robotsHeaderCache,
-      Iterable<String> nofollow, Iterable<String> follow, Consumer<Supplier<String>> debug
+  /**
+   * Checks a line for capitalized links or single-quoted attributes, which are not supported.
+   */
+  private static void checkLinkSyntax(File javadocJar, ZipArchiveEntry zipEntry, String line, int lineIndex)
+      throws ZipException {
+    // Do not allow capital links
+    if (line.contains("<A ")) {
+      throw new ZipException("Unexpected capitalized \"<A \" found: " + javadocJar + AT + zipEntry + AT_LINE
+          + (lineIndex + 1));
+    }
+    // Do not allow single-quoted href
+    if (line.contains("href='")) {
+      throw new ZipException("Unexpected single-quoted \"href='\" found: " + javadocJar + AT + zipEntry + AT_LINE
+          + (lineIndex + 1));
+    }
+    // Do not allow single-quoted rel
+    if (line.contains("rel='")) {
+      throw new ZipException("Unexpected single-quoted \"rel='\" found: " + javadocJar + AT + zipEntry + AT_LINE
+          + (lineIndex + 1));
+    }
+  }
+
+  /**
+   * Finds all links in a line in a single pass, storing the start, end, {@link #HREF_ATTR}, and {@link #REL_ATTR}
+   * positions of each link.  A link without an end is stored with an end of {@code -1}.
+   *
+   * @return  the positions, which may be a new array when the given array is too small
+   */
+  @SuppressWarnings("AssignmentToForLoopParameter")
+  private static int[] scanLinks(File javadocJar, ZipArchiveEntry zipEntry, String line, int lineIndex, int[] links)
+      throws ZipException {
+    int count = 0;
+    int linkStart = -1;
+    int hrefPos = -1;
+    int relPos = -1;
+    int len = line.length();
+    for (int i = 0; i < len; i++) {
+      char ch = line.charAt(i);
+      if (ch == '<') {
+        if (line.startsWith("<A ", i)) {
+          checkLinkSyntax(javadocJar, zipEntry, line, lineIndex);
+        }
+        if (linkStart == -1 && line.startsWith(LINK_START, i)) {
+          linkStart = i;
+          i += LINK_START.length() - 2; // Allow the trailing space to also start the first attribute
+        }
+      } else if (ch == ' ') {
+        if (linkStart != -1) {
+          if (hrefPos == -1 && line.startsWith(HREF_ATTR, i)) {
+            hrefPos = i;
+          } else if (relPos == -1 && line.startsWith(REL_ATTR, i)) {
+            relPos = i;
+          }
+        }
+      } else if (ch == '\'') {
+        if (
+            (i >= 5 && line.startsWith("href='", i - 5))
+            || (i >= 4 && line.startsWith("rel='", i - 4))
+        ) {
+          checkLinkSyntax(javadocJar, zipEntry, line, lineIndex);
+        }
+      } else if (ch == '>' && linkStart != -1) {
+        links = addLink(links, count++, linkStart, i, hrefPos, relPos);
+        linkStart = -1;
+        hrefPos = -1;
+        relPos = -1;
+      }
+    }
+    if (linkStart != -1) {
+      links = addLink(links, count++, linkStart, -1, hrefPos, relPos);
+    }
+    links[count * 4] = -1;
+    return links;
+  }
+
+  private static int[] addLink(int[] links, int index, int linkStart, int linkEnd, int hrefPos, int relPos) {
+    int offset = index * 4;
+    // Leave room for the terminating -1
+    if (offset + 4 >= links.length) {
+      links = Arrays.copyOf(links, links.length * 2);
+    }
+    links[offset] = linkStart;
+    links[offset + 1] = linkEnd;
+    links[offset + 2] = hrefPos;
+    links[offset + 3] = relPos;
+    return links;
+  }
+
+  /**
+   * Adds or removes <code>rel="nofollow"</code> on each link after the head.
+   *
+   * @param targets  receives the target entry name of each internal link or {@code null} when not needed
+   *
+   * @return  the number of links with an href
+   */
+  private static int nofollowLinks(String apidocsUrlWithSlash, File javadocJar, ZipFile zipFile,
+      ZipArchiveEntry zipEntry, List<String> linesWithEof, Map<String, String> robotsTable,
+      Map<String, Map<String, String>> resolvedTargets, UrlPrefixes nofollow, UrlPrefixes follow,
+      Set<String> targets, Consumer<Supplier<String>> debug
   ) throws IOException {
     int headEndIndex = findHeadEndIndex(javadocJar, zipEntry, linesWithEof, "", 0);
     debug.accept(() -> "Filtering links in " + javadocJar + AT + zipEntry);
+    int[] links = new int[4 * 16];
+    int hrefCount = 0;
     for (int lineIndex = headEndIndex + 1; lineIndex < linesWithEof.size(); lineIndex++) {
       String line = linesWithEof.get(lineIndex);
-      // Do not allow capital links
-      int capitalStart = line.indexOf("<A ");
-      if (capitalStart != -1) {
-        throw new ZipException("Unexpected capitalized \"<A \" found: " + javadocJar + AT + zipEntry + AT_LINE
-            + (lineIndex + 1));
-      }
-      // Do not allow single-quoted href
-      int singleQuotedStart = line.indexOf("href='");
-      if (singleQuotedStart != -1) {
-        throw new ZipException("Unexpected single-quoted \"href='\" found: " + javadocJar + AT + zipEntry + AT_LINE
-            + (lineIndex + 1));
-      }
-      // Do not allow single-quoted rel
-      singleQuotedStart = line.indexOf("rel='");
-      if (singleQuotedStart != -1) {
-        throw new ZipException("Unexpected single-quoted \"rel='\" found: " + javadocJar + AT + zipEntry + AT_LINE
-            + (lineIndex + 1));
-      }
-      StringBuilder newLine = new StringBuilder();
+      links = scanLinks(javadocJar, zipEntry, line, lineIndex, links);
+      // Created upon the first change, otherwise the line is unchanged
+      StringBuilder newLine = null;
+      // The position up to which the line has been added to newLine
       int pos = 0;
-      int len = line.length();
-      while (pos < len) {
-        String linkStartValue = "<a ";
-        int linkStart = line.indexOf(linkStartValue, pos);
-        if (linkStart == -1) {
-          newLine.append(line, pos, len);
-          pos = len;
+      for (int offset = 0; links[offset] != -1; offset += 4) {
+        int linkEnd = links[offset + 1];
+        int hrefPos = links[offset + 2];
+        int relPos = links[offset + 3];
+        if (linkEnd == -1) {
+          throw new ZipException("Link end not found: " + javadocJar + AT + zipEntry + AT_LINE
+              + (lineIndex + 1));
+        }
+        if (hrefPos == -1) {
+          // Link without href is seen in Java 11
+          // Nothing to change
+          continue;
+        }
+        hrefCount++;
+        // Find closing quote, but must before linkEnd
+        int hrefClosePos = line.indexOf('"', hrefPos + HREF_ATTR.length());
+        if (hrefClosePos == -1 || hrefClosePos >= linkEnd) {
+          throw new ZipException("href without closing quote: " + javadocJar + AT + zipEntry + AT_LINE
+              + (lineIndex + 1));
+        }
+        String hrefValue = line.substring(hrefPos + HREF_ATTR.length(), hrefClosePos);
+        // Find optional rel=", but must be before linkEnd
+        int relClosePos;
+        String relValue;
+        if (relPos == -1) {
+          // no existing rel
+          relClosePos = -1;
+          relValue = null;
         } else {
-          // This assumes no > inside any quotes
-          int linkEnd = line.indexOf('>', linkStart + linkStartValue.length());
-          if (linkEnd == -1) {
-            throw new ZipException("Link end not found: " + javadocJar + AT + zipEntry + AT_LINE
+          // Find closing quote, but must before linkEnd
+          relClosePos = line.indexOf('"', relPos + REL_ATTR.length());
+          if (relClosePos == -1 || relClosePos >= linkEnd) {
+            throw new ZipException("rel without closing quote: " + javadocJar + AT + zipEntry + AT_LINE
                 + (lineIndex + 1));
           }
-          // Find href=", but must be before linkEnd
-          String hrefStr = " href=\"";
-          int hrefPos = line.indexOf(hrefStr, linkStart);
-          if (hrefPos == -1 || hrefPos >= linkEnd) {
-            // Link without href is seen in Java 11
-            // Nothing to change
-            newLine.append(line, pos, linkEnd + 1);
-          } else {
-            // Find closing quote, but must before linkEnd
-            int hrefClosePos = line.indexOf('"', hrefPos + hrefStr.length());
-            if (hrefClosePos == -1 || hrefClosePos >= linkEnd) {
-              throw new ZipException("href without closing quote: " + javadocJar + AT + zipEntry + AT_LINE
-                  + (lineIndex + 1));
+          relValue = line.substring(relPos + REL_ATTR.length(), relClosePos);
+        }
+        // Find the expected rel value
+        String expectedRel;
+        // Don't filter href starting with "#"
+        if (hrefValue.startsWith("#")) {
+          expectedRel = FOLLOW;
+        } else {
+          boolean hasScheme = SCHEME_PATTERN.matcher(hrefValue).matches();
+          if (!hasScheme) {
+            // No scheme, is relative URL
+            String target = resolveTarget(resolvedTargets, zipEntry.getName(), hrefValue);
+            if (!hrefValue.equals(target)) {
+              debug.accept(() -> "Resolved relative path link target: zipEntry = " + zipEntry
+                  + ", hrefValue = " + hrefValue + ", target = " + target);
             }
-            String hrefValue = line.substring(hrefPos + hrefStr.length(), hrefClosePos);
-            // Find optional rel=", but must be before linkEnd
-            String relStr = " rel=\"";
-            int relPos = line.indexOf(relStr, linkStart);
-            int relClosePos;
-            String relValue;
-            if (relPos == -1 || relPos >= linkEnd) {
-              // no existing rel
-              relClosePos = -1;
-              relValue = null;
-            } else {
-              // Find closing quote, but must before linkEnd
-              relClosePos = line.indexOf('"', relPos + relStr.length());
-              if (relClosePos == -1 || relClosePos >= linkEnd) {
-                throw new ZipException("rel without closing quote: " + javadocJar + AT + zipEntry + AT_LINE
-                    + (lineIndex + 1));
-              }
-              relValue = line.substring(relPos + relStr.length(), relClosePos);
+            if (targets != null) {
+              targets.add(target);
+            }
+            expectedRel = getExpectedRelForTarget(zipFile, zipEntry, robotsTable, hrefValue, target, debug);
+          } else if (StringUtils.startsWithIgnoreCase(hrefValue, apidocsUrlWithSlash)) {
+            String target = hrefValue.substring(apidocsUrlWithSlash.length());
+            if (target.isEmpty()) {
+              target = INDEX_HTML;
+            }
+            final String targetFinal = target;
+            debug.accept(() -> "Stripped target from absolute URL: zipEntry = " + zipEntry
+                + ", hrefValue = " + hrefValue + ", target = " + targetFinal);
+            if (targets != null) {
+              targets.add(target);
             }
-            // Find the expected rel value
-            String expectedRel;
-            // Don't filter href starting with "#"
-            if (hrefValue.startsWith("#")) {
+            expectedRel = getExpectedRelForTarget(zipFile, zipEntry, robotsTable, hrefValue, target, debug);
+          } else {
+            // Nofollow are matched before follow
+            if (nofollow.matches(hrefValue)) {
+              expectedRel = NOFOLLOW;
+            } else if (follow.matches(hrefValue)) {
               expectedRel = FOLLOW;
             } else {
-              boolean hasScheme = SCHEME_PATTERN.matcher(hrefValue).matches();
-              if (!hasScheme) {
-                // No scheme, is relative URL
-                // Resolve any ../ using URI
-                URI uri = URI.create("/" + zipEntry.getName());
-                URI targetUri = uri.resolve(hrefValue);
-                String targetPath = targetUri.getPath();
-                if (!targetPath.startsWith("/")) {
-                  throw new AssertionError("target does not begin with slash (/): " + targetPath);
-                }
-                String target = targetPath.substring(1);
-                if (!hrefValue.equals(target)) {
-                  debug.accept(() -> "Resolved relative path link target: zipEntry = " + zipEntry
-                      + ", hrefValue = " + hrefValue + ", target = " + target);
-                }
-                expectedRel = getExpectedRelForTarget(javadocJar, zipFile, zipEntry, robotsHeaderCache, nofollow,
-                    hrefValue, target, debug);
-              } else if (StringUtils.startsWithIgnoreCase(hrefValue, apidocsUrlWithSlash)) {
-                String target = hrefValue.substring(apidocsUrlWithSlash.length());
-                if (target.isEmpty()) {
-                  target = INDEX_HTML;
-                }
-                final String targetFinal = target;
-                debug.accept(() -> "Stripped target from absolute URL: zipEntry = " + zipEntry
-                    + ", hrefValue = " + hrefValue + ", target = " + targetFinal);
-                expectedRel = getExpectedRelForTarget(javadocJar, zipFile, zipEntry, robotsHeaderCache, nofollow,
-                    hrefValue, target, debug);
-              } else {
-                expectedRel = null;
-                for (String nofollowPrefix : nofollow) {
-                  if (ANY_URL.equals(nofollowPrefix) || StringUtils.startsWithIgnoreCase(hrefValue, nofollowPrefix)) {
-                    expectedRel = NOFOLLOW;
-                    break;
-                  }
-                }
-                if (expectedRel == null) {
-                  for (String followPrefix : follow) {
-                    if (ANY_URL.equals(followPrefix) || StringUtils.startsWithIgnoreCase(hrefValue, followPrefix)) {
-                      expectedRel = FOLLOW;
-                      break;
-                    }
-                  }
-                  if (expectedRel == null) {
-                    throw new ZipException("URL not matched in any nofollow or follow prefix: " + javadocJar + AT
-                        + zipEntry + AT_LINE + (lineIndex + 1) + " href = " + hrefValue);
-                  }
-                }
-              }
+              throw new ZipException("URL not matched in any nofollow or follow prefix: " + javadocJar + AT
+                  + zipEntry + AT_LINE + (lineIndex + 1) + " href = " + hrefValue);
             }
-            assert expectedRel != null;
-            String expectedRelFinal = expectedRel;
-            debug.accept(() -> "hrefValue = " + hrefValue + ", relValue = " + (relValue == null ? "[NULL]" : relValue)
-                + ", linkEnd = " + linkEnd + ", expectedRel = " + expectedRelFinal);
-            // Update / replace rel as-needed
-            if (expectedRel.equals(FOLLOW)) {
-              if (FOLLOW.equals(relValue) || NOFOLLOW.equals(relValue)) {
-                // Remove rel
-                newLine.append(line, pos, relPos).append(line, relClosePos + 1, linkEnd + 1);
-              } else {
-                // Nothing to change
-                newLine.append(line, pos, linkEnd + 1);
-              }
-            } else if (!expectedRel.equals(relValue)) {
-              if (relValue == null) {
-                // Insert before href
-                newLine.append(line, pos, hrefPos).append(relStr).append(expectedRel).append('"')
-                    .append(line, hrefPos, linkEnd + 1);
+          }
+        }
+        assert expectedRel != null;
+        String expectedRelFinal = expectedRel;
+        debug.accept(() -> "hrefValue = " + hrefValue + ", relValue = " + (relValue == null ? "[NULL]" : relValue)
+            + ", linkEnd = " + linkEnd + ", expectedRel = " + expectedRelFinal);
+        // Update / replace rel as-needed
+        if (expectedRel.equals(FOLLOW)) {
+          if (FOLLOW.equals(relValue) || NOFOLLOW.equals(relValue)) {
+            // Remove rel
+            if (newLine == null) {
+              newLine = new StringBuilder(line.length());
+            }
+            newLine.append(line, pos, relPos);
+            pos = relClosePos + 1;
+          }
+        } else if (!expectedRel.equals(relValue)) {
+          if (newLine == null) {
+            newLine = new StringBuilder(line.length() + REL_ATTR.length() + NOFOLLOW.length() + 1);
+          }
+          if (relValue == null) {
+            // Insert before href
+            newLine.append(line, pos, hrefPos).append(REL_ATTR).append(expectedRel).append('"');
+            pos = hrefPos;
+          } else {
+            // Update
+            newLine.append(line, pos, relPos + REL_ATTR.length()).append(expectedRel);
+            pos = relClosePos;
+          }
+        }
+      }
+      if (newLine != null) {
+        linesWithEof.set(lineIndex, newLine.append(line, pos, line.length()).toString());
+      }
+    }
+    return hrefCount;
+  }
+
+  /**
+   * Gets the apidocs URL, adding a trailing slash when needed.
+   */
+  static String getApidocsUrlWithSlash(String apidocsUrl) {
+    Objects.requireNonNull(apidocsUrl, "apidocsUrl required");
+    if (!apidocsUrl.endsWith("/")) {
+      return apidocsUrl + "/";
+    } else {
+      return apidocsUrl;
+    }
+  }
+
+  /**
+   * Gets the settings that affect filtering, other than the content of each page, so that a page filtered by a previous
+   * build is only reused with the same settings.
+   */
+  static String getSettings(String apidocsUrl, Iterable<String> nofollow, Iterable<String> follow) {
+    return "version=" + SeoJavadocFilter.class.getPackage().getImplementationVersion()
+        + ", apidocsUrl=" + getApidocsUrlWithSlash(apidocsUrl)
+        + ", nofollow=" + UrlPrefixes.of(nofollow)
+        + ", follow=" + UrlPrefixes.of(follow)
+        + ", NL=" + StringEscapeUtils.escapeJava(NL);
+  }
+
+  /**
+   * The {@link JavadocPipeline} stage that performs the transformations described in
+   * {@linkplain SeoJavadocFilter this class header}.
+   *
+   * <p>When given the last build, each page that is unchanged since the last build, with the same robots header values
+   * for itself and its link targets, is copied from the last build instead of being filtered.</p>
+   */
+  static final class FilterStage extends JavadocPipeline.Stage {
+
+    private final String apidocsUrlWithSlash;
+    private final UrlPrefixes nofollow;
+    private final UrlPrefixes follow;
+    private final Map<String, Map<String, String>> resolvedTargets = new ConcurrentHashMap<>();
+    private final String settings;
+
+    /**
+     * The filtered JAR file of the last build, or {@code null} to filter every page.
+     */
+    private final ZipFile lastBuildZipFile;
+
+    /**
+     * The manifest of the last build, with the same settings, or {@code null} to filter every page.
+     */
+    private final SeoJavadocFilterManifest.Artifact lastBuild;
+
+    /**
+     * The sorted link targets of each page between being filtered and being recorded, or {@code null} when not
+     * recording a manifest.
+     */
+    private final Map<String, String[]> pageTargets;
+
+    /**
+     * The recorded pages, or {@code null} when not recording a manifest.
+     */
+    private final Map<String, SeoJavadocFilterManifest.Page> pages;
+
+    private ZipFile zipFile;
+    private Map<String, String> robotsTable;
+
+    /**
+     * @param lastBuildZipFile  The filtered JAR file of the last build, required when {@code lastBuild} is provided
+     * @param lastBuild         The manifest of the last build, which must have the same settings, or {@code null} to
+     *                          filter every page
+     * @param recordManifest    Records the pages for {@link #getManifest()}
+     */
+    FilterStage(File javadocJar, String apidocsUrl, Iterable<String> nofollow, Iterable<String> follow,
+        ZipFile lastBuildZipFile, SeoJavadocFilterManifest.Artifact lastBuild, boolean recordManifest,
+        Consumer<Supplier<String>> debug) {
+      super(javadocJar, debug);
+      this.apidocsUrlWithSlash = getApidocsUrlWithSlash(apidocsUrl);
+      this.nofollow = UrlPrefixes.of(Objects.requireNonNull(nofollow, "nofollow required"));
+      this.follow = UrlPrefixes.of(Objects.requireNonNull(follow, "follow required"));
+      this.settings = getSettings(apidocsUrl, this.nofollow, this.follow);
+      if (lastBuild != null) {
+        Objects.requireNonNull(lastBuildZipFile, "lastBuildZipFile required");
+        if (!settings.equals(lastBuild.getSettings())) {
+          throw new IllegalArgumentException("Last build has different settings: " + lastBuild.getSettings());
+        }
+      }
+      this.lastBuildZipFile = lastBuildZipFile;
+      this.lastBuild = lastBuild;
+      if (recordManifest) {
+        pageTargets = new ConcurrentHashMap<>();
+        pages = new ConcurrentHashMap<>();
+      } else {
+        pageTargets = null;
+        pages = null;
+      }
+    }
+
+    FilterStage(File javadocJar, String apidocsUrl, Iterable<String> nofollow, Iterable<String> follow,
+        Consumer<Supplier<String>> debug) {
+      this(javadocJar, apidocsUrl, nofollow, follow, null, null, false, debug);
+    }
+
+    @Override
+    void start(ZipFile zipFile) throws IOException {
+      this.zipFile = zipFile;
+      this.robotsTable = getRobotsTable(javadocJar, zipFile, nofollow);
+    }
+
+    @Override
+    void filterPage(ZipArchiveEntry zipEntry, List<String> linesWithEof) throws IOException {
+      JfrEvents.PageFilter event = new JfrEvents.PageFilter();
+      event.begin();
+      String zipEntryName = zipEntry.getName();
+      // Determine the canonical URL
+      insertOrUpdateHead(javadocJar, zipEntry, linesWithEof, CANONICAL_PREFIX,
+          currentValue -> {
+            String expectedNonIndex = StringEscapeUtils.escapeHtml4(apidocsUrlWithSlash + zipEntryName);
+            if (currentValue == null || currentValue.equals(expectedNonIndex)) {
+              return expectedNonIndex;
+            } else if (zipEntryName.equals(INDEX_HTML)
+                || zipEntryName.equals(OVERVIEW_SUMMARY_HTML)) {
+              if (currentValue.startsWith(apidocsUrlWithSlash)) {
+                return currentValue;
               } else {
-                // Update
-                newLine.append(line, pos, relPos + relStr.length()).append(expectedRel).append(line, relClosePos, linkEnd + 1);
+                return apidocsUrlWithSlash + currentValue;
               }
             } else {
-              // Nothing to change
-              newLine.append(line, pos, linkEnd + 1);
+              throw new UncheckedIOException(new ZipException(
+                  "Unexpected ZIP entry with non-default canonical URL: \"" + currentValue + '"' + AT
+                      + javadocJar + AT + zipEntryName));
             }
-          }
-          pos = linkEnd + 1;
+          }, CANONICAL_SUFFIX, "Canonical URL: ", debug);
+      // Determine the robots header value
+      String robotsHeaderValue = robotsTable.get(zipEntryName);
+      String robotsHeader = NO_ROBOTS_HEADER.equals(robotsHeaderValue) ? null : robotsHeaderValue;
+      insertOrUpdateHead(javadocJar, zipEntry, linesWithEof, ROBOTS_PREFIX,
+          currentValue -> StringEscapeUtils.escapeHtml4(robotsHeader), ROBOTS_SUFFIX, "Robots: ", debug);
+      Set<String> targets = pageTargets == null ? null : new TreeSet<>();
+      int links = nofollowLinks(apidocsUrlWithSlash, javadocJar, zipFile, zipEntry, linesWithEof, robotsTable,
+          resolvedTargets, nofollow, follow, targets, debug);
+      if (targets != null) {
+        pageTargets.put(zipEntryName, targets.toArray(new String[targets.size()]));
+      }
+      if (event.shouldCommit()) {
+        event.javadocJar = javadocJar.getPath();
+        event.entry = zipEntryName;
+        event.lines = linesWithEof.size();
+        event.links = links;
+        event.commit();
+      }
+    }
+
+    @Override
+    JavadocPipeline.FilteredPage reusePage(ZipArchiveEntry zipEntry) throws IOException {
+      if (lastBuild == null) {
+        return null;
+      }
+      String zipEntryName = zipEntry.getName();
+      SeoJavadocFilterManifest.Page page = lastBuild.getPage(zipEntryName);
+      if (page == null || !page.matches(zipEntry)) {
+        return null;
+      }
+      // The robots header values that determine the robots header and the rel of each internal link
+      if (!Objects.equals(robotsTable.get(zipEntryName), lastBuild.getRobotsHeader(zipEntryName))) {
+        debug.accept(() -> zipEntryName + ": Robots header changed since last build");
+        return null;
+      }
+      for (String target : page.getTargets()) {
+        if (!Objects.equals(robotsTable.get(target), lastBuild.getRobotsHeader(target))) {
+          debug.accept(() -> zipEntryName + ": Robots header of link target changed since last build: " + target);
+          return null;
         }
       }
-      linesWithEof.set(lineIndex, newLine.toString());
+      JavadocPipeline.FilteredPage filteredPage;
+      if (!page.isModified()) {
+        filteredPage = new JavadocPipeline.FilteredPage(null, null);
+      } else {
+        // Copy the compressed content, which was compressed with the same settings
+        ZipArchiveEntry lastBuildEntry = lastBuildZipFile.getEntry(zipEntryName);
+        if (
+            lastBuildEntry == null
+            || lastBuildEntry.getMethod() != zipEntry.getMethod()
+            || !page.filteredMatches(lastBuildEntry)
+        ) {
+          debug.accept(() -> zipEntryName + ": Last build entry does not match manifest");
+          return null;
+        }
+        byte[] rawContent;
+        try (InputStream rawIn = lastBuildZipFile.getRawInputStream(lastBuildEntry)) {
+          rawContent = IOUtils.toByteArray(rawIn);
+        }
+        // Store as copy to get as much as possible from the current entry
+        ZipArchiveEntry newEntry = new ZipArchiveEntry(zipEntry);
+        newEntry.setSize(lastBuildEntry.getSize());
+        newEntry.setCompressedSize(rawContent.length);
+        newEntry.setCrc(lastBuildEntry.getCrc());
+        filteredPage = new JavadocPipeline.FilteredPage(newEntry, rawContent);
+      }
+      if (pageTargets != null) {
+        pageTargets.put(zipEntryName, page.getTargets());
+      }
+      return filteredPage;
+    }
+
+    @Override
+    void pageFiltered(ZipArchiveEntry zipEntry, ZipArchiveEntry newEntry) {
+      if (pages != null) {
+        String zipEntryName = zipEntry.getName();
+        String[] targets = pageTargets.remove(zipEntryName);
+        assert targets != null;
+        long size = zipEntry.getSize();
+        long crc = zipEntry.getCrc();
+        pages.put(zipEntryName, newEntry == null
+            ? new SeoJavadocFilterManifest.Page(size, crc, false, size, crc, targets)
+            : new SeoJavadocFilterManifest.Page(size, crc, true, newEntry.getSize(), newEntry.getCrc(), targets));
+      }
+    }
+
+    /**
+     * Gets the manifest of this JAR file once all pages are filtered.
+     */
+    SeoJavadocFilterManifest.Artifact getManifest() {
+      if (pages == null) {
+        throw new IllegalStateException("Not recording manifest");
+      }
+      return new SeoJavadocFilterManifest.Artifact(settings, robotsTable, pages);
     }
   }
 
   /**
-   * Implementation of {@link #filterJavadocJar(java.io.File)}
+   * Implementation of {@link #filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
    * with provided logging.
+   *
+   * @param manifest     The manifest of the last build, or {@code null} to filter every page
+   * @param newManifest  Receives the pages of this JAR file, identified by file name, or {@code null} for none.
+   *                     May be the same as {@code manifest}.
    */
   static void filterJavadocJar(
       File javadocJar,
       String apidocsUrl,
       Iterable<String> nofollow,
       Iterable<String> follow,
+      int threads,
+      File lastBuildJavadocJar,
+      SeoJavadocFilterManifest manifest,
+      SeoJavadocFilterManifest newManifest,
+      MetricsListener metrics,
       Consumer<Supplier<String>> debug,
       Consumer<Supplier<String>> info,
       Consumer<Supplier<String>> warn
@@ -580,110 +1033,39 @@ public final class SeoJavadocFilter {
     if (!javadocJar.isFile()) {
       throw new IOException("javadocJar is not a regular file: " + javadocJar);
     }
-    Objects.requireNonNull(apidocsUrl, "apidocsUrl required");
-    String apidocsUrlWithSlash;
-    if (!apidocsUrl.endsWith("/")) {
-      apidocsUrlWithSlash = apidocsUrl + "/";
-    } else {
-      apidocsUrlWithSlash = apidocsUrl;
-    }
-    Objects.requireNonNull(nofollow, "nofollow required");
-    Objects.requireNonNull(follow, "follow required");
-    File tmpFile = File.createTempFile(javadocJar.getName() + "-", ".jar", javadocJar.getParentFile());
-    Closeable deleteTmpFile = () -> {
-      if (tmpFile.exists()) {
-        FileUtils.delete(tmpFile);
-      }
-    };
-    try (deleteTmpFile) {
-      int totalEntries = 0;
-      int totalHtmlEntries = 0;
-      debug.accept(() -> "Writing temp file " + tmpFile);
-      try (ZipArchiveOutputStream tmpZipOut = new ZipArchiveOutputStream(tmpFile)) {
-        debug.accept(() -> "Reading " + javadocJar);
-        try (ZipFile zipFile = new ZipFile(javadocJar)) {
-          Map<String, String> robotsHeaderCache = new HashMap<>();
-          Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
-          while (zipEntries.hasMoreElements()) {
-            totalEntries++;
-            ZipArchiveEntry zipEntry = zipEntries.nextElement();
-            debug.accept(() -> "zipEntry: " + zipEntry);
-            String zipEntryName = zipEntry.getName();
-            // Require times on all entries
-            long zipEntryTime = zipEntry.getTime();
-            if (zipEntryTime == -1) {
-              throw new ZipException("No time in entry: " + javadocJar + AT + zipEntryName);
-            }
-            // Anything not ending in *.html (which will include directories), just copy verbatim
-            if (!StringUtils.endsWithIgnoreCase(zipEntryName, FILTER_EXTENSION)) {
-              // Raw copy
-              try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
-                tmpZipOut.addRawArchiveEntry(zipEntry, rawStream);
-              }
-            } else {
-              totalHtmlEntries++;
-              List<String> linesWithEof = readLinesWithEof(javadocJar, zipFile, zipEntry);
-              String originalHtml = StringUtils.join(linesWithEof, "");
-              debug.accept(() -> zipEntryName + ": Read " + linesWithEof.size() + " lines, " + originalHtml.length()
-                  + " characters");
-              // Determine the canonical URL
-              insertOrUpdateHead(javadocJar, zipEntry, linesWithEof, CANONICAL_PREFIX,
-                  currentValue -> {
-                    String expectedNonIndex = StringEscapeUtils.escapeHtml4(apidocsUrlWithSlash + zipEntryName);
-                    if (currentValue == null || currentValue.equals(expectedNonIndex)) {
-                      return expectedNonIndex;
-                    } else if (zipEntryName.equals(INDEX_HTML)
-                        || zipEntryName.equals(OVERVIEW_SUMMARY_HTML)) {
-                      if (currentValue.startsWith(apidocsUrlWithSlash)) {
-                        return currentValue;
-                      } else {
-                        return apidocsUrlWithSlash + currentValue;
-                      }
-                    } else {
-                      throw new UncheckedIOException(new ZipException(
-                          "Unexpected ZIP entry with non-default canonical URL: \"" + currentValue + '"' + AT
-                              + javadocJar + AT + zipEntryName));
-                    }
-                  }, CANONICAL_SUFFIX, "Canonical URL: ", debug);
-              // Determine the robots header value
-              String robotsHeader = getRobotsHeader(javadocJar, zipEntry, () -> linesWithEof, robotsHeaderCache, nofollow);
-              insertOrUpdateHead(javadocJar, zipEntry, linesWithEof, ROBOTS_PREFIX,
-                  currentValue -> StringEscapeUtils.escapeHtml4(robotsHeader), ROBOTS_SUFFIX, "Robots: ", debug);
-              nofollowLinks(apidocsUrlWithSlash, javadocJar, zipFile, zipEntry, linesWithEof, robotsHeaderCache,
-                  nofollow, follow, debug);
-              // Recombine
-              String newHtml = StringUtils.join(linesWithEof, "");
-              // Only when modified
-              if (!newHtml.equals(originalHtml)) {
-                // Store as copy to get as much as possible from old entry
-                ZipArchiveEntry newEntry = new ZipArchiveEntry(zipEntry);
-                tmpZipOut.putArchiveEntry(newEntry);
-                tmpZipOut.write(newHtml.getBytes(ENCODING));
-                tmpZipOut.closeArchiveEntry();
-              } else {
-                // Raw copy
-                try (InputStream rawStream = zipFile.getRawInputStream(zipEntry)) {
-                  tmpZipOut.addRawArchiveEntry(zipEntry, rawStream);
-                }
-              }
-            }
-          }
+    // Find the last build, when it may be reused
+    String identifier = javadocJar.getName();
+    SeoJavadocFilterManifest.Artifact lastBuild = null;
+    if (lastBuildJavadocJar != null && manifest != null) {
+      if (!lastBuildJavadocJar.isFile()) {
+        info.accept(() -> "Filtering all pages, not found in last build: " + lastBuildJavadocJar);
+      } else {
+        lastBuild = manifest.getArtifact(identifier);
+        if (lastBuild == null) {
+          info.accept(() -> "Filtering all pages, not found in manifest: " + identifier);
+        } else if (!lastBuild.getSettings().equals(getSettings(apidocsUrl, nofollow, follow))) {
+          info.accept(() -> "Filtering all pages, settings changed since last build: " + identifier);
+          lastBuild = null;
+        } else {
+          debug.accept(() -> "Reusing unchanged pages from last build: " + lastBuildJavadocJar);
         }
       }
-      final int totalHtmlEntriesFinal = totalHtmlEntries;
-      if (totalHtmlEntriesFinal == 0) {
-        final int totalEntriesFinal = totalEntries;
-        warn.accept(() -> "SEO Javadoc filtering: No files found matching *" + FILTER_EXTENSION + " in "
-            + totalEntriesFinal + " total " + (totalEntriesFinal == 1 ? "entry" : "entries"));
-      }
-      // Ovewrite if anything changed, delete otherwise
-      if (!FileUtils.contentEquals(javadocJar, tmpFile)) {
-        if (!tmpFile.renameTo(javadocJar)) {
-          throw new IOException("Rename failed: " + tmpFile + " to " + javadocJar);
-        }
-      } else {
-        info.accept(() -> "SEO Javadoc filtering: No changes made"
-            + (totalHtmlEntriesFinal == 0 ? "" : " (javadocs already processed?)"));
+    }
+    try (ZipFile lastBuildZipFile = lastBuild == null ? null : new ZipFile(lastBuildJavadocJar)) {
+      FilterStage stage = new FilterStage(javadocJar, apidocsUrl, nofollow, follow, lastBuildZipFile, lastBuild,
+          newManifest != null, debug);
+      JavadocPipeline.process(
+          javadocJar,
+          "SEO Javadoc filtering",
+          Collections.singletonList(stage),
+          threads,
+          metrics,
+          debug,
+          info,
+          warn
+      );
+      if (newManifest != null) {
+        newManifest.putArtifact(identifier, stage.getManifest());
       }
     }
   }
@@ -691,17 +1073,28 @@ public final class SeoJavadocFilter {
   /**
    * Filters a single JAR file with the transformations described in {@linkplain SeoJavadocFilter this class header}.
    *
-   * @param javadocJar See {@link SeoJavadocFilterTask#setBuildDirectory(java.lang.String)}
-   * @param apidocsUrl See {@link SeoJavadocFilterTask#setProjectUrl(java.lang.String)}
-   *                   and {@link SeoJavadocFilterTask#setSubprojectSubpath(java.lang.String)}
-   * @param nofollow   See {@link SeoJavadocFilterTask#setNofollow(java.lang.String)}
-   * @param follow     See {@link SeoJavadocFilterTask#setFollow(java.lang.String)}
+   * @param javadocJar          See {@link SeoJavadocFilterTask#setBuildDirectory(java.lang.String)}
+   * @param apidocsUrl          See {@link SeoJavadocFilterTask#setProjectUrl(java.lang.String)}
+   *                            and {@link SeoJavadocFilterTask#setSubprojectSubpath(java.lang.String)}
+   * @param nofollow            See {@link SeoJavadocFilterTask#setNofollow(java.lang.String)}
+   * @param follow              See {@link SeoJavadocFilterTask#setFollow(java.lang.String)}
+   * @param threads             See {@link SeoJavadocFilterTask#setThreads(int)}
+   * @param lastBuildJavadocJar The filtered JAR file of the last build or {@code null} to filter every page.
+   *                            See {@link SeoJavadocFilterTask#setLastBuildDirectory(java.lang.String)}.
+   * @param manifestFile        The manifest file, shared by JAR files of different names, or {@code null} for none.
+   *                            See {@link SeoJavadocFilterTask#setManifestFile(java.lang.String)}.
+   * @param metrics             Receives the metrics of the JAR file or {@code null} for none.
+   *                            See {@link SeoJavadocFilterTask#setMetricsFile(java.lang.String)}.
    */
   public static void filterJavadocJar(
       File javadocJar,
       String apidocsUrl,
       Iterable<String> nofollow,
-      Iterable<String> follow
+      Iterable<String> follow,
+      int threads,
+      File lastBuildJavadocJar,
+      File manifestFile,
+      MetricsListener metrics
   ) throws IOException {
     if (nofollow == null) {
       nofollow = Collections.emptyList();
@@ -709,14 +1102,42 @@ public final class SeoJavadocFilter {
     if (follow == null) {
       follow = Collections.emptyList();
     }
+    if (metrics == null) {
+      metrics = MetricsListener.NONE;
+    }
+    SeoJavadocFilterManifest manifest = manifestFile == null ? null
+        : SeoJavadocFilterManifest.read(manifestFile, logger::warning);
     filterJavadocJar(
         javadocJar,
         apidocsUrl,
         nofollow,
         follow,
+        threads,
+        lastBuildJavadocJar,
+        manifest,
+        manifest,
+        metrics,
         logger::fine,
         logger::info,
         logger::warning
     );
+    if (manifest != null) {
+      manifest.write(manifestFile);
+    }
+  }
+
+  /**
+   * Filters a single JAR file sequentially with the transformations described in
+   * {@linkplain SeoJavadocFilter this class header}.
+   *
+   * @see #filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)
+   */
+  public static void filterJavadocJar(
+      File javadocJar,
+      String apidocsUrl,
+      Iterable<String> nofollow,
+      Iterable<String> follow
+  ) throws IOException {
+    filterJavadocJar(javadocJar, apidocsUrl, nofollow, follow, 1, null, null, null);
   }
 }
@@ -0,0 +1,299 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+
+/**
+ * Manifest of the pages of each Javadoc JAR as filtered by {@link SeoJavadocFilter}, stored in a sidecar file between
+ * builds.
+ *
+ * <p>The unfiltered size and CRC, the filtered size and CRC, and the link targets are recorded for each page, along
+ * with the settings and robots header values of each JAR file.  A page of the next build with the same unfiltered size
+ * and CRC, whose own and link targets' robots header values are unchanged, is known to filter to the same content as
+ * recorded.  Its already filtered entry may then be copied from the last build's JAR file without being filtered
+ * again.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class SeoJavadocFilterManifest {
+
+  private static final int MAGIC = 0x534a464d; // "SJFM"
+
+  private static final int VERSION = 1;
+
+  private static final String[] NO_TARGETS = {};
+
+  /**
+   * The recorded state of a single page.
+   */
+  static final class Page {
+
+    private final long size;
+    private final long crc;
+    private final boolean modified;
+    private final long filteredSize;
+    private final long filteredCrc;
+    private final String[] targets;
+
+    /**
+     * @param targets  the link targets, which must be sorted
+     */
+    Page(long size, long crc, boolean modified, long filteredSize, long filteredCrc, String[] targets) {
+      this.size = size;
+      this.crc = crc;
+      this.modified = modified;
+      this.filteredSize = filteredSize;
+      this.filteredCrc = filteredCrc;
+      this.targets = targets.length == 0 ? NO_TARGETS : targets;
+    }
+
+    /**
+     * Checks if this is the recorded state of the given unfiltered entry, by size and CRC.
+     */
+    boolean matches(ZipArchiveEntry entry) {
+      return size == entry.getSize() && crc == entry.getCrc();
+    }
+
+    /**
+     * Checks if the page was modified by filtering.  When not modified, the unfiltered entry is used as-is.
+     */
+    boolean isModified() {
+      return modified;
+    }
+
+    /**
+     * Checks if the given entry has the recorded filtered content, by size and CRC.
+     */
+    boolean filteredMatches(ZipArchiveEntry entry) {
+      return filteredSize == entry.getSize() && filteredCrc == entry.getCrc();
+    }
+
+    /**
+     * Gets the sorted link targets of the page.  The returned array must not be modified.
+     */
+    String[] getTargets() {
+      return targets;
+    }
+  }
+
+  /**
+   * The recorded state of a single Javadoc JAR file.
+   */
+  static final class Artifact {
+
+    private final String settings;
+    private final Map<String, String> robotsTable;
+    private final Map<String, Page> pages;
+
+    /**
+     * @param settings     the settings that affect filtering, other than content
+     * @param robotsTable  the robots header value by entry name
+     * @param pages        the recorded pages by entry name
+     */
+    Artifact(String settings, Map<String, String> robotsTable, Map<String, Page> pages) {
+      this.settings = settings;
+      this.robotsTable = robotsTable;
+      this.pages = pages;
+    }
+
+    /**
+     * Gets the settings that affect filtering, which must be the same to use any recorded page.
+     */
+    String getSettings() {
+      return settings;
+    }
+
+    /**
+     * Gets the robots header value of the given entry.
+     *
+     * @return  the header value or {@code null} when not a file entry
+     */
+    String getRobotsHeader(String name) {
+      return robotsTable.get(name);
+    }
+
+    /**
+     * Gets the recorded page.
+     *
+     * @return  the page or {@code null} when not recorded
+     */
+    Page getPage(String name) {
+      return pages.get(name);
+    }
+  }
+
+  /**
+   * Artifacts by identifier.
+   */
+  private final SortedMap<String, Artifact> artifacts = new TreeMap<>();
+
+  SeoJavadocFilterManifest() {
+    // Empty manifest
+  }
+
+  private static String[] readStrings(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count == 0) {
+      return NO_TARGETS;
+    }
+    String[] strings = new String[count];
+    for (int i = 0; i < count; i++) {
+      strings[i] = in.readUTF();
+    }
+    return strings;
+  }
+
+  /**
+   * Reads a manifest file.  A manifest file that does not exist, is of an unknown version, or is corrupt results in an
+   * empty manifest, with a warning for the latter two.
+   */
+  static SeoJavadocFilterManifest read(File manifestFile, Consumer<Supplier<String>> warn) throws IOException {
+    SeoJavadocFilterManifest manifest = new SeoJavadocFilterManifest();
+    if (manifestFile.exists()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+          Files.newInputStream(manifestFile.toPath())))) {
+        if (in.readInt() != MAGIC) {
+          warn.accept(() -> "Ignoring manifestFile with unexpected header: " + manifestFile);
+          return new SeoJavadocFilterManifest();
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+          warn.accept(() -> "Ignoring manifestFile with unsupported version " + version + ": " + manifestFile);
+          return new SeoJavadocFilterManifest();
+        }
+        int artifactCount = in.readInt();
+        for (int i = 0; i < artifactCount; i++) {
+          String identifier = in.readUTF();
+          String settings = in.readUTF();
+          int robotsCount = in.readInt();
+          Map<String, String> robotsTable = new HashMap<>(robotsCount * 4 / 3 + 1);
+          for (int j = 0; j < robotsCount; j++) {
+            String name = in.readUTF();
+            robotsTable.put(name, in.readUTF());
+          }
+          int pageCount = in.readInt();
+          Map<String, Page> pages = new HashMap<>(pageCount * 4 / 3 + 1);
+          for (int j = 0; j < pageCount; j++) {
+            String name = in.readUTF();
+            long size = in.readLong();
+            long crc = in.readLong();
+            boolean modified = in.readBoolean();
+            long filteredSize;
+            long filteredCrc;
+            if (modified) {
+              filteredSize = in.readLong();
+              filteredCrc = in.readLong();
+            } else {
+              filteredSize = size;
+              filteredCrc = crc;
+            }
+            pages.put(name, new Page(size, crc, modified, filteredSize, filteredCrc, readStrings(in)));
+          }
+          manifest.artifacts.put(identifier, new Artifact(settings, robotsTable, pages));
+        }
+        if (in.read() != -1) {
+          throw new IOException("Unexpected data after last artifact");
+        }
+      } catch (IOException | RuntimeException e) {
+        warn.accept(() -> "Ignoring corrupt manifestFile: " + manifestFile + ": " + e);
+        return new SeoJavadocFilterManifest();
+      }
+    }
+    return manifest;
+  }
+
+  /**
+   * Gets the recorded state of the given artifact.
+   *
+   * @return  the artifact or {@code null} when not recorded
+   */
+  synchronized Artifact getArtifact(String identifier) {
+    return artifacts.get(identifier);
+  }
+
+  /**
+   * Sets the recorded state of the given artifact.
+   */
+  synchronized void putArtifact(String identifier, Artifact artifact) {
+    artifacts.put(identifier, artifact);
+  }
+
+  /**
+   * Writes this manifest to the given file, replacing any existing file only after the new manifest is fully written.
+   */
+  synchronized void write(File manifestFile) throws IOException {
+    AtomicFiles.write(manifestFile, out -> write(new DataOutputStream(out)));
+  }
+
+  /**
+   * Writes the content of this manifest.
+   */
+  private void write(DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(artifacts.size());
+    for (Map.Entry<String, Artifact> mapEntry : artifacts.entrySet()) {
+      Artifact artifact = mapEntry.getValue();
+      out.writeUTF(mapEntry.getKey());
+      out.writeUTF(artifact.settings);
+      // Sorted for a consistent file between runs
+      SortedMap<String, String> robotsTable = new TreeMap<>(artifact.robotsTable);
+      out.writeInt(robotsTable.size());
+      for (Map.Entry<String, String> robotsEntry : robotsTable.entrySet()) {
+        out.writeUTF(robotsEntry.getKey());
+        out.writeUTF(robotsEntry.getValue());
+      }
+      SortedMap<String, Page> pages = new TreeMap<>(artifact.pages);
+      out.writeInt(pages.size());
+      for (Map.Entry<String, Page> pageEntry : pages.entrySet()) {
+        Page page = pageEntry.getValue();
+        out.writeUTF(pageEntry.getKey());
+        out.writeLong(page.size);
+        out.writeLong(page.crc);
+        out.writeBoolean(page.modified);
+        if (page.modified) {
+          out.writeLong(page.filteredSize);
+          out.writeLong(page.filteredCrc);
+        }
+        out.writeInt(page.targets.length);
+        for (String target : page.targets) {
+          out.writeUTF(target);
+        }
+      }
+    }
+  }
+}
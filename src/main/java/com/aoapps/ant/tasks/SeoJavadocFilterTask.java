@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -47,7 +47,7 @@ Test with:
 ) 2>&1 | less -SR
 */
 /**
- * Ant task that invokes {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable)}.
+ * Ant task that invokes {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}.
  *
  * <p>Note: This task should be performed before {@link ZipTimestampMergeTask} in order to have correct content to be able
  * to maintain timestamps.</p>
@@ -86,7 +86,7 @@ public class SeoJavadocFilterTask extends Task {
   /**
    * Default nofollow for {@link #DEFAULT}.
    */
-  private static final List<String> defaultNofollow;
+  static final List<String> defaultNofollow;
 
   static {
     int size = javaseUrlPrefixes.size() + javaeeUrlPrefixes.size();
@@ -96,6 +96,47 @@ public class SeoJavadocFilterTask extends Task {
     assert javaseUrlPrefixes.size() == size;
   }
 
+  /**
+   * The default follow.
+   */
+  static final List<String> defaultFollow = Collections.singletonList(SeoJavadocFilter.ANY_URL);
+
+  /**
+   * Parses the value of {@link #setNofollow(java.lang.String)}, compiling the prefixes for matching.
+   */
+  static UrlPrefixes parseNofollow(String nofollow) {
+    Set<String> nofollowPrefixes = new LinkedHashSet<>();
+    for (String value : nofollow.split("[\\s,]+")) {
+      if (DEFAULT.equalsIgnoreCase(value)) {
+        nofollowPrefixes.addAll(defaultNofollow);
+      } else if (JAVASE.equalsIgnoreCase(value)) {
+        nofollowPrefixes.addAll(javaseUrlPrefixes);
+      } else if (JAVAEE.equalsIgnoreCase(value) || JAKARTAEE.equalsIgnoreCase(value)) {
+        nofollowPrefixes.addAll(javaeeUrlPrefixes);
+      } else {
+        nofollowPrefixes.add(value);
+      }
+    }
+    return UrlPrefixes.of(nofollowPrefixes);
+  }
+
+  /**
+   * Parses the value of {@link #setFollow(java.lang.String)}, compiling the prefixes for matching.
+   */
+  static UrlPrefixes parseFollow(String follow) {
+    Set<String> followPrefixes = new LinkedHashSet<>();
+    for (String value : follow.split("[\\s,]+")) {
+      if (JAVASE.equalsIgnoreCase(value)) {
+        followPrefixes.addAll(javaseUrlPrefixes);
+      } else if (JAVAEE.equalsIgnoreCase(value) || JAKARTAEE.equalsIgnoreCase(value)) {
+        followPrefixes.addAll(javaeeUrlPrefixes);
+      } else {
+        followPrefixes.add(value);
+      }
+    }
+    return UrlPrefixes.of(followPrefixes);
+  }
+
   static final String FILTER_SUFFIX = "-javadoc.jar";
 
   static final FileFilter javadocJarFilter =
@@ -104,8 +145,12 @@ public class SeoJavadocFilterTask extends Task {
   private File buildDirectory;
   private String projectUrl;
   private String subprojectSubpath;
-  private Iterable<String> nofollow = defaultNofollow;
-  private Iterable<String> follow = Collections.singletonList(SeoJavadocFilter.ANY_URL);
+  private Iterable<String> nofollow = UrlPrefixes.of(defaultNofollow);
+  private Iterable<String> follow = UrlPrefixes.of(defaultFollow);
+  private int threads = 1;
+  private File lastBuildDirectory;
+  private File manifestFile;
+  private File metricsFile;
 
   /**
    * The current build directory.
@@ -162,19 +207,7 @@ public class SeoJavadocFilterTask extends Task {
    * <p>Defaults to exclude Java SE, Java EE, and Jakarta EE apidocs.</p>
    */
   public void setNofollow(String nofollow) {
-    Set<String> nofollowPrefixes = new LinkedHashSet<>();
-    for (String value : nofollow.split("[\\s,]+")) {
-      if (DEFAULT.equalsIgnoreCase(value)) {
-        nofollowPrefixes.addAll(defaultNofollow);
-      } else if (JAVASE.equalsIgnoreCase(value)) {
-        nofollowPrefixes.addAll(javaseUrlPrefixes);
-      } else if (JAVAEE.equalsIgnoreCase(value) || JAKARTAEE.equalsIgnoreCase(value)) {
-        nofollowPrefixes.addAll(javaeeUrlPrefixes);
-      } else {
-        nofollowPrefixes.add(value);
-      }
-    }
-    this.nofollow = nofollowPrefixes;
+    this.nofollow = parseNofollow(nofollow);
   }
 
   /**
@@ -191,17 +224,60 @@ public class SeoJavadocFilterTask extends Task {
    * <p>Defaults to <code>"{@value SeoJavadocFilter#ANY_URL}"</code> (all).</p>
    */
   public void setFollow(String follow) {
-    Set<String> followPrefixes = new LinkedHashSet<>();
-    for (String value : follow.split("[\\s,]+")) {
-      if (JAVASE.equalsIgnoreCase(value)) {
-        followPrefixes.addAll(javaseUrlPrefixes);
-      } else if (JAVAEE.equalsIgnoreCase(value) || JAKARTAEE.equalsIgnoreCase(value)) {
-        followPrefixes.addAll(javaeeUrlPrefixes);
-      } else {
-        followPrefixes.add(value);
-      }
+    this.follow = parseFollow(follow);
+  }
+
+  /**
+   * The number of threads used to filter and compress the HTML pages of each JAR file.  The resulting JAR file is
+   * byte-identical regardless of the number of threads.
+   *
+   * <p>Defaults to {@code 1} (sequential).  Use {@code 0} for the number of available processors.</p>
+   */
+  public void setThreads(int threads) {
+    if (threads < 0) {
+      throw new BuildException("threads may not be negative: " + threads);
     }
-    this.follow = followPrefixes;
+    this.threads = threads;
+  }
+
+  /**
+   * The directory that contains the filtered Javadoc JAR files of the last successful build, such as the
+   * {@linkplain ZipTimestampMergeTask#setLastBuildDirectory(java.lang.String) lastBuildDirectory} of
+   * {@link ZipTimestampMergeTask}.  Requires {@link #setManifestFile(java.lang.String) manifestFile}.
+   *
+   * <p>Each page that is unchanged since the last build is copied, still compressed, from the JAR file of the same name
+   * instead of being filtered again.  A page is unchanged when its unfiltered size and CRC are the same as recorded in
+   * the manifest, and the robots header values of the page and each of its link targets are also the same.  As with
+   * {@link ZipTimestampMergeTask#setTrustCrc(boolean)}, pages with equal size and CRC are assumed to have the same
+   * content.  Pages are filtered as usual when the settings have changed or when the last build does not have the
+   * filtered page recorded in the manifest.</p>
+   *
+   * <p>Defaults to filtering every page.</p>
+   */
+  public void setLastBuildDirectory(String lastBuildDirectory) {
+    this.lastBuildDirectory = new File(lastBuildDirectory);
+  }
+
+  /**
+   * An optional file that records the unfiltered and filtered size and CRC, along with the link targets, of each page
+   * of each JAR file.  The file is created when missing and is replaced once all JAR files are filtered, for use by the
+   * next build with {@link #setLastBuildDirectory(java.lang.String) lastBuildDirectory}.
+   *
+   * <p>Defaults to no manifest.</p>
+   */
+  public void setManifestFile(String manifestFile) {
+    this.manifestFile = new File(manifestFile);
+  }
+
+  /**
+   * An optional file that receives a JSON summary of the counters and per-phase timings of each JAR file, as written by
+   * {@link MetricsSummary}.  The file is replaced once all JAR files are processed, so may be compared between builds
+   * to find which JAR file and which phase dominates the build time.
+   *
+   * <p>Defaults to no summary.</p>
+   */
+  public void setMetricsFile(String metricsFile) {
+    this.metricsFile = new File(metricsFile);
   }
 
   static String getApidocsUrl(File javadocJar, String projectUrl, String subprojectSubpath) {
@@ -215,7 +291,7 @@ public class SeoJavadocFilterTask extends Task {
   }
 
   /**
-   * Calls {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable)} for each
+   * Calls {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)} for each
    * file in {@link #setBuildDirectory(java.lang.String)} that matches {@link #javadocJarFilter}
    * while logging to {@link #log(java.lang.String, int)}.
    */
@@ -231,6 +307,20 @@ public class SeoJavadocFilterTask extends Task {
       if (!buildDirectory.isDirectory()) {
         throw new IOException("buildDirectory is not a directory: " + buildDirectory);
       }
+      if (lastBuildDirectory != null && manifestFile == null) {
+        throw new BuildException("manifestFile required with lastBuildDirectory");
+      }
+      SeoJavadocFilterManifest manifest;
+      SeoJavadocFilterManifest newManifest;
+      if (manifestFile != null) {
+        log("Reading manifestFile: " + manifestFile, LogLevel.DEBUG.getLevel());
+        manifest = SeoJavadocFilterManifest.read(manifestFile, msg -> log(msg.get(), LogLevel.WARN.getLevel()));
+        newManifest = new SeoJavadocFilterManifest();
+      } else {
+        manifest = null;
+        newManifest = null;
+      }
+      MetricsSummary metrics = metricsFile == null ? null : new MetricsSummary();
       int count = 0;
       File[] javadocJarFiles = buildDirectory.listFiles(javadocJarFilter);
       if (javadocJarFiles != null) {
@@ -240,6 +330,11 @@ public class SeoJavadocFilterTask extends Task {
               getApidocsUrl(javadocJar, projectUrl, subprojectSubpath),
               nofollow,
               follow,
+              threads,
+              lastBuildDirectory == null ? null : new File(lastBuildDirectory, javadocJar.getName()),
+              manifest,
+              newManifest,
+              metrics == null ? MetricsListener.NONE : metrics,
               msg -> log(msg.get(), LogLevel.DEBUG.getLevel()),
               msg -> log(msg.get(), LogLevel.INFO.getLevel()),
               msg -> log(msg.get(), LogLevel.WARN.getLevel())
@@ -250,6 +345,12 @@ public class SeoJavadocFilterTask extends Task {
       if (count == 0) {
         log("SEO Javadoc filtering found no files matching *" + FILTER_SUFFIX, LogLevel.INFO.getLevel());
       }
+      if (newManifest != null) {
+        newManifest.write(manifestFile);
+      }
+      if (metrics != null) {
+        metrics.write(metricsFile);
+      }
     } catch (IOException e) {
       throw new BuildException(e);
     }
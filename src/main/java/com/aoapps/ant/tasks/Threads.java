@@ -0,0 +1,150 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread pool utilities shared by the tasks that support a <code>threads</code> attribute.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Threads {
+
+  /** Make no instances. */
+  private Threads() {
+    throw new AssertionError();
+  }
+
+  private static final Logger logger = Logger.getLogger(Threads.class.getName());
+
+  /**
+   * Resolves the number of threads, where {@code 0} is the number of available processors.
+   */
+  static int getThreads(int threads) {
+    if (threads < 0) {
+      throw new IllegalArgumentException("threads may not be negative: " + threads);
+    }
+    return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+  }
+
+  /**
+   * Gets a factory for virtual threads on Java 21+, or {@code null} when not available.
+   */
+  private static ThreadFactory getVirtualThreadFactory(String name) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + '-', 1L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Java 19 and 20 throw UnsupportedOperationException when preview features are not enabled
+      Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+      logger.log(Level.FINE, cause, () -> "Virtual threads not available, using platform threads");
+      return null;
+    }
+  }
+
+  /**
+   * Creates a new fixed-size thread pool.
+   *
+   * @param virtual  Uses virtual threads when available, for I/O-bound work
+   */
+  static ExecutorService newFixedThreadPool(int threads, String name, boolean virtual) {
+    ThreadFactory threadFactory = virtual ? getVirtualThreadFactory(name) : null;
+    if (threadFactory == null) {
+      AtomicInteger threadNum = new AtomicInteger();
+      threadFactory = runnable -> {
+        Thread thread = new Thread(runnable, name + '-' + threadNum.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+    return Executors.newFixedThreadPool(threads, threadFactory);
+  }
+
+  /**
+   * Waits for a result, unwrapping the cause of any {@link ExecutionException}.
+   */
+  static <V> V get(Future<V> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException ioErr = new InterruptedIOException();
+      ioErr.initCause(e);
+      throw ioErr;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Shuts down a thread pool, cancelling any of the given tasks not yet started, then waits for any running tasks to
+   * complete.  Waiting ensures that nothing is left modifying files or reading from closed files after an exception.
+   *
+   * <p>Running tasks are not interrupted, since an interrupt closes any {@link java.nio.channels.FileChannel} being
+   * read or written, which could leave a file partially modified.</p>
+   */
+  static void shutdown(ExecutorService executor, Iterable<? extends Future<?>> futures) {
+    executor.shutdown();
+    for (Future<?> future : futures) {
+      future.cancel(false);
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+          break;
+        }
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The URL prefixes of {@link SeoJavadocFilterTask#setNofollow(java.lang.String)} or
+ * {@link SeoJavadocFilterTask#setFollow(java.lang.String)}, compiled into a case-insensitive trie.
+ * Matching costs at most the length of the URL, regardless of the number of prefixes.
+ *
+ * <p>Iterates the prefixes in the order given, without duplicates.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class UrlPrefixes implements Iterable<String> {
+
+  /**
+   * Gets the compiled form of the given prefixes, which are only compiled when not already compiled.
+   */
+  static UrlPrefixes of(Iterable<String> prefixes) {
+    if (prefixes instanceof UrlPrefixes) {
+      return (UrlPrefixes) prefixes;
+    } else {
+      return new UrlPrefixes(prefixes);
+    }
+  }
+
+  /**
+   * Folds a character the same as {@link java.lang.String#regionMatches(boolean, int, java.lang.String, int, int)}
+   * when ignoring case, as used by {@link org.apache.commons.lang3.StringUtils#startsWithIgnoreCase(java.lang.CharSequence, java.lang.CharSequence)}.
+   */
+  private static char fold(char ch) {
+    return Character.toLowerCase(Character.toUpperCase(ch));
+  }
+
+  private static final class Node {
+
+    private static final char[] NO_KEYS = {};
+    private static final Node[] NO_CHILDREN = {};
+
+    /**
+     * The folded characters of the children, in sorted order.
+     */
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+
+    /**
+     * Set when a prefix ends at this node.
+     */
+    private boolean terminal;
+
+    private Node getChild(char folded) {
+      int index = Arrays.binarySearch(keys, folded);
+      return index < 0 ? null : children[index];
+    }
+
+    private Node getOrAddChild(char folded) {
+      int index = Arrays.binarySearch(keys, folded);
+      if (index >= 0) {
+        return children[index];
+      }
+      index = -(index + 1);
+      char[] newKeys = new char[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      newKeys[index] = folded;
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(children, 0, newChildren, 0, index);
+      System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+      Node child = new Node();
+      newChildren[index] = child;
+      keys = newKeys;
+      children = newChildren;
+      return child;
+    }
+
+    /**
+     * Checks if any prefix ending at or below this node matches the given string starting at the given index.
+     */
+    private boolean matches(String str, int start) {
+      Node node = this;
+      int len = str.length();
+      for (int i = start; !node.terminal; i++) {
+        if (i >= len) {
+          return false;
+        }
+        node = node.getChild(fold(str.charAt(i)));
+        if (node == null) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final List<String> prefixes;
+  private final boolean anyUrl;
+  private final Node root = new Node();
+
+  private UrlPrefixes(Iterable<String> prefixes) {
+    Set<String> unique = new LinkedHashSet<>();
+    boolean any = false;
+    for (String prefix : prefixes) {
+      if (!unique.add(Objects.requireNonNull(prefix, "prefix required"))) {
+        continue;
+      }
+      if (SeoJavadocFilter.ANY_URL.equals(prefix)) {
+        any = true;
+      } else {
+        Node node = root;
+        for (int i = 0, len = prefix.length(); i < len; i++) {
+          node = node.getOrAddChild(fold(prefix.charAt(i)));
+        }
+        node.terminal = true;
+      }
+    }
+    this.prefixes = Collections.unmodifiableList(new ArrayList<>(unique));
+    this.anyUrl = any;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return prefixes.iterator();
+  }
+
+  @Override
+  public String toString() {
+    return prefixes.toString();
+  }
+
+  /**
+   * Checks if a URL matches {@link SeoJavadocFilter#ANY_URL} or starts with any prefix (case-insensitive).
+   */
+  boolean matches(String url) {
+    return anyUrl || root.matches(url, 0);
+  }
+
+  /**
+   * Checks if a Javadoc page matches any prefix starting with a slash {@code '/'} (case-insensitive), which sets the
+   * page to robots "noindex, nofollow".
+   *
+   * @param name  the name of the page within the Javadoc JAR, without any leading slash
+   */
+  boolean matchesPage(String name) {
+    Node slash = root.getChild(fold('/'));
+    return slash != null && slash.matches(name, 0);
+  }
+}
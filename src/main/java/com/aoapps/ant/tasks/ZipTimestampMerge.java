@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,29 +26,38 @@ package com.aoapps.ant.tasks;
 import static com.aoapps.ant.tasks.SeoJavadocFilter.AT;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.io.DataInput;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
@@ -62,7 +71,6 @@ import org.apache.commons.compress.archivers.zip.ZipExtraField;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.archivers.zip.ZipLong;
 import org.apache.commons.compress.archivers.zip.ZipUtil;
-import org.apache.commons.compress.utils.ByteUtils;
 import org.apache.commons.io.IOUtils;
 
 /**
@@ -93,38 +101,44 @@ public final class ZipTimestampMerge {
   private static final int BUFFER_SIZE = 4096;
 
   /**
-   * The number of bytes already read for the signature.
-   * Used to offset positions in header.
+   * The maximum number of unpatched bytes between patches for them to be coalesced into a single read-modify-write.
    */
-  private static final int SIGNATURE_BYTES = Integer.BYTES;
+  private static final int MAX_PATCH_GAP = BUFFER_SIZE;
 
   /**
-   * Reads a ZIP "word", which is four bytes little-endian.
+   * The maximum number of bytes in a single read-modify-write of coalesced patches.
    */
-  private static long getZipWord(byte[] buff, int offset) {
-    long value = ByteUtils.fromLittleEndian(buff, offset, Integer.BYTES);
-    assert value > 0L;
-    assert value < (1L << Integer.SIZE);
-    return value;
+  private static final int MAX_PATCH_SPAN = 1 << 20;
+
+  /**
+   * The maximum length of the ZIP file comment that may follow the end of central directory record.
+   */
+  private static final int MAX_COMMENT_LENGTH = 0xffff;
+
+  /**
+   * Reads from a channel at the given position until the buffer is full, then flips the buffer for reading.
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) == -1) {
+        throw new EOFException();
+      }
+    }
+    buffer.flip();
   }
 
   /**
-   * Reads a ZIP "word", which is four bytes little-endian.
+   * Gets a ZIP "word", which is four bytes little-endian.
    */
-  private static long readZipWord(DataInput in) throws IOException {
-    byte[] buff = new byte[Integer.BYTES];
-    in.readFully(buff);
-    return getZipWord(buff, 0);
+  private static long getZipWord(ByteBuffer buffer, int index) {
+    return buffer.getInt(index) & 0xffffffffL;
   }
 
   /**
-   * Reads a ZIP "short", which is two bytes little-endian.
+   * Gets a ZIP "short", which is two bytes little-endian.
    */
-  private static int getZipShort(byte[] buff, int offset) {
-    long value = ByteUtils.fromLittleEndian(buff, offset, Short.BYTES);
-    assert value > 0L;
-    assert value < (1L << Short.SIZE);
-    return (int) value;
+  private static int getZipShort(ByteBuffer buffer, int index) {
+    return buffer.getShort(index) & 0xffff;
   }
 
   private static final FilenameFilter FILTER = (dir, name) -> {
@@ -139,7 +153,15 @@ public final class ZipTimestampMerge {
    * Offsets a time from ZIP entry time to Java time in milliseconds since Epoch.
    */
   static long offsetFromZipToUtc(long entryTime) {
-    return entryTime + TimeZone.getDefault().getOffset(entryTime);
+    return offsetFromZipToUtc(TimeZone.getDefault(), entryTime);
+  }
+
+  /**
+   * Offsets a time from ZIP entry time to Java time in milliseconds since Epoch, given the default time zone.
+   * This avoids the copy made by {@link TimeZone#getDefault()} when converting many times.
+   */
+  static long offsetFromZipToUtc(TimeZone defaultTimeZone, long entryTime) {
+    return entryTime + defaultTimeZone.getOffset(entryTime);
   }
 
   /**
@@ -177,7 +199,12 @@ public final class ZipTimestampMerge {
     private final byte[] expected;
     private final byte[] replacement;
 
-    private Patch(long offset, byte[] expected, byte[] replacement) {
+    /**
+     * The central directory entry whose time is updated by this patch, or {@code null} for a local header patch.
+     */
+    private final CentralDirectoryEntry centralDirectoryEntry;
+
+    private Patch(long offset, byte[] expected, byte[] replacement, CentralDirectoryEntry centralDirectoryEntry) {
       if (expected.length != replacement.length) {
         throw new IllegalArgumentException("Mismatched lengths");
       }
@@ -187,6 +214,7 @@ public final class ZipTimestampMerge {
       this.offset = offset;
       this.expected = expected;
       this.replacement = replacement;
+      this.centralDirectoryEntry = centralDirectoryEntry;
     }
   }
 
@@ -204,113 +232,215 @@ public final class ZipTimestampMerge {
     return dosTimeDate;
   }
 
-  private static long getCentralDirectoryStartOffset(File buildArtifact, RandomAccessFile buildArtifactRaf,
-      ZipFile zipFile, Consumer<Supplier<String>> debug) throws IOException {
+  /**
+   * Finds the end of central directory record by searching backward through the end of the file, which is read in a
+   * single operation.
+   *
+   * @return  the position of the end of central directory record within the file
+   */
+  private static long findEndOfCentralDirectory(File buildArtifact, FileChannel channel,
+      Consumer<Supplier<String>> debug) throws IOException {
     // See https://en.wikipedia.org/wiki/ZIP_(file_format)
     // See https://stackoverflow.com/a/4802165/7121505
+    long length = channel.size();
+    int tailLength = (int) Math.min(length, (long) ZipEntry.ENDHDR + MAX_COMMENT_LENGTH);
+    long tailStart = length - tailLength;
+    ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, tail, tailStart);
     // Read backward to find end-of-directory 0x06054b50
-    long pos = buildArtifactRaf.length() - ZipEntry.ENDHDR;
-    long centralDirectoryStartOffset = -1;
-    while (pos >= 0) {
-      buildArtifactRaf.seek(pos);
-      if (readZipWord(buildArtifactRaf) == ZipEntry.ENDSIG) {
-        final long posFinal = pos;
-        debug.accept(() -> "End of central directory record found @ 0x" + Long.toHexString(posFinal));
-        long centralDirectoryOffsetPos = pos + ZipEntry.ENDOFF;
-        buildArtifactRaf.seek(centralDirectoryOffsetPos);
-        long centralDirectoryOffset = readZipWord(buildArtifactRaf);
-        debug.accept(() -> "centralDirectoryOffset = 0x" + Long.toHexString(centralDirectoryOffset));
-        if (centralDirectoryOffset < 0) {
-          throw new ZipException("Invalid central directory offset: " + centralDirectoryOffset);
-        }
-        if (centralDirectoryOffset == 0xffffffffL) {
-          throw new ZipException("ZIP64 not implemented: " + buildArtifact + AT
-              + " 0x" + Long.toHexString(centralDirectoryOffsetPos));
-        }
-        centralDirectoryStartOffset = centralDirectoryOffset + zipFile.getFirstLocalFileHeaderOffset();
-        break;
-      } else {
-        pos--;
+    for (int pos = tailLength - ZipEntry.ENDHDR; pos >= 0; pos--) {
+      if (getZipWord(tail, pos) == ZipEntry.ENDSIG) {
+        long endPosition = tailStart + pos;
+        debug.accept(() -> "End of central directory record found @ 0x" + Long.toHexString(endPosition));
+        return endPosition;
       }
     }
-    if (centralDirectoryStartOffset == -1) {
-      throw new ZipException("Central directory not found in " + buildArtifact);
-    }
-    return centralDirectoryStartOffset;
+    throw new ZipException("Central directory not found in " + buildArtifact);
   }
 
   private static final class CentralDirectoryEntry {
 
     private final long position;
-    private final byte[] rawFilename;
 
-    private CentralDirectoryEntry(long position, byte[] rawFilename) {
+    /**
+     * The index of the raw filename within {@link CentralDirectory#buffer}.
+     */
+    private final int rawFilenameIndex;
+
+    private final int rawFilenameLength;
+
+    /**
+     * The DOS time and date, kept current as patches are applied.
+     */
+    private long dosTime;
+
+    private CentralDirectoryEntry(long position, int rawFilenameIndex, int rawFilenameLength, long dosTime) {
       this.position = position;
-      this.rawFilename = rawFilename;
+      this.rawFilenameIndex = rawFilenameIndex;
+      this.rawFilenameLength = rawFilenameLength;
+      this.dosTime = dosTime;
+    }
+
+    /**
+     * Gets the current time in UTC.
+     */
+    private long getTimeUtc() {
+      return offsetFromZipToUtc(ZipUtil.dosToJavaTime(dosTime));
+    }
+  }
+
+  /**
+   * An index of the central directory of an artifact, read in a single scan.  Used for the reproducibility check, patch
+   * planning, and entry lookup.  Times are updated in memory as patches are applied instead of being read again.
+   */
+  private static final class CentralDirectory {
+
+    private final File artifact;
+
+    /**
+     * The raw central directory, little-endian.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Indexed by local header offset.
+     */
+    private final Map<Long, CentralDirectoryEntry> entries;
+
+    private CentralDirectory(File artifact, ByteBuffer buffer, Map<Long, CentralDirectoryEntry> entries) {
+      this.artifact = artifact;
+      this.buffer = buffer;
+      this.entries = entries;
+    }
+
+    private byte[] getRawFilename(CentralDirectoryEntry centralDirectoryEntry) {
+      byte[] rawFilename = new byte[centralDirectoryEntry.rawFilenameLength];
+      for (int i = 0; i < rawFilename.length; i++) {
+        rawFilename[i] = buffer.get(centralDirectoryEntry.rawFilenameIndex + i);
+      }
+      return rawFilename;
+    }
+
+    private boolean rawFilenameEquals(CentralDirectoryEntry centralDirectoryEntry, byte[] rawFilename) {
+      if (centralDirectoryEntry.rawFilenameLength != rawFilename.length) {
+        return false;
+      }
+      for (int i = 0; i < rawFilename.length; i++) {
+        if (buffer.get(centralDirectoryEntry.rawFilenameIndex + i) != rawFilename[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Gets the central directory entry for the given entry, verifying the raw filename matches.
+     */
+    private CentralDirectoryEntry get(ZipArchiveEntry entry) throws ZipException {
+      long localHeaderOffset = entry.getLocalHeaderOffset();
+      CentralDirectoryEntry centralDirectoryEntry = entries.get(localHeaderOffset);
+      if (centralDirectoryEntry == null) {
+        throw new ZipException("No central directory entry found for local header: 0x"
+            + Long.toHexString(localHeaderOffset) + AT + artifact);
+      }
+      // raw filename must match
+      byte[] expectedRawName = entry.getRawName();
+      if (!rawFilenameEquals(centralDirectoryEntry, expectedRawName)) {
+        throw new ZipException("raw filename mismatch: " + bytesToHex(getRawFilename(centralDirectoryEntry)) + " != "
+            + bytesToHex(expectedRawName) + AT + artifact);
+      }
+      return centralDirectoryEntry;
+    }
+
+    /**
+     * Gets the current time of the given entry in UTC.
+     *
+     * @see CentralDirectoryEntry#getTimeUtc()
+     */
+    private long getTimeUtc(ZipArchiveEntry entry) throws ZipException {
+      return get(entry).getTimeUtc();
+    }
+
+    /**
+     * Updates the in-memory times once patches have been applied.
+     */
+    private void patchesApplied(List<Patch> patches) {
+      for (Patch patch : patches) {
+        if (patch.centralDirectoryEntry != null) {
+          patch.centralDirectoryEntry.dosTime = ZipLong.getValue(patch.replacement);
+        }
+      }
     }
   }
 
   /**
-   * Reads the central directory beginning at the given offset, indexing each entry by local header offset.
+   * Reads the central directory in a single operation, indexing each entry by local header offset.  Entries are parsed
+   * directly from the buffer without copying.
    */
-  private static SortedMap<Long, CentralDirectoryEntry> readCentralDirectory(Consumer<Supplier<String>> debug,
+  private static CentralDirectory readCentralDirectory(Consumer<Supplier<String>> debug,
       File buildArtifact, ZipFile buildZipFile) throws IOException {
-    SortedMap<Long, CentralDirectoryEntry> map = new TreeMap<>();
-    debug.accept(() -> "Opening buildArtifactRaf: " + buildArtifact);
-    try (RandomAccessFile buildArtifactRaf = new RandomAccessFile(buildArtifact, "r")) {
-      long centralDirectoryStartOffset = getCentralDirectoryStartOffset(buildArtifact, buildArtifactRaf, buildZipFile, debug);
+    Map<Long, CentralDirectoryEntry> map = new HashMap<>();
+    debug.accept(() -> "Opening buildArtifact channel: " + buildArtifact);
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(buildArtifact.toPath(), StandardOpenOption.READ)) {
+      long endPosition = findEndOfCentralDirectory(buildArtifact, channel, debug);
+      ByteBuffer end = ByteBuffer.allocate(ZipEntry.ENDHDR).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, end, endPosition);
+      long centralDirectoryOffset = getZipWord(end, ZipEntry.ENDOFF);
+      debug.accept(() -> "centralDirectoryOffset = 0x" + Long.toHexString(centralDirectoryOffset));
+      if (centralDirectoryOffset == 0xffffffffL) {
+        throw new ZipException("ZIP64 not implemented: " + buildArtifact + AT
+            + " 0x" + Long.toHexString(endPosition + ZipEntry.ENDOFF));
+      }
+      long centralDirectoryStartOffset = centralDirectoryOffset + buildZipFile.getFirstLocalFileHeaderOffset();
       debug.accept(() -> "centralDirectoryStartOffset = 0x" + Long.toHexString(centralDirectoryStartOffset));
-      buildArtifactRaf.seek(centralDirectoryStartOffset);
-      byte[] centralDirectoryHeaderWithoutSignature = new byte[ZipEntry.CENHDR - SIGNATURE_BYTES];
-      long signature = readZipWord(buildArtifactRaf);
-      final long signatureFinal1 = signature;
-      debug.accept(() -> "signature @ 0x" + Long.toHexString(centralDirectoryStartOffset) + " is 0x" + Long.toHexString(signatureFinal1));
+      // Read through the signature of the end of central directory record
+      long centralDirectoryLength = endPosition + Integer.BYTES - centralDirectoryStartOffset;
+      if (centralDirectoryLength < Integer.BYTES || centralDirectoryLength > Integer.MAX_VALUE) {
+        throw new ZipException("Invalid central directory offset: 0x" + Long.toHexString(centralDirectoryStartOffset)
+            + AT + buildArtifact);
+      }
+      buffer = ByteBuffer.allocate((int) centralDirectoryLength).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, buffer, centralDirectoryStartOffset);
+      int limit = buffer.limit();
+      int pos = 0;
+      long signature = getZipWord(buffer, pos);
       while (signature == ZipEntry.CENSIG) {
-        long centralDirectoryPosition = buildArtifactRaf.getFilePointer() - SIGNATURE_BYTES;
-        debug.accept(() -> "centralDirectoryPosition = 0x" + Long.toHexString(centralDirectoryPosition));
-        buildArtifactRaf.readFully(centralDirectoryHeaderWithoutSignature);
-        // Read raw filename
-        int filenameLen = getZipShort(centralDirectoryHeaderWithoutSignature, ZipEntry.CENNAM - SIGNATURE_BYTES);
-        debug.accept(() -> "filenameLen = " + filenameLen);
-        if (filenameLen < 0) {
-          throw new ZipException("Invalid filename length: " + filenameLen);
-        }
-        byte[] rawFilename = new byte[filenameLen];
-        buildArtifactRaf.readFully(rawFilename);
-        int extraLen = getZipShort(centralDirectoryHeaderWithoutSignature, ZipEntry.CENEXT - SIGNATURE_BYTES);
-        debug.accept(() -> "extraLen = " + extraLen);
-        if (extraLen < 0) {
-          throw new ZipException("Invalid extra length: " + extraLen);
+        if (pos + ZipEntry.CENHDR > limit) {
+          throw new ZipException("Truncated central directory entry @ 0x"
+              + Long.toHexString(centralDirectoryStartOffset + pos) + AT + buildArtifact);
         }
-        byte[] rawExtra = new byte[extraLen];
-        buildArtifactRaf.readFully(rawExtra);
-        // Look for relative offset match
-        long relativeOffset = getZipWord(centralDirectoryHeaderWithoutSignature, ZipEntry.CENOFF - SIGNATURE_BYTES);
-        debug.accept(() -> "relativeOffset = 0x" + Long.toHexString(relativeOffset));
-        long localHeaderOffset = relativeOffset + buildZipFile.getFirstLocalFileHeaderOffset();
-        debug.accept(() -> "localHeaderOffset = 0x" + Long.toHexString(localHeaderOffset));
-        CentralDirectoryEntry newEntry = new CentralDirectoryEntry(centralDirectoryPosition, rawFilename);
+        long centralDirectoryPosition = centralDirectoryStartOffset + pos;
+        int filenameLen = getZipShort(buffer, pos + ZipEntry.CENNAM);
+        int extraLen = getZipShort(buffer, pos + ZipEntry.CENEXT);
+        int commentLen = getZipShort(buffer, pos + ZipEntry.CENCOM);
+        long localHeaderOffset = getZipWord(buffer, pos + ZipEntry.CENOFF) + buildZipFile.getFirstLocalFileHeaderOffset();
+        CentralDirectoryEntry newEntry = new CentralDirectoryEntry(centralDirectoryPosition, pos + ZipEntry.CENHDR,
+            filenameLen, getZipWord(buffer, pos + ZipEntry.CENTIM));
         CentralDirectoryEntry existing = map.put(localHeaderOffset, newEntry);
         if (existing != null) {
           throw new ZipException("Duplicate central directory entries point to same local header (0x"
               + Long.toHexString(localHeaderOffset) + "): 0x" + Long.toHexString(existing.position) + " and 0x"
               + Long.toHexString(newEntry.position));
         }
-        long sigPos = buildArtifactRaf.getFilePointer();
-        signature = readZipWord(buildArtifactRaf);
-        final long signatureFinal2 = signature;
-        debug.accept(() -> "signature @ 0x" + Long.toHexString(sigPos) + " is 0x" + Long.toHexString(signatureFinal2));
+        pos += ZipEntry.CENHDR + filenameLen + extraLen + commentLen;
+        if (pos + Integer.BYTES > limit) {
+          throw new ZipException("Truncated central directory @ 0x"
+              + Long.toHexString(centralDirectoryStartOffset + pos) + AT + buildArtifact);
+        }
+        signature = getZipWord(buffer, pos);
       }
       if (signature != ZipEntry.ENDSIG) {
         throw new ZipException("signature is not ENDSIG: 0x" + Long.toHexString(signature)
             + " != 0x" + Long.toHexString(ZipEntry.ENDSIG));
       }
     }
-    return map;
+    debug.accept(() -> "Read " + map.size() + " central directory " + (map.size() == 1 ? "entry" : "entries"));
+    return new CentralDirectory(buildArtifact, buffer, map);
   }
 
   private static void addTimePatches(List<Patch> patches,
-      SortedMap<Long, CentralDirectoryEntry> centralDirectory, ZipArchiveEntry buildEntry,
+      CentralDirectory centralDirectory, ZipArchiveEntry buildEntry,
       long buildEntryTime, long newTime
   ) throws IOException {
     if (buildEntryTime == newTime) {
@@ -322,22 +452,12 @@ public final class ZipTimestampMerge {
     if (Arrays.equals(expected, replacement)) {
       throw new ZipException("DOS times same, rounding? expected = " + bytesToHex(expected));
     }
+    CentralDirectoryEntry centralDirectoryEntry = centralDirectory.get(buildEntry);
     // Local header
-    long localHeaderOffset = buildEntry.getLocalHeaderOffset();
-    patches.add(new Patch(localHeaderOffset + ZipEntry.LOCTIM, expected, replacement));
+    patches.add(new Patch(buildEntry.getLocalHeaderOffset() + ZipEntry.LOCTIM, expected, replacement, null));
     // Central Directory header
-    CentralDirectoryEntry centralDirectoryEntry = centralDirectory.get(localHeaderOffset);
-    if (centralDirectoryEntry == null) {
-      throw new ZipException("No central directory entry found for local header: 0x"
-          + Long.toHexString(localHeaderOffset));
-    }
-    // raw filename must match
-    byte[] expectedRawName = buildEntry.getRawName();
-    if (!Arrays.equals(centralDirectoryEntry.rawFilename, expectedRawName)) {
-      throw new ZipException("raw filename mismatch: " + bytesToHex(centralDirectoryEntry.rawFilename) + " != "
-          + bytesToHex(expectedRawName));
-    }
-    patches.add(new Patch(centralDirectoryEntry.position + ZipEntry.CENTIM, expected, replacement));
+    patches.add(new Patch(centralDirectoryEntry.position + ZipEntry.CENTIM, expected, replacement,
+        centralDirectoryEntry));
   }
 
   // See https://stackoverflow.com/a/9855338
@@ -363,34 +483,129 @@ public final class ZipTimestampMerge {
   }
 
   /**
-   * Applies the given set of patches to a file.
+   * Writes from a buffer to a channel at the given position until the buffer has no remaining bytes.
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  /**
+   * Applies the given set of patches to a file.  Patches are sorted by offset, and nearby patches are coalesced into a
+   * single read-modify-write.  All central directory patches typically coalesce into one.
+   *
+   * @param sync  Forces the file to storage once all patches are applied
+   *
+   * @return  the number of writes performed
    */
-  private static void applyPatches(String logPrefix, Consumer<Supplier<String>> debug, Consumer<Supplier<String>> info,
-      List<Patch> patches, File file, int totalEntries) throws IOException {
+  private static int applyPatches(String logPrefix, Consumer<Supplier<String>> debug, Consumer<Supplier<String>> info,
+      List<Patch> patches, File file, int totalEntries, boolean sync) throws IOException {
+    JfrEvents.PatchBatch event = new JfrEvents.PatchBatch();
+    event.begin();
     debug.accept(() -> logPrefix + file);
     info.accept(() -> logPrefix + "Patching " + (patches.size() / 2) + " of " + totalEntries
         + (totalEntries == 1 ? " timestamp" : " timestamps"));
-    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
-      byte[] buff = null;
-      for (Patch patch : patches) {
-        long offset = patch.offset;
-        int len = patch.expected.length;
-        debug.accept(() -> logPrefix + "Patching "
-            + bytesToHex(patch.expected, len) + " (" + decodeDosTime(patch.expected) + ") to "
-            + bytesToHex(patch.replacement, len) + " (" + decodeDosTime(patch.replacement) + ") at "
-            + offset);
-        raf.seek(offset);
-        if (buff == null || len > buff.length) {
-          buff = new byte[Math.min(len, BUFFER_SIZE)];
+    List<Patch> sorted = new ArrayList<>(patches);
+    sorted.sort(Comparator.comparingLong(patch -> patch.offset));
+    int writes = 0;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = null;
+      int size = sorted.size();
+      int i = 0;
+      while (i < size) {
+        // Find the patches to coalesce
+        long start = sorted.get(i).offset;
+        long end = start + sorted.get(i).expected.length;
+        int j = i + 1;
+        while (j < size) {
+          Patch next = sorted.get(j);
+          if (next.offset < end) {
+            throw new IllegalArgumentException("Overlapping patches at offset " + next.offset);
+          }
+          long nextEnd = next.offset + next.expected.length;
+          if (next.offset - end > MAX_PATCH_GAP || nextEnd - start > MAX_PATCH_SPAN) {
+            break;
+          }
+          end = nextEnd;
+          j++;
         }
-        raf.readFully(buff, 0, len);
-        if (!Arrays.equals(buff, 0, len, patch.expected, 0, len)) {
-          throw new IOException("Unexpected data in patch position: offset = " + patch.offset
-              + ", expected = " + bytesToHex(patch.expected, len) + " (" + decodeDosTime(patch.expected)
-              + "), actual = " + bytesToHex(buff, len) + " (" + decodeDosTime(buff) + ')');
+        int len = (int) (end - start);
+        if (buffer == null || len > buffer.capacity()) {
+          buffer = ByteBuffer.allocate(Math.max(len, BUFFER_SIZE));
+        }
+        buffer.clear().limit(len);
+        readFully(channel, buffer, start);
+        for (int k = i; k < j; k++) {
+          Patch patch = sorted.get(k);
+          long offset = patch.offset;
+          int patchLen = patch.expected.length;
+          debug.accept(() -> logPrefix + "Patching "
+              + bytesToHex(patch.expected, patchLen) + " (" + decodeDosTime(patch.expected) + ") to "
+              + bytesToHex(patch.replacement, patchLen) + " (" + decodeDosTime(patch.replacement) + ") at "
+              + offset);
+          int index = (int) (offset - start);
+          for (int b = 0; b < patchLen; b++) {
+            if (buffer.get(index + b) != patch.expected[b]) {
+              byte[] actual = new byte[patchLen];
+              for (int c = 0; c < patchLen; c++) {
+                actual[c] = buffer.get(index + c);
+              }
+              throw new IOException("Unexpected data in patch position: offset = " + offset
+                  + ", expected = " + bytesToHex(patch.expected, patchLen) + " (" + decodeDosTime(patch.expected)
+                  + "), actual = " + bytesToHex(actual, patchLen) + " (" + decodeDosTime(actual) + ')');
+            }
+          }
+          for (int b = 0; b < patchLen; b++) {
+            buffer.put(index + b, patch.replacement[b]);
+          }
+        }
+        writeFully(channel, buffer, start);
+        writes++;
+        i = j;
+      }
+      if (sync) {
+        channel.force(false);
+      }
+    }
+    final int writesFinal = writes;
+    debug.accept(() -> logPrefix + "Applied " + sorted.size() + " patches in " + writesFinal
+        + (writesFinal == 1 ? " write" : " writes") + (sync ? ", synced" : ""));
+    if (event.shouldCommit()) {
+      event.artifact = file.getPath();
+      event.patches = sorted.size();
+      event.writes = writes;
+      event.synced = sync;
+      event.commit();
+    }
+    return writes;
+  }
+
+  /**
+   * The direct children names of every directory in an archive, built in a single pass over all entries.
+   */
+  private static final class DirectChildren {
+
+    private final Map<String, SortedSet<String>> childrenByDirectory = new HashMap<>();
+
+    /**
+     * The first duplicate child name found, by directory name.
+     */
+    private final Map<String, String> duplicateByDirectory = new HashMap<>();
+
+    private DirectChildren(ZipFile zipFile) {
+      Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        // Only non-directory entries are children, since the name of any sub-directory ends in "/"
+        int slashPos = name.lastIndexOf('/');
+        if (slashPos != -1 && slashPos != name.length() - 1) {
+          String directoryName = name.substring(0, slashPos + 1);
+          String childName = name.substring(slashPos + 1);
+          if (!childrenByDirectory.computeIfAbsent(directoryName, k -> new TreeSet<>()).add(childName)) {
+            duplicateByDirectory.putIfAbsent(directoryName, childName);
+          }
         }
-        raf.seek(offset);
-        raf.write(patch.replacement);
       }
     }
   }
@@ -398,31 +613,196 @@ public final class ZipTimestampMerge {
   /**
    * Gets the direct children names of the given entry, if any.
    */
-  private static SortedSet<String> getDirectChildren(Consumer<Supplier<String>> debug, ZipFile zipFile,
+  private static SortedSet<String> getDirectChildren(Consumer<Supplier<String>> debug, DirectChildren directChildren,
       ZipArchiveEntry directory) throws ZipException {
     String directoryName = directory.getName();
     if (!directoryName.endsWith("/")) {
       throw new IllegalArgumentException("directory does not end in \"/\": " + directoryName);
     }
-    SortedSet<String> children = new TreeSet<>();
-    Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
-    while (entries.hasMoreElements()) {
-      ZipArchiveEntry entry = entries.nextElement();
-      String name = entry.getName();
-      if (name.startsWith(directoryName)) {
-        String childName = name.substring(directoryName.length());
-        if (!childName.isEmpty() && childName.indexOf('/') == -1 && !children.add(childName)) {
-          throw new ZipException("Duplicate child name of " + directoryName + ": " + childName);
+    String duplicate = directChildren.duplicateByDirectory.get(directoryName);
+    if (duplicate != null) {
+      throw new ZipException("Duplicate child name of " + directoryName + ": " + duplicate);
+    }
+    SortedSet<String> children = directChildren.childrenByDirectory.get(directoryName);
+    if (children == null) {
+      children = Collections.emptySortedSet();
+    }
+    SortedSet<String> childrenFinal = children;
+    debug.accept(() -> "Children of " + directory + ": " + childrenFinal);
+    return children;
+  }
+
+  /**
+   * The ways the content of a file entry may be compared to the last build, in the order tried.
+   */
+  private enum Comparison {
+    /**
+     * Different sizes are always different content.
+     */
+    SIZE("by size", "comparedBySize"),
+
+    /**
+     * Different CRCs are always different content.
+     */
+    CRC("by CRC", "comparedByCrc"),
+
+    /**
+     * Equal CRCs, sizes, and methods are assumed to be equal content, only when trusting CRC.
+     */
+    TRUSTED_CRC("by trusted CRC", "comparedByTrustedCrc"),
+
+    /**
+     * The last build entry is unchanged since cached, so only the build entry is read and compared to the cached digest.
+     */
+    CACHED_DIGEST("by cached digest", "comparedByCachedDigest"),
+
+    /**
+     * Both entries are read, compressed then uncompressed as needed.
+     */
+    CONTENT("by content", "comparedByContent");
+
+    private final String description;
+
+    /**
+     * The name of the counter reported to {@link MetricsListener}.
+     */
+    private final String counter;
+
+    private Comparison(String description, String counter) {
+      this.description = description;
+      this.counter = counter;
+    }
+
+    @Override
+    public String toString() {
+      return description;
+    }
+  }
+
+  /**
+   * Counts the file entries compared and the compressed bytes not read, per {@link Comparison}.
+   */
+  private static final class ComparisonStats {
+
+    private final long[] counts = new long[Comparison.values().length];
+    private final long[] bytesNotRead = new long[Comparison.values().length];
+
+    /**
+     * The bytes read to compare content, compressed or uncompressed.  Entries are counted in full, even when the
+     * comparison ends at the first difference.
+     */
+    private long bytesCompared;
+
+    /**
+     * The compressed bytes read only to compute digests.
+     */
+    private long bytesDigested;
+
+    private long cacheMisses;
+
+    private void add(Comparison comparison, long notRead) {
+      counts[comparison.ordinal()]++;
+      bytesNotRead[comparison.ordinal()] += notRead;
+    }
+
+    private boolean isEmpty() {
+      for (long count : counts) {
+        if (count != 0) {
+          return false;
         }
       }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("Compared files:");
+      long totalNotRead = 0;
+      for (Comparison comparison : Comparison.values()) {
+        int i = comparison.ordinal();
+        if (counts[i] != 0) {
+          sb.append(' ').append(counts[i]).append(' ').append(comparison);
+          if (bytesNotRead[i] != 0) {
+            sb.append(" (").append(bytesNotRead[i]).append(" bytes not read)");
+          }
+          sb.append(',');
+          totalNotRead += bytesNotRead[i];
+        }
+      }
+      sb.setLength(sb.length() - 1);
+      return sb.append("; ").append(totalNotRead).append(" bytes not read in total").toString();
+    }
+
+    private void report(MetricsListener metrics, File artifact) {
+      long totalNotRead = 0;
+      for (Comparison comparison : Comparison.values()) {
+        int i = comparison.ordinal();
+        metrics.count(artifact, comparison.counter, counts[i]);
+        totalNotRead += bytesNotRead[i];
+      }
+      metrics.count(artifact, "bytesNotRead", totalNotRead);
+      metrics.count(artifact, "bytesCompared", bytesCompared);
+      metrics.count(artifact, "bytesDigested", bytesDigested);
+      metrics.count(artifact, "cacheMisses", cacheMisses);
     }
-    debug.accept(() -> "Children of " + directory + ": " + children);
-    return children;
   }
 
   /**
-   * Implementation of {@link #mergeFile(java.time.Instant, boolean, java.io.File, java.io.File)}
+   * Compares the uncompressed content of two entries.
+   *
+   * @param buildDigest  When not {@code null}, is updated with all the compressed content of the build entry.  This is
+   *                     digested while compared when possible.
+   */
+  private static boolean contentEquals(ComparisonStats comparisonStats, ZipFile buildZipFile,
+      ZipArchiveEntry buildEntry, ZipFile lastBuildZipFile, ZipArchiveEntry lastBuildEntry, MessageDigest buildDigest)
+      throws IOException {
+    int buildMethod = buildEntry.getMethod();
+    int lastBuildMethod = lastBuildEntry.getMethod();
+    boolean contentMatches;
+    if (buildMethod != -1 && buildMethod == lastBuildMethod) {
+      // Try shortcut of comparing compressed form
+      comparisonStats.bytesCompared += buildEntry.getCompressedSize() + lastBuildEntry.getCompressedSize();
+      try (
+          InputStream buildInput = buildDigest == null ? buildZipFile.getRawInputStream(buildEntry)
+              : new DigestInputStream(buildZipFile.getRawInputStream(buildEntry), buildDigest);
+          InputStream lastBuildInput = lastBuildZipFile.getRawInputStream(lastBuildEntry)) {
+        contentMatches = IOUtils.contentEquals(buildInput, lastBuildInput);
+        if (buildDigest != null) {
+          // Digest the remainder after the first difference
+          IOUtils.consume(buildInput);
+        }
+      }
+    } else {
+      contentMatches = false;
+      if (buildDigest != null) {
+        comparisonStats.bytesDigested += buildEntry.getCompressedSize();
+        try (InputStream buildInput = new DigestInputStream(buildZipFile.getRawInputStream(buildEntry), buildDigest)) {
+          IOUtils.consume(buildInput);
+        }
+      }
+    }
+    if (!contentMatches && buildMethod != ZipEntry.STORED) {
+      // Compare decompressed forms to be precise (in case of compression method that is not one-for-one
+      // mapping from decompressed to compressed forms)
+      comparisonStats.bytesCompared += buildEntry.getSize() + lastBuildEntry.getSize();
+      try (
+          InputStream buildInput = buildZipFile.getInputStream(buildEntry);
+          InputStream lastBuildInput = lastBuildZipFile.getInputStream(lastBuildEntry)) {
+        contentMatches = IOUtils.contentEquals(buildInput, lastBuildInput);
+      }
+    }
+    return contentMatches;
+  }
+
+  /**
+   * Implementation of {@link #mergeFile(java.time.Instant, boolean, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
    * with provided logging.
+   *
+   * <p>Reports the phases {@code "readCentralDirectory"}, {@code "reproducible"}, {@code "compare"}, {@code "patch"},
+   * and {@code "total"}.</p>
+   *
+   * @param cachedEntries     The cached entries of the last build or {@code null} when not caching
+   * @param newCachedEntries  Receives the cached entries of the merged build or {@code null} when not caching
    */
   private static void mergeFile(
       long currentTime,
@@ -430,10 +810,18 @@ public final class ZipTimestampMerge {
       boolean buildReproducible,
       File lastBuildArtifact,
       File buildArtifact,
+      boolean sync,
+      boolean trustCrc,
+      Map<String, ZipTimestampMergeCache.Entry> cachedEntries,
+      Map<String, ZipTimestampMergeCache.Entry> newCachedEntries,
+      MetricsListener metrics,
       Consumer<Supplier<String>> debug,
       Consumer<Supplier<String>> info,
       Consumer<Supplier<String>> warn
   ) throws IOException {
+    JfrEvents.ArtifactMerge mergeEvent = new JfrEvents.ArtifactMerge();
+    mergeEvent.begin();
+    final long startNanos = System.nanoTime();
     info.accept(() -> "Merging timestamps from " + lastBuildArtifact + " into " + buildArtifact);
     // Validate
     Objects.requireNonNull(outputTimestamp, "outputTimestamp required");
@@ -445,16 +833,29 @@ public final class ZipTimestampMerge {
     debug.accept(() -> "Reading buildArtifact: " + buildArtifact);
     String reproducibleLogPrefix = buildReproducible ? "patch non-reproducible: " : "validate reproducible: ";
     int buildEntryCount = 0;
+    int newEntryCount = 0;
+    int updatedCount = 0;
+    int patchedCount = 0;
+    int patchWrites = 0;
+    ComparisonStats comparisonStats = new ComparisonStats();
+    long reproducibleStartNanos;
+    long compareStartNanos;
+    long patchStartNanos;
+    // The build artifact is opened and its central directory read only once, with times maintained in-memory
     try (ZipFile buildZipFile = new ZipFile(buildArtifact)) {
+      CentralDirectory centralDirectory = readCentralDirectory(debug, buildArtifact, buildZipFile);
+      reproducibleStartNanos = System.nanoTime();
       debug.accept(() -> reproducibleLogPrefix + buildArtifact);
       Enumeration<ZipArchiveEntry> buildEntries = buildZipFile.getEntriesInPhysicalOrder();
-      SortedMap<Long, CentralDirectoryEntry> centralDirectory = buildReproducible ? null :
-          readCentralDirectory(debug, buildArtifact, buildZipFile);
       while (buildEntries.hasMoreElements()) {
         ZipArchiveEntry buildEntry = buildEntries.nextElement();
         buildEntryCount++;
         // Verify time
         long buildEntryTime = getTimeUtc(buildArtifact, buildEntry);
+        if (buildEntryTime != centralDirectory.getTimeUtc(buildEntry)) {
+          throw new ZipException("Entry time does not match central directory DOS time, extended timestamp patching"
+              + " not implemented: " + buildArtifact + AT + buildEntry.getName());
+        }
         if (buildEntryTime != outputTimestampRounded) {
           if (buildReproducible) {
             throw new ZipException(reproducibleLogPrefix + "Mismatched entry.time: expected " + outputTimestampRounded + " ("
@@ -474,24 +875,28 @@ public final class ZipTimestampMerge {
           }
         }
       }
-    }
-    // Apply reproducible patches now
-    if (!patches.isEmpty()) {
-      assert !buildReproducible;
-      applyPatches(reproducibleLogPrefix, debug, info, patches, buildArtifact, buildEntryCount);
-      patches.clear();
-    }
-    debug.accept(() -> "Reading buildArtifact: " + buildArtifact);
-    try (ZipFile buildZipFile = new ZipFile(buildArtifact)) {
+      // Apply reproducible patches now
+      if (!patches.isEmpty()) {
+        assert !buildReproducible;
+        patchWrites += applyPatches(reproducibleLogPrefix, debug, info, patches, buildArtifact, buildEntryCount, sync);
+        patchedCount += patches.size() / 2;
+        centralDirectory.patchesApplied(patches);
+        patches.clear();
+      }
+      compareStartNanos = System.nanoTime();
       debug.accept(() -> "Reading lastBuildArtifact: " + lastBuildArtifact);
       try (ZipFile lastBuildZipFile = new ZipFile(lastBuildArtifact)) {
-        Enumeration<ZipArchiveEntry> buildEntries = buildZipFile.getEntriesInPhysicalOrder();
-        SortedMap<Long, CentralDirectoryEntry> centralDirectory =
-            readCentralDirectory(debug, buildArtifact, buildZipFile);
+        // Created when first needed
+        DirectChildren buildDirectChildren = null;
+        DirectChildren lastBuildDirectChildren = null;
+        buildEntries = buildZipFile.getEntriesInPhysicalOrder();
         while (buildEntries.hasMoreElements()) {
           ZipArchiveEntry buildEntry = buildEntries.nextElement();
           debug.accept(() -> "buildEntry: " + buildEntry);
           String entryName = buildEntry.getName();
+          // The digest of the compressed build content, once read
+          byte[] buildDigest = null;
+          long resolvedTime;
           Iterator<ZipArchiveEntry> lastBuildEntriesIterator = lastBuildZipFile.getEntries(entryName).iterator();
           if (lastBuildEntriesIterator.hasNext()) {
             ZipArchiveEntry lastBuildEntry = lastBuildEntriesIterator.next();
@@ -500,8 +905,11 @@ public final class ZipTimestampMerge {
             }
             assert buildEntry.isDirectory() == lastBuildEntry.isDirectory();
             debug.accept(() -> "lastBuildEntry: " + lastBuildEntry);
+            JfrEvents.EntryCompare compareEvent = new JfrEvents.EntryCompare();
+            compareEvent.begin();
+            long bytesComparedBefore = comparisonStats.bytesCompared + comparisonStats.bytesDigested;
             // If timestamps already match, there would be nothing to even patch
-            long buildEntryTime = getTimeUtc(buildArtifact, buildEntry);
+            long buildEntryTime = centralDirectory.getTimeUtc(buildEntry);
             if (buildEntryTime > currentTimeRounded) {
               warn.accept(() -> "buildEntry(" + buildEntry + ".time (" + new Date(buildEntryTime)
                   + " in future");
@@ -512,13 +920,22 @@ public final class ZipTimestampMerge {
                   + " in future");
             }
             boolean updated;
+            // Remains null for directories
+            Comparison comparison = null;
             if (buildEntry.getSize() != lastBuildEntry.getSize()) {
               updated = true;
+              if (!buildEntry.isDirectory()) {
+                comparison = Comparison.SIZE;
+              }
             } else if (buildEntry.isDirectory()) {
               assert buildEntry.getSize() == 0;
               // A directory is modified only when an immediate child entry is added or removed
-              SortedSet<String> buildChildren = getDirectChildren(debug, buildZipFile, buildEntry);
-              SortedSet<String> lastBuildChildren = getDirectChildren(debug, lastBuildZipFile, lastBuildEntry);
+              if (buildDirectChildren == null) {
+                buildDirectChildren = new DirectChildren(buildZipFile);
+                lastBuildDirectChildren = new DirectChildren(lastBuildZipFile);
+              }
+              SortedSet<String> buildChildren = getDirectChildren(debug, buildDirectChildren, buildEntry);
+              SortedSet<String> lastBuildChildren = getDirectChildren(debug, lastBuildDirectChildren, lastBuildEntry);
               if (buildChildren.equals(lastBuildChildren)) {
                 updated = false;
               } else {
@@ -558,31 +975,77 @@ public final class ZipTimestampMerge {
                 }
               }
             } else {
-              int buildMethod = buildEntry.getMethod();
-              int lastBuildMethod = lastBuildEntry.getMethod();
-              boolean contentMatches;
-              if (buildMethod != -1 && buildMethod == lastBuildMethod) {
-                // Try shortcut of comparing compressed form
-                try (
-                    InputStream buildInput = buildZipFile.getRawInputStream(buildEntry);
-                    InputStream lastBuildInput = lastBuildZipFile.getRawInputStream(lastBuildEntry)) {
-                  contentMatches = IOUtils.contentEquals(buildInput, lastBuildInput);
-                }
+              long buildCrc = buildEntry.getCrc();
+              long lastBuildCrc = lastBuildEntry.getCrc();
+              ZipTimestampMergeCache.Entry cachedEntry = cachedEntries == null ? null : cachedEntries.get(entryName);
+              boolean cacheMatches = cachedEntry != null && cachedEntry.matches(lastBuildEntry, lastBuildEntryTime);
+              if (buildCrc != -1 && lastBuildCrc != -1 && buildCrc != lastBuildCrc) {
+                comparison = Comparison.CRC;
+                updated = true;
+              } else if (trustCrc && buildCrc != -1 && buildCrc == lastBuildCrc
+                  && buildEntry.getMethod() == lastBuildEntry.getMethod()) {
+                comparison = Comparison.TRUSTED_CRC;
+                updated = false;
               } else {
-                contentMatches = false;
-              }
-              if (!contentMatches && buildMethod != ZipEntry.STORED) {
-                // Compare decompressed forms to be precise (in case of compression method that is not one-for-one
-                // mapping from decompressed to compressed forms)
-                try (
-                    InputStream buildInput = buildZipFile.getInputStream(buildEntry);
-                    InputStream lastBuildInput = lastBuildZipFile.getInputStream(lastBuildEntry)) {
-                  contentMatches = IOUtils.contentEquals(buildInput, lastBuildInput);
+                if (cacheMatches && buildCrc != -1 && cachedEntry.matches(buildEntry)) {
+                  // Last build entry is as cached, compare to the cached digest without reading the last build
+                  comparisonStats.bytesDigested += buildEntry.getCompressedSize();
+                  try (InputStream buildInput = buildZipFile.getRawInputStream(buildEntry)) {
+                    buildDigest = ZipTimestampMergeCache.digest(buildInput);
+                  }
+                  if (cachedEntry.digestEquals(buildDigest)) {
+                    comparison = Comparison.CACHED_DIGEST;
+                  }
+                }
+                if (comparison == Comparison.CACHED_DIGEST) {
+                  updated = false;
+                } else {
+                  if (cachedEntries != null) {
+                    debug.accept(() -> "cache miss: " + lastBuildEntry);
+                    comparisonStats.cacheMisses++;
+                  }
+                  comparison = Comparison.CONTENT;
+                  MessageDigest contentDigest = newCachedEntries != null && buildDigest == null
+                      ? ZipTimestampMergeCache.newDigest() : null;
+                  updated = !contentEquals(comparisonStats, buildZipFile, buildEntry, lastBuildZipFile, lastBuildEntry,
+                      contentDigest);
+                  if (contentDigest != null) {
+                    buildDigest = contentDigest.digest();
+                  }
                 }
               }
-              updated = !contentMatches;
             }
             debug.accept(() -> "updated: " + updated);
+            if (updated) {
+              updatedCount++;
+            }
+            if (comparison != null) {
+              long notRead;
+              switch (comparison) {
+                case SIZE:
+                case CRC:
+                case TRUSTED_CRC:
+                  notRead = buildEntry.getCompressedSize() + lastBuildEntry.getCompressedSize();
+                  break;
+                case CACHED_DIGEST:
+                  notRead = lastBuildEntry.getCompressedSize();
+                  break;
+                default:
+                  notRead = 0;
+              }
+              Comparison comparisonFinal = comparison;
+              debug.accept(() -> "compared " + comparisonFinal + ", " + notRead + " bytes not read");
+              comparisonStats.add(comparison, notRead);
+              if (compareEvent.shouldCommit()) {
+                compareEvent.buildArtifact = buildArtifact.getPath();
+                compareEvent.entry = entryName;
+                compareEvent.tier = comparison.name();
+                compareEvent.bytesCompared = comparisonStats.bytesCompared + comparisonStats.bytesDigested
+                    - bytesComparedBefore;
+                compareEvent.updated = updated;
+                compareEvent.commit();
+              }
+            }
             long expectedTime;
             if (updated) {
               if (lastBuildEntryTime < buildEntryTime) {
@@ -601,15 +1064,48 @@ public final class ZipTimestampMerge {
             } else {
               debug.accept(() -> "entry already at expected timestamp: " + buildEntry);
             }
+            resolvedTime = expectedTime;
           } else {
             info.accept(() -> "New entry not found in last build: " + buildEntry);
+            newEntryCount++;
+            resolvedTime = centralDirectory.getTimeUtc(buildEntry);
           }
+          // Only entries read while compared are cached
+          if (newCachedEntries != null && buildDigest != null) {
+            newCachedEntries.put(entryName, new ZipTimestampMergeCache.Entry(buildEntry.getSize(), buildEntry.getCrc(),
+                resolvedTime, buildEntry.getMethod(), buildDigest));
+          }
+        }
+        if (!comparisonStats.isEmpty()) {
+          info.accept(comparisonStats::toString);
         }
       }
+      patchStartNanos = System.nanoTime();
     }
     if (!patches.isEmpty()) {
       // Patch in-place
-      applyPatches("patch buildArtifact: ", debug, info, patches, buildArtifact, buildEntryCount);
+      patchWrites += applyPatches("patch buildArtifact: ", debug, info, patches, buildArtifact, buildEntryCount, sync);
+      patchedCount += patches.size() / 2;
+    }
+    long endNanos = System.nanoTime();
+    metrics.count(buildArtifact, "entries", buildEntryCount);
+    metrics.count(buildArtifact, "newEntries", newEntryCount);
+    metrics.count(buildArtifact, "updatedEntries", updatedCount);
+    comparisonStats.report(metrics, buildArtifact);
+    metrics.count(buildArtifact, "patchedEntries", patchedCount);
+    metrics.count(buildArtifact, "patchWrites", patchWrites);
+    metrics.time(buildArtifact, "readCentralDirectory", reproducibleStartNanos - startNanos);
+    metrics.time(buildArtifact, "reproducible", compareStartNanos - reproducibleStartNanos);
+    metrics.time(buildArtifact, "compare", patchStartNanos - compareStartNanos);
+    metrics.time(buildArtifact, "patch", endNanos - patchStartNanos);
+    metrics.time(buildArtifact, "total", endNanos - startNanos);
+    if (mergeEvent.shouldCommit()) {
+      mergeEvent.buildArtifact = buildArtifact.getPath();
+      mergeEvent.lastBuildArtifact = lastBuildArtifact.getPath();
+      mergeEvent.entries = buildEntryCount;
+      mergeEvent.updatedEntries = updatedCount;
+      mergeEvent.patchedEntries = patchedCount;
+      mergeEvent.commit();
     }
   }
 
@@ -623,12 +1119,15 @@ public final class ZipTimestampMerge {
    * @param buildReproducible See {@link ZipTimestampMergeTask#setBuildReproducible(boolean)}
    * @param lastBuildArtifact The ZIP file from the last successful build
    * @param buildArtifact     The ZIP file from the current build
+   * @param metrics           Receives the metrics of {@code buildArtifact} or {@code null} for none.
+   *                          See {@link ZipTimestampMergeTask#setMetricsFile(java.lang.String)}.
    */
   public static void mergeFile(
       Instant outputTimestamp,
       boolean buildReproducible,
       File lastBuildArtifact,
-      File buildArtifact
+      File buildArtifact,
+      MetricsListener metrics
   ) throws IOException {
     ZipTimestampMerge.mergeFile(
         System.currentTimeMillis(),
@@ -636,12 +1135,32 @@ public final class ZipTimestampMerge {
         buildReproducible,
         lastBuildArtifact,
         buildArtifact,
+        false,
+        false,
+        null,
+        null,
+        metrics == null ? MetricsListener.NONE : metrics,
         logger::fine,
         logger::info,
         logger::warning
     );
   }
 
+  /**
+   * Creates a ZIP file with contents matching {@code buildArtifact} but with timestamps derived from
+   * {@code lastBuildArtifact}, without metrics.
+   *
+   * @see #mergeFile(java.time.Instant, boolean, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)
+   */
+  public static void mergeFile(
+      Instant outputTimestamp,
+      boolean buildReproducible,
+      File lastBuildArtifact,
+      File buildArtifact
+  ) throws IOException {
+    mergeFile(outputTimestamp, buildReproducible, lastBuildArtifact, buildArtifact, null);
+  }
+
   /**
    * Artifacts are identified by {@code (artifactId, classifier, type)}.
    */
@@ -775,7 +1294,106 @@ public final class ZipTimestampMerge {
   }
 
   /**
-   * Implementation of {@link #mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File)}
+   * Buffers the log messages of a single artifact, so that messages from artifacts merged concurrently are not
+   * interleaved.  Only used for info and warning messages, since debug messages are evaluated when buffered and would
+   * otherwise be held in memory even when not logged.
+   */
+  private static final class BufferedLog {
+
+    private static final class Message {
+
+      private final Consumer<Supplier<String>> log;
+      private final String message;
+
+      private Message(Consumer<Supplier<String>> log, String message) {
+        this.log = log;
+        this.message = message;
+      }
+    }
+
+    private final List<Message> messages = new ArrayList<>();
+
+    /**
+     * Gets a logger that buffers messages to the given log.  Messages are evaluated immediately.
+     */
+    private Consumer<Supplier<String>> buffer(Consumer<Supplier<String>> log) {
+      return msg -> {
+        Message message = new Message(log, msg.get());
+        synchronized (messages) {
+          messages.add(message);
+        }
+      };
+    }
+
+    /**
+     * Writes all buffered messages, in the order logged.
+     */
+    private void flush() {
+      synchronized (messages) {
+        for (Message message : messages) {
+          message.log.accept(() -> message.message);
+        }
+        messages.clear();
+      }
+    }
+  }
+
+  /**
+   * Merges a single artifact found in the build directory.
+   *
+   * @param cache     The cache read before merging or {@code null} when not caching
+   * @param newCache  Receives the cached entries of the merged artifact or {@code null} when not caching
+   */
+  private static void mergeArtifact(
+      long currentTime,
+      Instant outputTimestamp,
+      boolean buildReproducible,
+      boolean requireLastBuild,
+      File lastBuildDirectory,
+      Identifier identifier,
+      File buildArtifact,
+      File lastBuildArtifact,
+      boolean sync,
+      boolean trustCrc,
+      ZipTimestampMergeCache cache,
+      ZipTimestampMergeCache newCache,
+      MetricsListener metrics,
+      Consumer<Supplier<String>> debug,
+      Consumer<Supplier<String>> info,
+      Consumer<Supplier<String>> warn
+  ) throws IOException {
+    debug.accept(() -> identifier + ": buildArtifact: " + buildArtifact);
+    if (lastBuildArtifact != null) {
+      debug.accept(() -> identifier + ": lastBuildArtifact: " + lastBuildArtifact);
+      String cacheKey = identifier.toString();
+      Map<String, ZipTimestampMergeCache.Entry> newCachedEntries = newCache == null ? null : new HashMap<>();
+      mergeFile(
+          currentTime,
+          outputTimestamp,
+          buildReproducible,
+          lastBuildArtifact,
+          buildArtifact,
+          sync,
+          trustCrc,
+          cache == null ? null : cache.getEntries(cacheKey),
+          newCachedEntries,
+          metrics,
+          // Prepend identifier on log messages
+          msg -> debug.accept(() -> identifier + ": " + msg.get()),
+          msg -> info.accept(() -> identifier + ": " + msg.get()),
+          msg -> warn.accept(() -> identifier + ": " + msg.get())
+      );
+      if (newCache != null) {
+        newCache.putEntries(cacheKey, newCachedEntries);
+      }
+    } else {
+      assert !requireLastBuild : "one-to-one mapping already enforced";
+      warn.accept(() -> identifier + ": not found in lastBuildDirectory: " + lastBuildDirectory);
+    }
+  }
+
+  /**
+   * Implementation of {@link #mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}
    * with provided logging.
    */
   static void mergeDirectory(
@@ -784,13 +1402,29 @@ public final class ZipTimestampMerge {
       boolean requireLastBuild,
       File lastBuildDirectory,
       File buildDirectory,
+      int threads,
+      boolean sync,
+      File cacheFile,
+      boolean trustCrc,
+      MetricsListener metrics,
       Consumer<Supplier<String>> debug,
       Consumer<Supplier<String>> info,
       Consumer<Supplier<String>> warn
   ) throws IOException, ParseException {
     // Validate
     Objects.requireNonNull(outputTimestamp, "outputTimestamp required");
+    int numThreads = Threads.getThreads(threads);
     long currentTime = System.currentTimeMillis();
+    ZipTimestampMergeCache cache;
+    ZipTimestampMergeCache newCache;
+    if (cacheFile != null) {
+      debug.accept(() -> "Reading cacheFile: " + cacheFile);
+      cache = ZipTimestampMergeCache.read(cacheFile, warn);
+      newCache = new ZipTimestampMergeCache();
+    } else {
+      cache = null;
+      newCache = null;
+    }
     // Find artifacts
     Map<Identifier, File> lastBuildArtifacts = findArtifacts("lastBuildDirectory", lastBuildDirectory, requireLastBuild);
     Map<Identifier, File> buildArtifacts = findArtifacts("buildDirectory", buildDirectory, true);
@@ -827,30 +1461,57 @@ public final class ZipTimestampMerge {
         throw new IOException(message.toString());
       }
     }
-    // Perform for each artifact
-    for (Map.Entry<Identifier, File> buildEntry : buildArtifacts.entrySet()) {
-      Identifier identifier = buildEntry.getKey();
-      File buildArtifact = buildEntry.getValue();
-      debug.accept(() -> identifier + ": buildArtifact: " + buildArtifact);
-      File lastBuildArtifact = lastBuildArtifacts.get(identifier);
-      if (lastBuildArtifact != null) {
-        debug.accept(() -> identifier + ": lastBuildArtifact: " + lastBuildArtifact);
-        mergeFile(
-            currentTime,
-            outputTimestamp,
-            buildReproducible,
-            lastBuildArtifact,
-            buildArtifact,
-            // Prepend identifier on log messages
-            msg -> debug.accept(() -> identifier + ": " + msg.get()),
-            msg -> info.accept(() -> identifier + ": " + msg.get()),
-            msg -> warn.accept(() -> identifier + ": " + msg.get())
-        );
-      } else {
-        assert !requireLastBuild : "one-to-one mapping already enforced";
-        warn.accept(() -> identifier + ": not found in lastBuildDirectory: " + lastBuildDirectory);
+    if (numThreads == 1 || buildArtifacts.size() <= 1) {
+      // Perform for each artifact
+      for (Map.Entry<Identifier, File> buildEntry : buildArtifacts.entrySet()) {
+        Identifier identifier = buildEntry.getKey();
+        mergeArtifact(currentTime, outputTimestamp, buildReproducible, requireLastBuild, lastBuildDirectory,
+            identifier, buildEntry.getValue(), lastBuildArtifacts.get(identifier), sync, trustCrc, cache, newCache, metrics,
+            debug, info, warn);
+      }
+    } else {
+      // Perform concurrently, logging in the same order as when sequential
+      int poolSize = Math.min(numThreads, buildArtifacts.size());
+      debug.accept(() -> "Merging with " + poolSize + " threads");
+      ExecutorService executor = Threads.newFixedThreadPool(poolSize, ZipTimestampMerge.class.getSimpleName(), true);
+      List<Future<?>> futures = new ArrayList<>(buildArtifacts.size());
+      List<BufferedLog> logs = new ArrayList<>(buildArtifacts.size());
+      int flushed = 0;
+      try {
+        for (Map.Entry<Identifier, File> buildEntry : buildArtifacts.entrySet()) {
+          Identifier identifier = buildEntry.getKey();
+          File buildArtifact = buildEntry.getValue();
+          File lastBuildArtifact = lastBuildArtifacts.get(identifier);
+          BufferedLog log = new BufferedLog();
+          logs.add(log);
+          futures.add(executor.submit(() -> {
+            // Debug is not buffered, since mergeArtifact already prefixes each message with the identifier
+            mergeArtifact(currentTime, outputTimestamp, buildReproducible, requireLastBuild, lastBuildDirectory,
+                identifier, buildArtifact, lastBuildArtifact, sync, trustCrc, cache, newCache, metrics,
+                debug, log.buffer(info), log.buffer(warn));
+            return null;
+          }));
+        }
+        while (flushed < futures.size()) {
+          try {
+            Threads.get(futures.get(flushed));
+          } finally {
+            logs.get(flushed++).flush();
+          }
+        }
+      } finally {
+        // Wait for any artifacts still being merged, which may be modifying files in-place
+        Threads.shutdown(executor, futures);
+        while (flushed < logs.size()) {
+          logs.get(flushed++).flush();
+        }
       }
     }
+    // Only replace the cache once all artifacts are merged
+    if (newCache != null) {
+      debug.accept(() -> "Writing cacheFile: " + cacheFile);
+      newCache.write(cacheFile);
+    }
   }
 
   /**
@@ -871,14 +1532,56 @@ public final class ZipTimestampMerge {
    * When {@code requireLastBuild = true}, there must be a one-to-one mapping in both directions between
    * {@code lastBuildDirectory} and {@code buildDirectory}.  No file may be added or missing.</p>
    *
-   * <p>Each mappings are resolved, calls {@link #mergeFile(java.time.Instant, boolean, java.io.File, java.io.File)} for
-   * each pair of files.</p>
+   * <p>Each mappings are resolved, calls {@link #mergeFile(java.time.Instant, boolean, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)} for
+   * each pair of files.  Each pair is independent and may be merged concurrently, with the log messages of each
+   * artifact kept together and in the same order as when merged sequentially.</p>
    *
    * @param outputTimestamp    See {@link ZipTimestampMergeTask#setOutputTimestamp(java.lang.String)}
    * @param buildReproducible  See {@link ZipTimestampMergeTask#setBuildReproducible(boolean)}
    * @param requireLastBuild   See {@link ZipTimestampMergeTask#setRequireLastBuild(boolean)}
    * @param lastBuildDirectory See {@link ZipTimestampMergeTask#setLastBuildDirectory(java.lang.String)}
    * @param buildDirectory     See {@link ZipTimestampMergeTask#setBuildDirectory(java.lang.String)}
+   * @param threads            See {@link ZipTimestampMergeTask#setThreads(int)}
+   * @param sync               See {@link ZipTimestampMergeTask#setSync(boolean)}
+   * @param cacheFile          See {@link ZipTimestampMergeTask#setCacheFile(java.lang.String)}
+   * @param trustCrc           See {@link ZipTimestampMergeTask#setTrustCrc(boolean)}
+   * @param metrics            Receives the metrics of each artifact or {@code null} for none.
+   *                           See {@link ZipTimestampMergeTask#setMetricsFile(java.lang.String)}.
+   */
+  public static void mergeDirectory(
+      Instant outputTimestamp,
+      boolean buildReproducible,
+      boolean requireLastBuild,
+      File lastBuildDirectory,
+      File buildDirectory,
+      int threads,
+      boolean sync,
+      File cacheFile,
+      boolean trustCrc,
+      MetricsListener metrics
+  ) throws IOException, ParseException {
+    mergeDirectory(
+        outputTimestamp,
+        buildReproducible,
+        requireLastBuild,
+        lastBuildDirectory,
+        buildDirectory,
+        threads,
+        sync,
+        cacheFile,
+        trustCrc,
+        metrics == null ? MetricsListener.NONE : metrics,
+        logger::fine,
+        logger::info,
+        logger::warning
+    );
+  }
+
+  /**
+   * Merges all {@code *.aar}, {@code *.jar}, {@code *.war}, and {@code *.zip} files between {@code lastBuildDirectory}
+   * and {@code buildDirectory}, one artifact at a time.
+   *
+   * @see #mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)
    */
   public static void mergeDirectory(
       Instant outputTimestamp,
@@ -893,6 +1596,11 @@ public final class ZipTimestampMerge {
         requireLastBuild,
         lastBuildDirectory,
         buildDirectory,
+        1,
+        false,
+        null,
+        false,
+        MetricsListener.NONE,
         logger::fine,
         logger::info,
         logger::warning
@@ -0,0 +1,231 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Persistent cache of entry content digests, stored in a sidecar file between builds.
+ *
+ * <p>The size, CRC, resolved time, compression method, and digest of the compressed content are recorded for each entry
+ * read while merged.  Since the merged artifact is the last build of the next merge, a last build entry with the same
+ * size, CRC, and time is known to have the recorded digest without reading its content.  Only the build entry is then
+ * read, and only when its digest matches is it considered unchanged.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ZipTimestampMergeCache {
+
+  private static final int MAGIC = 0x5a544d43; // "ZTMC"
+
+  private static final int VERSION = 3;
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private static final int DIGEST_LENGTH = 32;
+
+  /**
+   * The cached state of a single entry.
+   */
+  static final class Entry {
+
+    private final long size;
+    private final long crc;
+    private final long time;
+    private final int method;
+    private final byte[] digest;
+
+    Entry(long size, long crc, long time, int method, byte[] digest) {
+      if (digest.length != DIGEST_LENGTH) {
+        throw new IllegalArgumentException("Unexpected digest length: " + digest.length);
+      }
+      this.size = size;
+      this.crc = crc;
+      this.time = time;
+      this.method = method;
+      this.digest = digest;
+    }
+
+    /**
+     * Checks if this is the cached state of the given entry, by size, CRC, and time.
+     */
+    boolean matches(ZipArchiveEntry entry, long entryTime) {
+      return size == entry.getSize() && crc == entry.getCrc() && time == entryTime;
+    }
+
+    /**
+     * Checks if the given entry has the cached size, CRC, and compression method, and so may have the cached digest.
+     */
+    boolean matches(ZipArchiveEntry entry) {
+      return size == entry.getSize() && crc == entry.getCrc() && method == entry.getMethod();
+    }
+
+    /**
+     * Checks if the cached content has the given digest.
+     */
+    boolean digestEquals(byte[] otherDigest) {
+      return MessageDigest.isEqual(digest, otherDigest);
+    }
+  }
+
+  /**
+   * Creates a new digest of compressed content, as cached.
+   */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(DIGEST_ALGORITHM + " is required on all Java platforms", e);
+    }
+  }
+
+  /**
+   * Computes the digest of the given compressed content.
+   */
+  static byte[] digest(InputStream in) throws IOException {
+    MessageDigest md = newDigest();
+    IOUtils.consume(new DigestInputStream(in, md));
+    return md.digest();
+  }
+
+  /**
+   * Entries by name, by artifact identifier.
+   */
+  private final SortedMap<String, Map<String, Entry>> artifacts = new TreeMap<>();
+
+  ZipTimestampMergeCache() {
+    // Empty cache
+  }
+
+  /**
+   * Reads a cache file.  A cache file that does not exist, is of an unknown version, or is corrupt results in an empty
+   * cache, with a warning for the latter two.
+   */
+  static ZipTimestampMergeCache read(File cacheFile, Consumer<Supplier<String>> warn) throws IOException {
+    ZipTimestampMergeCache cache = new ZipTimestampMergeCache();
+    if (cacheFile.exists()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+        if (in.readInt() != MAGIC) {
+          warn.accept(() -> "Ignoring cacheFile with unexpected header: " + cacheFile);
+          return new ZipTimestampMergeCache();
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+          warn.accept(() -> "Ignoring cacheFile with unsupported version " + version + ": " + cacheFile);
+          return new ZipTimestampMergeCache();
+        }
+        int artifactCount = in.readInt();
+        for (int i = 0; i < artifactCount; i++) {
+          String identifier = in.readUTF();
+          int entryCount = in.readInt();
+          Map<String, Entry> entries = new HashMap<>(entryCount * 4 / 3 + 1);
+          for (int j = 0; j < entryCount; j++) {
+            String name = in.readUTF();
+            long size = in.readLong();
+            long crc = in.readLong();
+            long time = in.readLong();
+            int method = in.readInt();
+            byte[] digest = new byte[DIGEST_LENGTH];
+            in.readFully(digest);
+            entries.put(name, new Entry(size, crc, time, method, digest));
+          }
+          cache.artifacts.put(identifier, entries);
+        }
+        if (in.read() != -1) {
+          throw new IOException("Unexpected data after last artifact");
+        }
+      } catch (IOException | RuntimeException e) {
+        warn.accept(() -> "Ignoring corrupt cacheFile: " + cacheFile + ": " + e);
+        return new ZipTimestampMergeCache();
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Gets the cached entries of the given artifact.
+   *
+   * @return  the entries by name or an empty map when none cached
+   */
+  synchronized Map<String, Entry> getEntries(String identifier) {
+    Map<String, Entry> entries = artifacts.get(identifier);
+    return entries == null ? Collections.emptyMap() : entries;
+  }
+
+  /**
+   * Sets the cached entries of the given artifact.
+   */
+  synchronized void putEntries(String identifier, Map<String, Entry> entries) {
+    artifacts.put(identifier, entries);
+  }
+
+  /**
+   * Writes this cache to the given file, replacing any existing file only after the new cache is fully written.
+   */
+  synchronized void write(File cacheFile) throws IOException {
+    AtomicFiles.write(cacheFile, out -> write(new DataOutputStream(out)));
+  }
+
+  /**
+   * Writes the content of this cache.
+   */
+  private void write(DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(artifacts.size());
+    for (Map.Entry<String, Map<String, Entry>> artifact : artifacts.entrySet()) {
+      out.writeUTF(artifact.getKey());
+      // Sorted for a consistent file between runs
+      SortedMap<String, Entry> entries = new TreeMap<>(artifact.getValue());
+      out.writeInt(entries.size());
+      for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+        Entry entry = mapEntry.getValue();
+        out.writeUTF(mapEntry.getKey());
+        out.writeLong(entry.size);
+        out.writeLong(entry.crc);
+        out.writeLong(entry.time);
+        out.writeInt(entry.method);
+        out.write(entry.digest);
+      }
+    }
+  }
+}
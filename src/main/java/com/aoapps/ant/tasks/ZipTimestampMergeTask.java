@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -33,7 +33,7 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.LogLevel;
 
 /**
- * Ant task that invokes {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File)}.
+ * Ant task that invokes {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}.
  *
  * <p>Note: This task should be performed before {@link GenerateJavadocSitemapTask} in order to have correct timestamps
  * inside the generated sitemaps.</p>
@@ -48,6 +48,11 @@ public class ZipTimestampMergeTask extends Task {
   private boolean requireLastBuild = true;
   private File lastBuildDirectory;
   private File buildDirectory;
+  private int threads = 1;
+  private boolean sync;
+  private File cacheFile;
+  private boolean trustCrc;
+  private File metricsFile;
 
   /**
    * The output timestamp used for entries that are found to be updated.
@@ -101,22 +106,85 @@ public class ZipTimestampMergeTask extends Task {
   }
 
   /**
-   * Calls {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File)}
+   * The number of artifacts to merge concurrently.  Uses virtual threads when available.
+   *
+   * <p>Defaults to {@code 1} (sequential).  Use {@code 0} for the number of available processors.</p>
+   */
+  public void setThreads(int threads) {
+    if (threads < 0) {
+      throw new BuildException("threads may not be negative: " + threads);
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * When enabled, each patched artifact is forced to storage with a single {@link java.nio.channels.FileChannel#force(boolean)}
+   * once its patches are applied.  Defaults to {@code false}.
+   */
+  public void setSync(boolean sync) {
+    this.sync = sync;
+  }
+
+  /**
+   * An optional file that caches the size, CRC, time, compression method, and SHA-256 digest of the compressed content
+   * of each entry read between builds.  When an entry of the last build is unchanged since it was cached, only the build
+   * entry is read and it is unchanged only when its digest matches.  The file is created when missing and is replaced
+   * after each successful merge.
+   *
+   * <p>This does not trust CRC: a build entry with the cached size and CRC but different content is still detected.</p>
+   *
+   * <p>Defaults to no cache.</p>
+   */
+  public void setCacheFile(String cacheFile) {
+    this.cacheFile = new File(cacheFile);
+  }
+
+  /**
+   * When enabled, file entries with equal CRC, size, and compression method are assumed to be unchanged without
+   * comparing their content.  Defaults to {@code false}, where only entries with different size or CRC are known to be
+   * changed without comparing their content.
+   */
+  public void setTrustCrc(boolean trustCrc) {
+    this.trustCrc = trustCrc;
+  }
+
+  /**
+   * An optional file that receives a JSON summary of the counters and per-phase timings of each artifact, as written by
+   * {@link MetricsSummary}.  The file is replaced once all artifacts are merged, so may be compared between builds to
+   * find which artifact and which phase dominates the build time.
+   *
+   * <p>Defaults to no summary.</p>
+   */
+  public void setMetricsFile(String metricsFile) {
+    this.metricsFile = new File(metricsFile);
+  }
+
+  /**
+   * Calls {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}
    * while logging to {@link #log(java.lang.String, int)}.
    */
   @Override
   public void execute() throws BuildException {
     try {
+      MetricsSummary metrics = metricsFile == null ? null : new MetricsSummary();
       ZipTimestampMerge.mergeDirectory(
           outputTimestamp,
           buildReproducible,
           requireLastBuild,
           lastBuildDirectory,
           buildDirectory,
+          threads,
+          sync,
+          cacheFile,
+          trustCrc,
+          metrics == null ? MetricsListener.NONE : metrics,
           msg -> log(msg.get(), LogLevel.DEBUG.getLevel()),
           msg -> log(msg.get(), LogLevel.INFO.getLevel()),
           msg -> log(msg.get(), LogLevel.WARN.getLevel())
       );
+      if (metrics != null) {
+        metrics.write(metricsFile);
+      }
     } catch (IOException | ParseException e) {
       throw new BuildException(e);
     }
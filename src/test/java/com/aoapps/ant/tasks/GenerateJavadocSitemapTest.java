@@ -0,0 +1,167 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.JavadocJarFixture.APIDOCS_URL;
+import static com.aoapps.ant.tasks.JavadocJarFixture.TIME;
+import static com.aoapps.ant.tasks.SeoJavadocFilter.NL;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link GenerateJavadocSitemap}.
+ */
+public class GenerateJavadocSitemapTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  private static int getStaticInt(String name) throws ReflectiveOperationException {
+    Field field = GenerateJavadocSitemap.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.getInt(null);
+  }
+
+  /**
+   * Gets the name of a numbered page, which is modified two seconds after the page before it.
+   */
+  private static String page(int index) {
+    return "page" + index + ".html";
+  }
+
+  /**
+   * Gets the time of a numbered page, in the two-second resolution of zip entries.
+   */
+  private static long pageTime(int index) {
+    return TIME + index * 2000L;
+  }
+
+  /**
+   * Tests {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)}
+   * splits the sitemap into parts of at most {@code SITEMAP_MAX_URLS}, most recent first, with each part modified at
+   * its most recent page.
+   */
+  @Test
+  public void testAddSitemapToJavadocJarSplit() throws IOException, ReflectiveOperationException {
+    int maxUrls = getStaticInt("SITEMAP_MAX_URLS");
+    int pages = maxUrls + 1;
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", "");
+    Map<String, Long> times = new LinkedHashMap<>();
+    times.put("META-INF/", TIME);
+    for (int i = 0; i < pages; i++) {
+      entries.put(page(i), JavadocJarFixture.page("Page" + i, "class-declaration-page"));
+      times.put(page(i), pageTime(i));
+    }
+    File jar = JavadocJarFixture.write(temporaryFolder.newFile("split.jar"), entries, times::get);
+    GenerateJavadocSitemap.addSitemapToJavadocJar(jar, APIDOCS_URL, false, null);
+    Map<String, byte[]> filtered = JavadocJarFixture.readEntries(jar);
+    assertFalse(filtered.containsKey("sitemap.xml"));
+    assertFalse(filtered.containsKey("sitemap-3.xml"));
+    // The first part has the most recent pages
+    String part1 = JavadocJarFixture.readEntry(jar, "sitemap-1.xml");
+    assertEquals(maxUrls, StringUtils.countMatches(part1, "<url>"));
+    assertTrue(part1.contains("<loc>" + APIDOCS_URL + page(pages - 1) + "</loc>" + NL
+        + "    <lastmod>" + Instant.ofEpochMilli(pageTime(pages - 1)) + "</lastmod>"));
+    assertTrue(part1.indexOf(page(pages - 1)) < part1.indexOf(page(1) + "<"));
+    assertFalse(part1.contains(page(0) + "<"));
+    // The second part has the oldest page
+    String part2 = JavadocJarFixture.readEntry(jar, "sitemap-2.xml");
+    assertEquals(1, StringUtils.countMatches(part2, "<url>"));
+    assertTrue(part2.contains("<loc>" + APIDOCS_URL + page(0) + "</loc>" + NL
+        + "    <lastmod>" + Instant.ofEpochMilli(pageTime(0)) + "</lastmod>"));
+    // The index lists each part at its most recent page
+    assertEquals(
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + NL
+            + "<!-- Generated by " + GenerateJavadocSitemap.class.getName() + " -->" + NL
+            + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">" + NL
+            + "  <sitemap>" + NL
+            + "    <loc>" + APIDOCS_URL + "sitemap-1.xml</loc>" + NL
+            + "    <lastmod>" + Instant.ofEpochMilli(pageTime(pages - 1)) + "</lastmod>" + NL
+            + "  </sitemap>" + NL
+            + "  <sitemap>" + NL
+            + "    <loc>" + APIDOCS_URL + "sitemap-2.xml</loc>" + NL
+            + "    <lastmod>" + Instant.ofEpochMilli(pageTime(0)) + "</lastmod>" + NL
+            + "  </sitemap>" + NL
+            + "</sitemapindex>" + NL,
+        JavadocJarFixture.readEntry(jar, "META-INF/" + GenerateJavadocSitemap.SITEMAP_INDEX_NAME));
+  }
+
+  /**
+   * Tests {@link GenerateJavadocSitemap#addSitemapToJavadocJar(java.io.File, java.lang.String, boolean, com.aoapps.ant.tasks.MetricsListener)}
+   * stores a reproducible gzip sitemap, without modification time and with an unknown operating system.
+   */
+  @Test
+  public void testAddSitemapToJavadocJarGzip() throws IOException, ReflectiveOperationException {
+    File directory = temporaryFolder.newFolder("gzip");
+    Map<String, String> entries = JavadocJarFixture.entries();
+    File plain = JavadocJarFixture.write(new File(directory, "plain.jar"), entries);
+    File gzip1 = JavadocJarFixture.copy(plain, new File(directory, "gzip1.jar"));
+    File gzip2 = JavadocJarFixture.copy(plain, new File(directory, "gzip2.jar"));
+    GenerateJavadocSitemap.addSitemapToJavadocJar(plain, APIDOCS_URL, false, null);
+    GenerateJavadocSitemap.addSitemapToJavadocJar(gzip1, APIDOCS_URL, true, null);
+    GenerateJavadocSitemap.addSitemapToJavadocJar(gzip2, APIDOCS_URL, true, null);
+    assertArrayEquals(JavadocJarFixture.read(gzip1), JavadocJarFixture.read(gzip2));
+    // Stored since already compressed
+    try (ZipFile zipFile = new ZipFile(gzip1)) {
+      assertNull(zipFile.getEntry("sitemap.xml"));
+      ZipArchiveEntry zipEntry = zipFile.getEntry("sitemap.xml.gz");
+      assertNotNull(zipEntry);
+      assertEquals(ZipEntry.STORED, zipEntry.getMethod());
+    }
+    byte[] gzipped = JavadocJarFixture.readEntries(gzip1).get("sitemap.xml.gz");
+    assertEquals(0x1f, gzipped[0] & 0xff);
+    assertEquals(0x8b, gzipped[1] & 0xff);
+    // MTIME
+    assertEquals(0, gzipped[4] | gzipped[5] | gzipped[6] | gzipped[7]);
+    // OS
+    assertEquals(getStaticInt("GZIP_OS_UNKNOWN"), gzipped[9] & 0xff);
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertEquals(JavadocJarFixture.readEntry(plain, "sitemap.xml"), IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+  }
+}
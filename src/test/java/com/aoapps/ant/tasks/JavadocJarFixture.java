@@ -0,0 +1,226 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.SeoJavadocFilter.NL;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.zip.ZipEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Small Javadoc JAR files for tests, written to temporary files.
+ */
+final class JavadocJarFixture {
+
+  /** Make no instances. */
+  private JavadocJarFixture() {
+    throw new AssertionError();
+  }
+
+  static final String APIDOCS_URL = "https://oss.example.com/fixture/apidocs/";
+
+  static final List<String> NOFOLLOW = Collections.singletonList("https://docs.oracle.com/");
+
+  static final List<String> FOLLOW = Collections.singletonList(SeoJavadocFilter.ANY_URL);
+
+  static final String GOOGLE_ANALYTICS_TRACKING_ID = "G-FIXTURE1";
+
+  /**
+   * The time of all entries, unless otherwise given.
+   */
+  static final long TIME = Instant.parse("2024-01-02T03:04:06Z").toEpochMilli();
+
+  /**
+   * The number of class pages in {@link #entries()}.
+   */
+  static final int CLASSES = 20;
+
+  /**
+   * Generates an HTML page as written by Javadoc, with the given lines of the body.
+   */
+  static String page(String title, String bodyClass, String... bodyLines) {
+    StringBuilder page = new StringBuilder();
+    page.append("<!DOCTYPE HTML>").append(NL);
+    page.append("<html lang=\"en\">").append(NL);
+    page.append("<head>").append(NL);
+    page.append("<title>").append(title).append("</title>").append(NL);
+    page.append("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">").append(NL);
+    page.append("</head>").append(NL);
+    page.append("<body class=\"").append(bodyClass).append("\">").append(NL);
+    for (String bodyLine : bodyLines) {
+      page.append(bodyLine).append(NL);
+    }
+    page.append("</body>").append(NL);
+    page.append("</html>").append(NL);
+    return page.toString();
+  }
+
+  /**
+   * Gets the name of a class page in {@link #entries()}.
+   */
+  static String classPage(int index) {
+    return "com/example/Example" + index + ".html";
+  }
+
+  /**
+   * Generates the entries of a small Javadoc JAR, in physical order.  Directory entries end in a slash and have empty
+   * content.  Each class page links to its package, to the next class, to the noindex class index, and to Java SE.
+   */
+  static Map<String, String> entries() {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", "");
+    entries.put("allclasses-index.html", page("All Classes", "all-classes-index-page",
+        "<a href=\"com/example/Example0.html\">Example0</a>"));
+    entries.put("com/", "");
+    entries.put("com/example/", "");
+    entries.put("com/example/package-summary.html", page("com.example", "package-declaration-page",
+        "<a href=\"Example0.html\">Example0</a>",
+        "<a href=\"../../index.html\">Overview</a>"));
+    for (int i = 0; i < CLASSES; i++) {
+      entries.put(classPage(i), page("Example" + i, "class-declaration-page",
+          "<a href=\"package-summary.html\">Package</a>",
+          "<a href=\"Example" + ((i + 1) % CLASSES) + ".html\">Next</a>",
+          "<a href=\"../../allclasses-index.html\">All Classes</a> <a href=\"#method-summary\">Methods</a>",
+          "<a href=\"https://docs.oracle.com/en/java/javase/11/docs/api/java.base/java/lang/Object.html\">Object</a>",
+          "<a rel=\"nofollow\" href=\"https://www.example.com/\">Example</a>"));
+    }
+    entries.put("element-list", "com.example" + NL);
+    entries.put("index.html", page("Overview", "package-index-page",
+        "<a href=\"com/example/package-summary.html\">com.example</a>"));
+    entries.put("stylesheet.css", "body {}" + NL);
+    return entries;
+  }
+
+  /**
+   * Writes a JAR file with the given entries, all at {@link #TIME}.
+   */
+  static File write(File jar, Map<String, String> entries) throws IOException {
+    return write(jar, entries, name -> TIME);
+  }
+
+  /**
+   * Writes a JAR file with the given entries and times.
+   */
+  static File write(File jar, Map<String, String> entries, ToLongFunction<String> times) throws IOException {
+    try (ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(jar)) {
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        String name = entry.getKey();
+        ZipArchiveEntry zipEntry = new ZipArchiveEntry(name);
+        zipEntry.setTime(times.applyAsLong(name));
+        if (!zipEntry.isDirectory()) {
+          zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+        zipOut.putArchiveEntry(zipEntry);
+        zipOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        zipOut.closeArchiveEntry();
+      }
+    }
+    return jar;
+  }
+
+  /**
+   * Copies a JAR file.
+   */
+  static File copy(File from, File to) throws IOException {
+    Files.copy(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    return to;
+  }
+
+  /**
+   * Reads the bytes of a file.
+   */
+  static byte[] read(File file) throws IOException {
+    return Files.readAllBytes(file.toPath());
+  }
+
+  /**
+   * Reads the uncompressed content of each entry, in physical order.
+   */
+  static Map<String, byte[]> readEntries(File jar) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+      while (zipEntries.hasMoreElements()) {
+        ZipArchiveEntry zipEntry = zipEntries.nextElement();
+        try (InputStream in = zipFile.getInputStream(zipEntry)) {
+          entries.put(zipEntry.getName(), IOUtils.toByteArray(in));
+        }
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Reads the uncompressed content of an entry as a string.
+   */
+  static String readEntry(File jar, String name) throws IOException {
+    byte[] content = readEntries(jar).get(name);
+    if (content == null) {
+      throw new AssertionError("Entry not found: " + jar + " @ " + name);
+    }
+    return new String(content, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Sums the counters of all artifacts, by name.
+   */
+  static final class Counters implements MetricsListener {
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void count(File artifact, String counter, long amount) {
+      counts.merge(counter, amount, Long::sum);
+    }
+
+    @Override
+    public void time(File artifact, String phase, long nanos) {
+      // Ignored
+    }
+
+    /**
+     * Gets the sum of a counter, or zero when never counted.
+     */
+    long get(String counter) {
+      return counts.getOrDefault(counter, 0L);
+    }
+  }
+}
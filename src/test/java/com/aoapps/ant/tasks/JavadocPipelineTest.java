@@ -0,0 +1,115 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.JavadocJarFixture.APIDOCS_URL;
+import static com.aoapps.ant.tasks.JavadocJarFixture.FOLLOW;
+import static com.aoapps.ant.tasks.JavadocJarFixture.GOOGLE_ANALYTICS_TRACKING_ID;
+import static com.aoapps.ant.tasks.JavadocJarFixture.NOFOLLOW;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link JavadocPipeline}.
+ */
+public class JavadocPipelineTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  /**
+   * A modified time long before the test, to detect when a file is replaced.
+   */
+  private static final FileTime OLD_TIME = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+
+  /**
+   * Performs SEO filtering, Google Analytics tracking, and sitemap generation in sequence, one task at a time.
+   */
+  private static void processInSequence(File javadocJar) throws IOException {
+    SeoJavadocFilter.filterJavadocJar(javadocJar, APIDOCS_URL, NOFOLLOW, FOLLOW);
+    InsertGoogleAnalyticsTracking.addTrackingCodeToZip(javadocJar, GOOGLE_ANALYTICS_TRACKING_ID);
+    GenerateJavadocSitemap.addSitemapToJavadocJar(javadocJar, APIDOCS_URL);
+  }
+
+  private static void processJavadocJar(File javadocJar, int threads, MetricsListener metrics) throws IOException {
+    JavadocPipeline.processJavadocJar(javadocJar, APIDOCS_URL, true, NOFOLLOW, FOLLOW, GOOGLE_ANALYTICS_TRACKING_ID,
+        true, false, threads, metrics);
+  }
+
+  /**
+   * Tests {@link JavadocPipeline#processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)}
+   * is byte-identical to performing each task in sequence, sequentially and with multiple threads.
+   */
+  @Test
+  public void testProcessJavadocJarMatchesSequence() throws IOException {
+    File directory = temporaryFolder.newFolder("sequence");
+    File sequence = JavadocJarFixture.write(new File(directory, "sequence.jar"), JavadocJarFixture.entries());
+    File pipeline = JavadocJarFixture.copy(sequence, new File(directory, "pipeline.jar"));
+    File threaded = JavadocJarFixture.copy(sequence, new File(directory, "threaded.jar"));
+    processInSequence(sequence);
+    processJavadocJar(pipeline, 1, null);
+    processJavadocJar(threaded, 4, null);
+    byte[] expected = JavadocJarFixture.read(sequence);
+    assertArrayEquals("Pipeline must match tasks in sequence", expected, JavadocJarFixture.read(pipeline));
+    assertArrayEquals("Threaded pipeline must match tasks in sequence", expected, JavadocJarFixture.read(threaded));
+    // Sanity check that all stages were performed
+    String classPage = JavadocJarFixture.readEntry(sequence, JavadocJarFixture.classPage(0));
+    assertNotEquals(-1, classPage.indexOf("<link rel=\"canonical\" href=\""));
+    assertNotEquals(-1, classPage.indexOf(GOOGLE_ANALYTICS_TRACKING_ID));
+    String sitemap = JavadocJarFixture.readEntry(sequence, "sitemap.xml");
+    assertNotEquals(-1, sitemap.indexOf("<loc>" + APIDOCS_URL + JavadocJarFixture.classPage(0) + "</loc>"));
+    assertEquals("noindex pages are not in the sitemap", -1, sitemap.indexOf("allclasses-index.html"));
+  }
+
+  /**
+   * Tests {@link JavadocPipeline#processJavadocJar(java.io.File, java.lang.String, boolean, java.lang.Iterable, java.lang.Iterable, java.lang.String, boolean, boolean, int, com.aoapps.ant.tasks.MetricsListener)}
+   * leaves an already processed JAR file untouched, sequentially and with multiple threads.
+   */
+  @Test
+  public void testProcessJavadocJarRerun() throws IOException {
+    File directory = temporaryFolder.newFolder("rerun");
+    File javadocJar = JavadocJarFixture.write(new File(directory, "rerun.jar"), JavadocJarFixture.entries());
+    processJavadocJar(javadocJar, 1, null);
+    byte[] expected = JavadocJarFixture.read(javadocJar);
+    for (int threads : new int[] {1, 4}) {
+      Files.setLastModifiedTime(javadocJar.toPath(), OLD_TIME);
+      JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+      processJavadocJar(javadocJar, threads, counters);
+      assertEquals("Rerun must not replace the JAR", OLD_TIME, Files.getLastModifiedTime(javadocJar.toPath()));
+      assertArrayEquals("Rerun must not change the JAR", expected, JavadocJarFixture.read(javadocJar));
+      assertEquals(0, counters.get("modifiedPages"));
+      assertEquals(0, counters.get("bytesWritten"));
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.JavadocJarFixture.APIDOCS_URL;
+import static com.aoapps.ant.tasks.JavadocJarFixture.FOLLOW;
+import static com.aoapps.ant.tasks.JavadocJarFixture.NOFOLLOW;
+import static com.aoapps.ant.tasks.SeoJavadocFilter.NL;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.ZipException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link SeoJavadocFilter}.
+ */
+public class SeoJavadocFilterTest {
+
+  private static final String JAR_NAME = "fixture-1.0.0-javadoc.jar";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  /**
+   * Tests {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
+   * produces the expected pages, with byte-identical results sequentially and with multiple threads.
+   */
+  @Test
+  public void testFilterJavadocJarThreads() throws IOException {
+    File directory = temporaryFolder.newFolder("threads");
+    Map<String, String> entries = JavadocJarFixture.entries();
+    File sequential = JavadocJarFixture.write(new File(directory, "sequential.jar"), entries);
+    File threaded = JavadocJarFixture.copy(sequential, new File(directory, "threaded.jar"));
+    SeoJavadocFilter.filterJavadocJar(sequential, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, null, null);
+    SeoJavadocFilter.filterJavadocJar(threaded, APIDOCS_URL, NOFOLLOW, FOLLOW, 4, null, null, null);
+    assertArrayEquals("Threaded must match sequential", JavadocJarFixture.read(sequential),
+        JavadocJarFixture.read(threaded));
+    // Class page: canonical URL and nofollow links
+    String classPage = JavadocJarFixture.classPage(0);
+    assertEquals(
+        entries.get(classPage)
+            .replace("</head>" + NL,
+                "<link rel=\"canonical\" href=\"" + APIDOCS_URL + classPage + "\">" + NL + "</head>" + NL)
+            .replace("<a href=\"../../allclasses-index.html\">",
+                "<a rel=\"nofollow\" href=\"../../allclasses-index.html\">")
+            .replace("<a href=\"https://docs.oracle.com/", "<a rel=\"nofollow\" href=\"https://docs.oracle.com/")
+            .replace("<a rel=\"nofollow\" href=\"https://www.example.com/\">",
+                "<a href=\"https://www.example.com/\">"),
+        JavadocJarFixture.readEntry(sequential, classPage));
+    // Noindex page: canonical URL and robots header
+    assertEquals(
+        entries.get("allclasses-index.html")
+            .replace("</head>" + NL,
+                "<link rel=\"canonical\" href=\"" + APIDOCS_URL + "allclasses-index.html\">" + NL
+                    + "<meta name=\"robots\" content=\"noindex, nofollow\">" + NL
+                    + "</head>" + NL),
+        JavadocJarFixture.readEntry(sequential, "allclasses-index.html"));
+    // Other entries unchanged
+    assertEquals(entries.get("element-list"), JavadocJarFixture.readEntry(sequential, "element-list"));
+  }
+
+  /**
+   * Tests {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
+   * splices the unchanged lines of a modified page byte-for-byte, with multi-byte UTF-8 characters on changed and
+   * unchanged lines, and a last line without a newline.
+   */
+  @Test
+  public void testFilterJavadocJarNonAscii() throws IOException {
+    String name = "com/example/Unicode.html";
+    String page = JavadocJarFixture.page("Ünïcödé", "class-declaration-page",
+        "<p>Café € \ud83d\ude00</p>",
+        "<a href=\"https://docs.oracle.com/é\">Ünïcödé € \ud83d\ude00</a> <a href=\"#m\">ß</a>",
+        "<p>日本語 — ✓</p>") + "<!-- \ud83d\ude00 -->";
+    Map<String, String> entries = JavadocJarFixture.entries();
+    entries.put(name, page);
+    File jar = JavadocJarFixture.write(temporaryFolder.newFile("unicode.jar"), entries);
+    SeoJavadocFilter.filterJavadocJar(jar, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, null, null);
+    String expected = page
+        .replace("</head>" + NL, "<link rel=\"canonical\" href=\"" + APIDOCS_URL + name + "\">" + NL + "</head>" + NL)
+        .replace("<a href=\"https://docs.oracle.com/", "<a rel=\"nofollow\" href=\"https://docs.oracle.com/");
+    assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), JavadocJarFixture.readEntries(jar).get(name));
+  }
+
+  /**
+   * Tests {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
+   * with a carriage return in the body of a page, which is only allowed when it is part of {@link SeoJavadocFilter#NL}.
+   */
+  @Test
+  public void testFilterJavadocJarCrlf() throws IOException {
+    String name = "com/example/Crlf.html";
+    String page = JavadocJarFixture.page("Crlf", "class-declaration-page",
+        "<p>Before</p>",
+        "<a href=\"https://docs.oracle.com/\">Crlf</a>\r",
+        "<p>After</p>");
+    Map<String, String> entries = JavadocJarFixture.entries();
+    entries.put(name, page);
+    File jar = JavadocJarFixture.write(temporaryFolder.newFile("crlf.jar"), entries);
+    if (NL.indexOf('\r') == -1) {
+      try {
+        SeoJavadocFilter.filterJavadocJar(jar, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, null, null);
+        fail("ZipException expected");
+      } catch (ZipException e) {
+        assertEquals("Carriage return in javadocs but not in NL, requiring POSIX newlines only: " + jar
+            + SeoJavadocFilter.AT + name + SeoJavadocFilter.AT_LINE + 9, e.getMessage());
+      }
+    } else {
+      SeoJavadocFilter.filterJavadocJar(jar, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, null, null);
+      String expected = page
+          .replace("</head>" + NL, "<link rel=\"canonical\" href=\"" + APIDOCS_URL + name + "\">" + NL + "</head>" + NL)
+          .replace("<a href=\"https://docs.oracle.com/", "<a rel=\"nofollow\" href=\"https://docs.oracle.com/");
+      assertEquals(expected, JavadocJarFixture.readEntry(jar, name));
+    }
+  }
+
+  private static final File LINKS_JAR = new File("links-javadoc.jar");
+
+  private static final ZipArchiveEntry LINKS_PAGE = new ZipArchiveEntry("com/example/Links.html");
+
+  /**
+   * Calls {@code nofollowLinks} on the lines of a page body, with only external links and anchors so that no
+   * internal link needs to be resolved.
+   *
+   * @return  the number of links with an href
+   */
+  private static int nofollowLinks(List<String> linesWithEof) throws IOException, ReflectiveOperationException {
+    Method method = SeoJavadocFilter.class.getDeclaredMethod("nofollowLinks", String.class, File.class,
+        ZipFile.class, ZipArchiveEntry.class, List.class, Map.class, Map.class, UrlPrefixes.class, UrlPrefixes.class,
+        Set.class, Consumer.class);
+    method.setAccessible(true);
+    Consumer<Supplier<String>> debug = msg -> {
+      // Ignored
+    };
+    try {
+      return (Integer) method.invoke(null, APIDOCS_URL, LINKS_JAR, null, LINKS_PAGE, linesWithEof,
+          Collections.emptyMap(), new HashMap<>(), UrlPrefixes.of(NOFOLLOW), UrlPrefixes.of(FOLLOW), null, debug);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the lines of a page, with the given lines of the body.
+   */
+  private static List<String> pageLines(String... bodyLines) {
+    List<String> linesWithEof = new ArrayList<>();
+    for (String line : JavadocJarFixture.page("Links", "class-declaration-page", bodyLines).split("(?<=" + NL + ")")) {
+      linesWithEof.add(line);
+    }
+    return linesWithEof;
+  }
+
+  /**
+   * Tests {@code nofollowLinks} adds, updates, and removes {@code rel} of only the links that change, keeping the same
+   * {@link String} instance for each line without a changed link.
+   */
+  @Test
+  public void testNofollowLinks() throws IOException, ReflectiveOperationException {
+    List<String> linesWithEof = pageLines(
+        "<a href=\"https://www.example.com/\">Unchanged</a>",
+        "<a href=\"#m\">M</a> <a href=\"https://docs.oracle.com/x\">Added</a> <a href=\"https://www.example.com/\">E</a>",
+        "<a rel=\"nofollow\" href=\"https://docs.oracle.com/y\">Unchanged</a>",
+        "<a id=\"no-href\"></a> <abbr title=\"Not a link\">N</abbr>",
+        "<a rel=\"external\" href=\"https://docs.oracle.com/z\">Updated</a>",
+        "<a rel=\"nofollow\" href=\"https://www.example.com/\">Removed</a> <a href=\"#n\" rel=\"nofollow\">Removed</a>"
+    );
+    List<String> original = new ArrayList<>(linesWithEof);
+    assertEquals(8, nofollowLinks(linesWithEof));
+    assertEquals(original.size(), linesWithEof.size());
+    int body = original.indexOf("<body class=\"class-declaration-page\">" + NL) + 1;
+    for (int i = 0; i < original.size(); i++) {
+      int bodyLine = i - body;
+      if (bodyLine != 1 && bodyLine != 4 && bodyLine != 5) {
+        assertSame("Unchanged line " + i, original.get(i), linesWithEof.get(i));
+      }
+    }
+    assertEquals("<a href=\"#m\">M</a> <a rel=\"nofollow\" href=\"https://docs.oracle.com/x\">Added</a>"
+        + " <a href=\"https://www.example.com/\">E</a>" + NL, linesWithEof.get(body + 1));
+    assertEquals("<a rel=\"nofollow\" href=\"https://docs.oracle.com/z\">Updated</a>" + NL,
+        linesWithEof.get(body + 4));
+    assertEquals("<a href=\"https://www.example.com/\">Removed</a> <a href=\"#n\">Removed</a>" + NL,
+        linesWithEof.get(body + 5));
+  }
+
+  private static void assertNofollowLinksThrows(String expected, String... bodyLines)
+      throws ReflectiveOperationException {
+    List<String> linesWithEof = pageLines(bodyLines);
+    int line = linesWithEof.indexOf("<body class=\"class-declaration-page\">" + NL) + 1 + bodyLines.length;
+    try {
+      nofollowLinks(linesWithEof);
+      fail("ZipException expected: " + expected);
+    } catch (IOException e) {
+      assertTrue(e.toString(), e instanceof ZipException);
+      assertEquals(expected + ": " + LINKS_JAR + SeoJavadocFilter.AT + LINKS_PAGE + SeoJavadocFilter.AT_LINE + line,
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Tests {@code nofollowLinks} rejects unsupported link syntax on the last line, with the same messages and precedence
+   * as checking each line before its links.
+   */
+  @Test
+  public void testNofollowLinksErrors() throws ReflectiveOperationException {
+    String capitalized = "Unexpected capitalized \"<A \" found";
+    String href = "Unexpected single-quoted \"href='\" found";
+    String rel = "Unexpected single-quoted \"rel='\" found";
+    assertNofollowLinksThrows(capitalized, "<a href=\"#ok\">OK</a>", "<A HREF=\"#m\">M</A>");
+    assertNofollowLinksThrows(href, "<a href='#m'>M</a>");
+    assertNofollowLinksThrows(rel, "<a rel='nofollow' href=\"#m\">M</a>");
+    // Checked in order, regardless of position in the line
+    assertNofollowLinksThrows(capitalized, "<a rel='nofollow' href='#m'>M</a> <A HREF=\"#n\">N</A>");
+    assertNofollowLinksThrows(href, "<a rel='nofollow' href=\"#m\">M</a> <a href='#n'>N</a>");
+    assertNofollowLinksThrows(capitalized, "<a href=\"#m\" <A ");
+    assertNofollowLinksThrows(rel, "<a href=\"#m\">M</a> <a href=\"#n\" rel='nofollow'");
+    // Link errors are only after the syntax of the whole line is checked
+    assertNofollowLinksThrows("Link end not found", "<a href=\"#m\">M</a> <a href=\"#n\"");
+    assertNofollowLinksThrows("href without closing quote", "<a href=\"#m>M</a> <a href=\"#n\"");
+    assertNofollowLinksThrows("rel without closing quote", "<a href=\"#m\" rel=\"nofollow>M</a>");
+  }
+
+  /**
+   * Filters a modified fixture both in full and reusing the last build, which must be byte-identical.
+   *
+   * @return  the number of pages reused
+   */
+  private long filterReusingLastBuild(String name, File lastBuild, File manifestFile, Map<String, String> entries)
+      throws IOException {
+    File directory = temporaryFolder.newFolder(name);
+    File full = JavadocJarFixture.write(new File(temporaryFolder.newFolder(name + "-full"), JAR_NAME), entries);
+    File reused = JavadocJarFixture.copy(full, new File(directory, JAR_NAME));
+    SeoJavadocFilter.filterJavadocJar(full, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, null, null);
+    File caseManifestFile = JavadocJarFixture.copy(manifestFile, new File(directory, "manifest"));
+    JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+    SeoJavadocFilter.filterJavadocJar(reused, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, lastBuild, caseManifestFile,
+        counters);
+    assertArrayEquals(name + ": Reusing pages must match filtering in full", JavadocJarFixture.read(full),
+        JavadocJarFixture.read(reused));
+    return counters.get("reusedPages");
+  }
+
+  /**
+   * Tests {@link SeoJavadocFilter#filterJavadocJar(java.io.File, java.lang.String, java.lang.Iterable, java.lang.Iterable, int, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
+   * reuses unchanged pages from the last build, with byte-identical results to filtering in full.  A page is filtered
+   * again when changed, or when the robots header of a link target has changed.
+   */
+  @Test
+  public void testFilterJavadocJarReuse() throws IOException {
+    Map<String, String> entries = JavadocJarFixture.entries();
+    long htmlPages = entries.keySet().stream().filter(name -> name.endsWith(".html")).count();
+    // Filter the last build, recording the manifest
+    File lastBuild = JavadocJarFixture.write(new File(temporaryFolder.newFolder("lastBuild"), JAR_NAME), entries);
+    File manifestFile = new File(temporaryFolder.getRoot(), "manifest");
+    JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+    SeoJavadocFilter.filterJavadocJar(lastBuild, APIDOCS_URL, NOFOLLOW, FOLLOW, 1, null, manifestFile, counters);
+    assertTrue(manifestFile.isFile());
+    assertEquals(0, counters.get("reusedPages"));
+    // No change
+    assertEquals(htmlPages, filterReusingLastBuild("unchanged", lastBuild, manifestFile, entries));
+    // A changed page
+    Map<String, String> changedPage = JavadocJarFixture.entries();
+    String classPage = JavadocJarFixture.classPage(3);
+    changedPage.put(classPage, changedPage.get(classPage).replace("</body>" + NL,
+        "<a href=\"Example4.html\">See also</a>" + NL + "</body>" + NL));
+    assertEquals(htmlPages - 1, filterReusingLastBuild("changedPage", lastBuild, manifestFile, changedPage));
+    // A link target that becomes noindex, changing the links to it on the unchanged package summary
+    Map<String, String> changedRobots = JavadocJarFixture.entries();
+    changedRobots.put("index.html", changedRobots.get("index.html")
+        .replace("</head>" + NL,
+            "<meta http-equiv=\"Refresh\" content=\"0;com/example/package-summary.html\">" + NL + "</head>" + NL)
+        .replace("package-index-page", "index-redirect-page"));
+    assertEquals(htmlPages - 2, filterReusingLastBuild("changedRobots", lastBuild, manifestFile, changedRobots));
+  }
+}
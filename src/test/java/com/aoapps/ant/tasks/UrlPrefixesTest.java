@@ -0,0 +1,199 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static com.aoapps.ant.tasks.JavadocJarFixture.APIDOCS_URL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link UrlPrefixes}.
+ */
+public class UrlPrefixesTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  /**
+   * Matches a URL by looping over each prefix, as done before compiling into a trie.
+   */
+  private static boolean loopMatches(List<String> prefixes, String url) {
+    for (String prefix : prefixes) {
+      if (SeoJavadocFilter.ANY_URL.equals(prefix) || StringUtils.startsWithIgnoreCase(url, prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Matches a page by looping over each prefix, as done before compiling into a trie.
+   */
+  private static boolean loopMatchesPage(List<String> prefixes, String name) {
+    for (String prefix : prefixes) {
+      if (!prefix.isEmpty() && prefix.charAt(0) == '/' && StringUtils.startsWithIgnoreCase('/' + name, prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static UrlPrefixes of(String... prefixes) {
+    return UrlPrefixes.of(Arrays.asList(prefixes));
+  }
+
+  /**
+   * Tests {@link UrlPrefixes#matches(java.lang.String)} with {@link SeoJavadocFilter#ANY_URL}, which matches any URL
+   * but is not itself a prefix.
+   */
+  @Test
+  public void testMatchesAnyUrl() {
+    assertTrue(of(SeoJavadocFilter.ANY_URL).matches("https://www.example.com/"));
+    assertTrue(of(SeoJavadocFilter.ANY_URL).matches(""));
+    assertTrue(of("https://docs.oracle.com/", SeoJavadocFilter.ANY_URL).matches("ftp://ftp.example.com/"));
+    assertFalse(of("https://docs.oracle.com/").matches(SeoJavadocFilter.ANY_URL));
+    assertFalse("Not a page prefix", of(SeoJavadocFilter.ANY_URL).matchesPage("index.html"));
+  }
+
+  /**
+   * Tests an empty prefix matches any URL, but no page.
+   */
+  @Test
+  public void testEmptyPrefix() {
+    assertTrue(of("").matches("https://www.example.com/"));
+    assertTrue(of("").matches(""));
+    assertFalse(of("").matchesPage("index.html"));
+    assertFalse(of("", "/pkg/").matchesPage("index.html"));
+    assertTrue(of("", "/pkg/").matchesPage("pkg/index.html"));
+    assertFalse("No prefixes", of().matches(""));
+  }
+
+  /**
+   * Tests {@link UrlPrefixes#matches(java.lang.String)} folds case the same as
+   * {@link StringUtils#startsWithIgnoreCase(java.lang.CharSequence, java.lang.CharSequence)}, including characters
+   * outside of ASCII.
+   */
+  @Test
+  public void testMatchesCaseFolding() {
+    assertTrue(of("https://DOCS.oracle.com/").matches("HTTPS://docs.ORACLE.com/en/"));
+    assertTrue(of("https://bücher.example/").matches("https://BÜCHER.example/"));
+    assertFalse(of("https://bücher.example/").matches("https://bucher.example/"));
+    // Dotless i, dotted capital I, Kelvin sign, and long s fold to ASCII
+    assertTrue(of("ı").matches("I"));
+    assertTrue(of("İ").matches("i"));
+    assertTrue(of("\u212A").matches("k"));
+    assertTrue(of("ſ").matches("S"));
+    String alphabet = "aA/:.-iIıİkK\u212AsSſßẞσςΣéÉ";
+    Random random = new Random(1);
+    for (int i = 0; i < 20000; i++) {
+      List<String> prefixes = new ArrayList<>();
+      for (int j = random.nextInt(4); j >= 0; j--) {
+        prefixes.add(randomString(random, alphabet, 4));
+      }
+      String url = randomString(random, alphabet, 6);
+      UrlPrefixes urlPrefixes = UrlPrefixes.of(prefixes);
+      assertEquals(prefixes + " " + url, loopMatches(prefixes, url), urlPrefixes.matches(url));
+      assertEquals(prefixes + " " + url, loopMatchesPage(prefixes, url), urlPrefixes.matchesPage(url));
+    }
+  }
+
+  private static String randomString(Random random, String alphabet, int maxLength) {
+    char[] chars = new char[random.nextInt(maxLength + 1)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Tests {@link UrlPrefixes#iterator()} removes duplicates, keeping the order first given, and
+   * {@link UrlPrefixes#of(java.lang.Iterable)} does not compile again.
+   */
+  @Test
+  public void testIterator() {
+    UrlPrefixes urlPrefixes = of("b", "a", "b", SeoJavadocFilter.ANY_URL, "A", "a");
+    List<String> iterated = new ArrayList<>();
+    urlPrefixes.forEach(iterated::add);
+    assertEquals(Arrays.asList("b", "a", SeoJavadocFilter.ANY_URL, "A"), iterated);
+    assertEquals("[b, a, *, A]", urlPrefixes.toString());
+    assertSame(urlPrefixes, UrlPrefixes.of(urlPrefixes));
+    assertFalse(UrlPrefixes.of(Collections.emptyList()).iterator().hasNext());
+  }
+
+  /**
+   * Tests {@link UrlPrefixes#matchesPage(java.lang.String)} only uses prefixes starting with a slash.
+   */
+  @Test
+  public void testMatchesPage() {
+    assertTrue(of("/").matchesPage("index.html"));
+    assertTrue(of("/").matchesPage(""));
+    UrlPrefixes pkg = of("/pkg/");
+    assertTrue(pkg.matchesPage("pkg/Example.html"));
+    assertTrue(pkg.matchesPage("PKG/Example.html"));
+    assertFalse(pkg.matchesPage("pkg2/Example.html"));
+    assertFalse(pkg.matchesPage("other/pkg/Example.html"));
+    assertFalse(pkg.matchesPage("pkg"));
+    UrlPrefixes noSlash = of("pkg/");
+    assertFalse(noSlash.matchesPage("pkg/Example.html"));
+    assertTrue("Still a URL prefix", noSlash.matches("pkg/Example.html"));
+  }
+
+  /**
+   * Tests nofollow prefixes are matched before follow prefixes when filtering links.
+   */
+  @Test
+  public void testNofollowBeforeFollow() throws IOException {
+    String classPage = JavadocJarFixture.classPage(0);
+    File jar = JavadocJarFixture.write(temporaryFolder.newFile("nofollow.jar"), JavadocJarFixture.entries());
+    SeoJavadocFilter.filterJavadocJar(jar, APIDOCS_URL,
+        Arrays.asList("HTTPS://DOCS.ORACLE.COM/EN/"),
+        Arrays.asList("https://docs.oracle.com/", "https://www.example.com/"),
+        1, null, null, null);
+    String page = JavadocJarFixture.readEntry(jar, classPage);
+    assertTrue(page, page.contains("<a rel=\"nofollow\" href=\"https://docs.oracle.com/en/"));
+    assertTrue(page, page.contains("<a href=\"https://www.example.com/\">"));
+    jar = JavadocJarFixture.write(temporaryFolder.newFile("any.jar"), JavadocJarFixture.entries());
+    SeoJavadocFilter.filterJavadocJar(jar, APIDOCS_URL,
+        Arrays.asList(SeoJavadocFilter.ANY_URL),
+        Arrays.asList("https://docs.oracle.com/", "https://www.example.com/"),
+        1, null, null, null);
+    page = JavadocJarFixture.readEntry(jar, classPage);
+    assertTrue(page, page.contains("<a rel=\"nofollow\" href=\"https://docs.oracle.com/en/"));
+    assertTrue(page, page.contains("<a rel=\"nofollow\" href=\"https://www.example.com/\">"));
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * ao-ant-tasks - Ant tasks used in building AO-supported projects.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-ant-tasks.
+ *
+ * ao-ant-tasks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-ant-tasks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-ant-tasks.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.ant.tasks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link ZipTimestampMergeCache}.
+ */
+public class ZipTimestampMergeCacheTest {
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  private static ZipArchiveEntry newEntry(String name, long size, long crc, int method) {
+    ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setSize(size);
+    entry.setCrc(crc);
+    entry.setMethod(method);
+    return entry;
+  }
+
+  private static ZipArchiveEntry newEntry(String name, long size, long crc) {
+    return newEntry(name, size, crc, ZipEntry.DEFLATED);
+  }
+
+  private static byte[] digest(String content) throws IOException {
+    return ZipTimestampMergeCache.digest(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static ZipTimestampMergeCache.Entry newCacheEntry(long size, long crc, long time, String content)
+      throws IOException {
+    return new ZipTimestampMergeCache.Entry(size, crc, time, ZipEntry.DEFLATED, digest(content));
+  }
+
+  /**
+   * Reads a cache file, collecting any warnings.
+   */
+  private static ZipTimestampMergeCache read(File cacheFile, List<String> warnings) throws IOException {
+    Consumer<Supplier<String>> warn = msg -> warnings.add(msg.get());
+    return ZipTimestampMergeCache.read(cacheFile, warn);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeCache#digest(java.io.InputStream)} is the SHA-256 of the content.
+   */
+  @Test
+  public void testDigest() throws IOException, NoSuchAlgorithmException {
+    assertArrayEquals(MessageDigest.getInstance("SHA-256").digest("content".getBytes(StandardCharsets.UTF_8)),
+        digest("content"));
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeCache.Entry#matches(org.apache.commons.compress.archivers.zip.ZipArchiveEntry, long)},
+   * {@link ZipTimestampMergeCache.Entry#matches(org.apache.commons.compress.archivers.zip.ZipArchiveEntry)}, and
+   * {@link ZipTimestampMergeCache.Entry#digestEquals(byte[])}.
+   */
+  @Test
+  public void testEntryMatches() throws IOException {
+    ZipTimestampMergeCache.Entry entry = newCacheEntry(10, 0x1234, 2000, "content");
+    assertTrue(entry.matches(newEntry("a", 10, 0x1234), 2000));
+    assertFalse("time", entry.matches(newEntry("a", 10, 0x1234), 4000));
+    assertFalse("size", entry.matches(newEntry("a", 11, 0x1234), 2000));
+    assertFalse("crc", entry.matches(newEntry("a", 10, 0x1235), 2000));
+    assertTrue(entry.matches(newEntry("a", 10, 0x1234)));
+    assertFalse("size", entry.matches(newEntry("a", 11, 0x1234)));
+    assertFalse("crc", entry.matches(newEntry("a", 10, 0x1235)));
+    assertFalse("method", entry.matches(newEntry("a", 10, 0x1234, ZipEntry.STORED)));
+    assertTrue(entry.digestEquals(digest("content")));
+    assertFalse(entry.digestEquals(digest("other")));
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeCache#write(java.io.File)} then
+   * {@link ZipTimestampMergeCache#read(java.io.File, java.util.function.Consumer)}.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    File cacheFile = new File(temporaryFolder.getRoot(), "round-trip.cache");
+    ZipTimestampMergeCache cache = new ZipTimestampMergeCache();
+    Map<String, ZipTimestampMergeCache.Entry> entries = new HashMap<>();
+    entries.put("b.txt", newCacheEntry(3, 0xffffffffL, 4000, "b"));
+    entries.put("a.txt", new ZipTimestampMergeCache.Entry(0, 0, -2000, ZipEntry.STORED, digest("")));
+    cache.putEntries("artifact:jar", entries);
+    cache.putEntries("empty:war", new HashMap<>());
+    cache.write(cacheFile);
+    List<String> warnings = new ArrayList<>();
+    ZipTimestampMergeCache read = read(cacheFile, warnings);
+    assertEquals(Collections.emptyList(), warnings);
+    Map<String, ZipTimestampMergeCache.Entry> readEntries = read.getEntries("artifact:jar");
+    assertEquals(entries.keySet(), readEntries.keySet());
+    assertTrue(readEntries.get("b.txt").matches(newEntry("b.txt", 3, 0xffffffffL), 4000));
+    assertTrue(readEntries.get("b.txt").matches(newEntry("b.txt", 3, 0xffffffffL)));
+    assertTrue(readEntries.get("b.txt").digestEquals(digest("b")));
+    assertTrue(readEntries.get("a.txt").matches(newEntry("a.txt", 0, 0), -2000));
+    assertTrue(readEntries.get("a.txt").matches(newEntry("a.txt", 0, 0, ZipEntry.STORED)));
+    assertTrue(readEntries.get("a.txt").digestEquals(digest("")));
+    assertTrue(read.getEntries("empty:war").isEmpty());
+    assertTrue("Unknown artifact", read.getEntries("other:jar").isEmpty());
+    // Written consistently
+    File rewritten = new File(temporaryFolder.getRoot(), "rewritten.cache");
+    read.write(rewritten);
+    assertArrayEquals(Files.readAllBytes(cacheFile.toPath()), Files.readAllBytes(rewritten.toPath()));
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeCache#read(java.io.File, java.util.function.Consumer)} of a missing file is empty,
+   * without warning.
+   */
+  @Test
+  public void testReadMissing() throws IOException {
+    List<String> warnings = new ArrayList<>();
+    ZipTimestampMergeCache cache = read(new File(temporaryFolder.getRoot(), "missing.cache"), warnings);
+    assertTrue(cache.getEntries("artifact:jar").isEmpty());
+    assertEquals(Collections.emptyList(), warnings);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeCache#read(java.io.File, java.util.function.Consumer)} falls back to an empty cache,
+   * with a warning, when the file has an unexpected header, an unsupported version, is truncated, or has trailing data.
+   */
+  @Test
+  public void testReadCorrupt() throws IOException {
+    File valid = new File(temporaryFolder.getRoot(), "valid.cache");
+    ZipTimestampMergeCache cache = new ZipTimestampMergeCache();
+    Map<String, ZipTimestampMergeCache.Entry> entries = new HashMap<>();
+    entries.put("a.txt", newCacheEntry(1, 2, 4000, "a"));
+    cache.putEntries("artifact:jar", entries);
+    cache.write(valid);
+    byte[] validBytes = Files.readAllBytes(valid.toPath());
+    Map<String, byte[]> corrupt = new HashMap<>();
+    byte[] header = validBytes.clone();
+    header[0] ^= 1;
+    corrupt.put("header", header);
+    byte[] version = validBytes.clone();
+    version[7]++;
+    corrupt.put("version", version);
+    corrupt.put("truncated", Arrays.copyOf(validBytes, validBytes.length - 1));
+    corrupt.put("trailing", Arrays.copyOf(validBytes, validBytes.length + 1));
+    corrupt.put("empty", new byte[0]);
+    for (Map.Entry<String, byte[]> entry : corrupt.entrySet()) {
+      File cacheFile = new File(temporaryFolder.getRoot(), entry.getKey() + ".cache");
+      Files.write(cacheFile.toPath(), entry.getValue());
+      List<String> warnings = new ArrayList<>();
+      ZipTimestampMergeCache read = read(cacheFile, warnings);
+      assertTrue(entry.getKey(), read.getEntries("artifact:jar").isEmpty());
+      assertEquals(entry.getKey() + ": " + warnings, 1, warnings.size());
+    }
+  }
+}
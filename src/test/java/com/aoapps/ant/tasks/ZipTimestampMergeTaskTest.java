@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -35,6 +35,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.time.DateTimeException;
 import java.time.Instant;
+import org.apache.tools.ant.BuildException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -154,4 +155,84 @@ public class ZipTimestampMergeTaskTest {
     assertEquals("equal", buildDirectory, getBuildDirectory(task));
     assertNotSame("but not same", buildDirectory, getBuildDirectory(task));
   }
+
+  private static int getThreads(ZipTimestampMergeTask task) throws ReflectiveOperationException {
+    Field field = ZipTimestampMergeTask.class.getDeclaredField("threads");
+    field.setAccessible(true);
+    return (Integer) field.get(task);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeTask#setThreads(int)}.
+   */
+  @Test
+  @SuppressWarnings("ThrowableResultIgnored")
+  public void testSetThreads() throws ReflectiveOperationException {
+    ZipTimestampMergeTask task = new ZipTimestampMergeTask();
+    assertEquals("defaults to 1", 1, getThreads(task));
+    assertThrows("negative", BuildException.class, () -> task.setThreads(-1));
+    task.setThreads(0);
+    assertEquals("is now 0", 0, getThreads(task));
+    task.setThreads(8);
+    assertEquals("is now 8", 8, getThreads(task));
+  }
+
+  private static boolean getSync(ZipTimestampMergeTask task) throws ReflectiveOperationException {
+    Field field = ZipTimestampMergeTask.class.getDeclaredField("sync");
+    field.setAccessible(true);
+    return (Boolean) field.get(task);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeTask#setSync(boolean)}.
+   */
+  @Test
+  public void testSetSync() throws ReflectiveOperationException {
+    ZipTimestampMergeTask task = new ZipTimestampMergeTask();
+    assertFalse("defaults to false", getSync(task));
+    task.setSync(true);
+    assertTrue("is now true", getSync(task));
+    task.setSync(false);
+    assertFalse("is now false", getSync(task));
+  }
+
+  private static File getCacheFile(ZipTimestampMergeTask task) throws ReflectiveOperationException {
+    Field field = ZipTimestampMergeTask.class.getDeclaredField("cacheFile");
+    field.setAccessible(true);
+    return (File) field.get(task);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeTask#setCacheFile(java.lang.String)}.
+   */
+  @Test
+  @SuppressWarnings("ThrowableResultIgnored")
+  public void testSetCacheFile() throws ReflectiveOperationException, IOException {
+    ZipTimestampMergeTask task = new ZipTimestampMergeTask();
+    assertNull("null default", getCacheFile(task));
+    assertThrows("null", NullPointerException.class, () -> task.setCacheFile(null));
+    File cacheFile = new File(temporaryFolder.getRoot(), "cacheFile");
+    task.setCacheFile(cacheFile.getPath());
+    assertEquals("equal", cacheFile, getCacheFile(task));
+    assertNotSame("but not same", cacheFile, getCacheFile(task));
+  }
+
+  private static boolean getTrustCrc(ZipTimestampMergeTask task) throws ReflectiveOperationException {
+    Field field = ZipTimestampMergeTask.class.getDeclaredField("trustCrc");
+    field.setAccessible(true);
+    return (Boolean) field.get(task);
+  }
+
+  /**
+   * Tests {@link ZipTimestampMergeTask#setTrustCrc(boolean)}.
+   */
+  @Test
+  public void testSetTrustCrc() throws ReflectiveOperationException {
+    ZipTimestampMergeTask task = new ZipTimestampMergeTask();
+    assertFalse("defaults to false", getTrustCrc(task));
+    task.setTrustCrc(true);
+    assertTrue("is now true", getTrustCrc(task));
+    task.setTrustCrc(false);
+    assertFalse("is now false", getTrustCrc(task));
+  }
 }
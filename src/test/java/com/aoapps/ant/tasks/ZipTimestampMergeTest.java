@@ -1,6 +1,6 @@
 /*
  * ao-ant-tasks - Ant tasks used in building AO-supported projects.
- * Copyright (C) 2023  AO Industries, Inc.
+ * Copyright (C) 2023, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -23,17 +23,45 @@
 
 package com.aoapps.ant.tasks;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Tests {@link ZipTimestampMerge}.
@@ -179,4 +207,431 @@ public class ZipTimestampMergeTest {
     assertEquals("longer classifier", "test-javadoc", parseClassifier("artifact-1.2.3-SNAPSHOT-test-javadoc.jar", "jar"));
     assertEquals("only lowercase", "", parseClassifier("artifact-1.2.3-SNAPSHOT-javadoC.jar", "jar"));
   }
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = TemporaryFolder.builder().assureDeletion().build();
+
+  /**
+   * The output timestamp of reproducible builds in tests.
+   */
+  private static final Instant OUTPUT_TIMESTAMP = Instant.parse("2024-01-02T03:04:06Z");
+
+  /**
+   * The time of all entries in the last build in tests.
+   */
+  private static final Instant LAST_BUILD_TIME = Instant.parse("2024-01-01T00:00:00Z");
+
+  private static final Consumer<Supplier<String>> NO_LOG = msg -> {
+    // Ignored
+  };
+
+  /**
+   * Writes a ZIP file with all entries at the given time.  Directories end in a slash, and {@code *.bin} entries are
+   * stored while all others are deflated.
+   */
+  private static File writeZip(File file, Map<String, byte[]> entries, Instant time) throws IOException {
+    long millis = time.toEpochMilli();
+    long zipTime = millis - TimeZone.getDefault().getOffset(millis);
+    try (ZipArchiveOutputStream zipOut = new ZipArchiveOutputStream(file)) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        String name = entry.getKey();
+        byte[] content = entry.getValue();
+        ZipArchiveEntry zipEntry = new ZipArchiveEntry(name);
+        zipEntry.setTime(zipTime);
+        if (name.endsWith(".bin")) {
+          CRC32 crc = new CRC32();
+          crc.update(content);
+          zipEntry.setMethod(ZipEntry.STORED);
+          zipEntry.setSize(content.length);
+          zipEntry.setCrc(crc.getValue());
+        } else if (!zipEntry.isDirectory()) {
+          zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+        zipOut.putArchiveEntry(zipEntry);
+        zipOut.write(content);
+        zipOut.closeArchiveEntry();
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Reads the time of each entry from its local header, in UTC.
+   */
+  private static Map<String, Instant> readLocalTimes(File file) throws IOException {
+    Map<String, Instant> times = new LinkedHashMap<>();
+    try (ZipInputStream zipIn = new ZipInputStream(Files.newInputStream(file.toPath()))) {
+      ZipEntry zipEntry;
+      while ((zipEntry = zipIn.getNextEntry()) != null) {
+        times.put(zipEntry.getName(), Instant.ofEpochMilli(ZipTimestampMerge.offsetFromZipToUtc(zipEntry.getTime())));
+      }
+    }
+    return times;
+  }
+
+  /**
+   * Reads the time of each entry from the central directory, in UTC.
+   */
+  private static Map<String, Instant> readCentralTimes(File file) throws IOException {
+    Map<String, Instant> times = new LinkedHashMap<>();
+    try (ZipFile zipFile = new ZipFile(file)) {
+      Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+      while (zipEntries.hasMoreElements()) {
+        ZipArchiveEntry zipEntry = zipEntries.nextElement();
+        times.put(zipEntry.getName(), Instant.ofEpochMilli(ZipTimestampMerge.offsetFromZipToUtc(zipEntry.getTime())));
+      }
+    }
+    return times;
+  }
+
+  private static byte[] randomBytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static int getStaticInt(String name) throws ReflectiveOperationException {
+    Field field = ZipTimestampMerge.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.getInt(null);
+  }
+
+  private static Object newPatch(long offset, byte[] expected, byte[] replacement) throws ReflectiveOperationException {
+    Constructor<?> constructor = Class.forName(ZipTimestampMerge.class.getName() + "$Patch").getDeclaredConstructor(
+        long.class, byte[].class, byte[].class,
+        Class.forName(ZipTimestampMerge.class.getName() + "$CentralDirectoryEntry"));
+    constructor.setAccessible(true);
+    return constructor.newInstance(offset, expected, replacement, null);
+  }
+
+  private static int applyPatches(List<Object> patches, File file) throws Throwable {
+    Method method = ZipTimestampMerge.class.getDeclaredMethod("applyPatches", String.class, Consumer.class,
+        Consumer.class, List.class, File.class, int.class, boolean.class);
+    method.setAccessible(true);
+    try {
+      return (Integer) method.invoke(null, "", NO_LOG, NO_LOG, patches, file, patches.size(), false);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Tests {@link ZipTimestampMerge#applyPatches(java.lang.String, java.util.function.Consumer, java.util.function.Consumer, java.util.List, java.io.File, int, boolean)}
+   * coalesces adjacent patches and patches within {@link ZipTimestampMerge#MAX_PATCH_GAP}, while splitting at
+   * {@link ZipTimestampMerge#MAX_PATCH_SPAN}, and leaves all other bytes unchanged.
+   */
+  @Test
+  public void testApplyPatchesCoalescing() throws Throwable {
+    int maxPatchGap = getStaticInt("MAX_PATCH_GAP");
+    int maxPatchSpan = getStaticInt("MAX_PATCH_SPAN");
+    Random random = new Random(1);
+    File file = temporaryFolder.newFile("patches.bin");
+    byte[] original = randomBytes(random, 3 * maxPatchSpan);
+    Files.write(file.toPath(), original);
+    byte[] expected = original.clone();
+    List<Object> patches = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    // First write: adjacent, then exactly at the maximum gap
+    offsets.add(0L);
+    offsets.add(4L);
+    offsets.add(8L + maxPatchGap);
+    // Second write: one past the maximum gap, followed by patches within the gap until exceeding the span
+    long spanStart = 8L + maxPatchGap + 4 + maxPatchGap + 1;
+    long offset = spanStart;
+    while (offset + 4 - spanStart <= maxPatchSpan) {
+      offsets.add(offset);
+      offset += maxPatchGap;
+    }
+    // Third write: the first patch exceeding the span
+    offsets.add(offset);
+    offsets.add(offset + maxPatchGap);
+    for (long patchOffset : offsets) {
+      int index = (int) patchOffset;
+      byte[] patchExpected = new byte[4];
+      System.arraycopy(original, index, patchExpected, 0, 4);
+      byte[] replacement = new byte[4];
+      for (int i = 0; i < 4; i++) {
+        replacement[i] = (byte) ~patchExpected[i];
+        expected[index + i] = replacement[i];
+      }
+      patches.add(newPatch(patchOffset, patchExpected, replacement));
+    }
+    // Applied in offset order regardless of given order
+    Collections.shuffle(patches, random);
+    assertEquals(3, applyPatches(patches, file));
+    assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    // Patches are verified against the existing bytes
+    assertThrows(IOException.class, () -> applyPatches(patches, file));
+    assertArrayEquals("Mismatched patches must not write", expected, Files.readAllBytes(file.toPath()));
+  }
+
+  /**
+   * Tests {@link ZipTimestampMerge#mergeFile(java.time.Instant, boolean, java.io.File, java.io.File, com.aoapps.ant.tasks.MetricsListener)}
+   * patches both the local and central directory times of each unchanged entry, including entries spread beyond
+   * {@link ZipTimestampMerge#MAX_PATCH_SPAN}, while leaving the time of changed entries.
+   */
+  @Test
+  public void testMergeFilePatchesLocalAndCentralTimes() throws IOException, ReflectiveOperationException {
+    int maxPatchGap = getStaticInt("MAX_PATCH_GAP");
+    int maxPatchSpan = getStaticInt("MAX_PATCH_SPAN");
+    Random random = new Random(2);
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", new byte[0]);
+    entries.put("a.txt", "a".getBytes(StandardCharsets.UTF_8));
+    entries.put("b.txt", "b".getBytes(StandardCharsets.UTF_8));
+    // Stored entries just within the gap between local headers, together exceeding the span
+    int spanEntrySize = maxPatchGap - 100;
+    int spanEntries = maxPatchSpan / spanEntrySize + 10;
+    for (int i = 0; i < spanEntries; i++) {
+      entries.put(String.format("span/%04d.bin", i), randomBytes(random, spanEntrySize));
+    }
+    entries.put("changed.txt", "new".getBytes(StandardCharsets.UTF_8));
+    File build = writeZip(temporaryFolder.newFile("build.jar"), entries, OUTPUT_TIMESTAMP);
+    entries.put("changed.txt", "old".getBytes(StandardCharsets.UTF_8));
+    File lastBuild = writeZip(temporaryFolder.newFile("lastBuild.jar"), entries, LAST_BUILD_TIME);
+    JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+    ZipTimestampMerge.mergeFile(OUTPUT_TIMESTAMP, true, lastBuild, build, counters);
+    Map<String, Instant> localTimes = readLocalTimes(build);
+    Map<String, Instant> centralTimes = readCentralTimes(build);
+    assertEquals(entries.keySet(), localTimes.keySet());
+    assertEquals(entries.keySet(), centralTimes.keySet());
+    for (String name : entries.keySet()) {
+      Instant expected = name.equals("changed.txt") ? OUTPUT_TIMESTAMP : LAST_BUILD_TIME;
+      assertEquals("local " + name, expected, localTimes.get(name));
+      assertEquals("central " + name, expected, centralTimes.get(name));
+    }
+    long patched = entries.size() - 1L;
+    assertEquals(patched, counters.get("patchedEntries"));
+    long writes = counters.get("patchWrites");
+    assertTrue("Must split when exceeding the span: " + writes, writes > 1);
+    assertTrue("Must coalesce within the gap: " + writes, writes < patched);
+  }
+
+  private static final String ARTIFACT = "fixture-1.0.0.jar";
+
+  /**
+   * Appends four bytes to the given data so its CRC-32 matches the target, by running the CRC backwards.
+   */
+  private static byte[] forgeCrc(byte[] data, long target) {
+    int[] table = new int[256];
+    for (int i = 0; i < 256; i++) {
+      int crc = i;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xedb88320 : crc >>> 1;
+      }
+      table[i] = crc;
+    }
+    // The table index that produced each high byte, which is unique
+    int[] indexByHighByte = new int[256];
+    for (int i = 0; i < 256; i++) {
+      indexByHighByte[table[i] >>> 24] = i;
+    }
+    int[] indexes = new int[4];
+    int reg = ~(int) target;
+    for (int k = 3; k >= 0; k--) {
+      int index = indexByHighByte[reg >>> 24];
+      indexes[k] = index;
+      reg = (reg ^ table[index]) << 8;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    reg = ~(int) crc.getValue();
+    byte[] forged = new byte[data.length + 4];
+    System.arraycopy(data, 0, forged, 0, data.length);
+    for (int k = 0; k < 4; k++) {
+      int b = (reg ^ indexes[k]) & 0xff;
+      forged[data.length + k] = (byte) b;
+      reg = (reg >>> 8) ^ table[(reg ^ b) & 0xff];
+    }
+    return forged;
+  }
+
+  private static long crc(byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    return crc.getValue();
+  }
+
+  /**
+   * Tests each {@link ZipTimestampMerge.Comparison} tier of
+   * {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)},
+   * with and without trusting CRC.  A CRC collision is only detected when not trusting CRC.
+   */
+  @Test
+  public void testMergeDirectoryComparisonTiers() throws IOException, ParseException {
+    byte[] collision = forgeCrc("collision, build".getBytes(StandardCharsets.UTF_8), 0x12345678L);
+    byte[] lastBuildCollision = forgeCrc("collision, last ".getBytes(StandardCharsets.UTF_8), 0x12345678L);
+    assertEquals(crc(collision), crc(lastBuildCollision));
+    assertFalse(Arrays.equals(collision, lastBuildCollision));
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", new byte[0]);
+    entries.put("size.txt", "longer".getBytes(StandardCharsets.UTF_8));
+    entries.put("crc.txt", "abc".getBytes(StandardCharsets.UTF_8));
+    entries.put("same.txt", "same".getBytes(StandardCharsets.UTF_8));
+    entries.put("same.bin", "same".getBytes(StandardCharsets.UTF_8));
+    entries.put("collision.txt", collision);
+    Map<String, byte[]> lastBuildEntries = new LinkedHashMap<>(entries);
+    lastBuildEntries.put("size.txt", "short".getBytes(StandardCharsets.UTF_8));
+    lastBuildEntries.put("crc.txt", "abd".getBytes(StandardCharsets.UTF_8));
+    lastBuildEntries.put("collision.txt", lastBuildCollision);
+    File lastBuildDirectory = temporaryFolder.newFolder("lastBuild");
+    writeZip(new File(lastBuildDirectory, ARTIFACT), lastBuildEntries, LAST_BUILD_TIME);
+    for (boolean trustCrc : new boolean[] {false, true}) {
+      File buildDirectory = temporaryFolder.newFolder("build-" + trustCrc);
+      File build = writeZip(new File(buildDirectory, ARTIFACT), entries, OUTPUT_TIMESTAMP);
+      JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+      ZipTimestampMerge.mergeDirectory(OUTPUT_TIMESTAMP, true, true, lastBuildDirectory, buildDirectory, 1, false,
+          null, trustCrc, counters);
+      assertEquals(1, counters.get("comparedBySize"));
+      assertEquals(1, counters.get("comparedByCrc"));
+      assertEquals(trustCrc ? 3 : 0, counters.get("comparedByTrustedCrc"));
+      assertEquals(0, counters.get("comparedByCachedDigest"));
+      assertEquals(trustCrc ? 0 : 3, counters.get("comparedByContent"));
+      assertTrue("Entries decided without reading", counters.get("bytesNotRead") > 0);
+      assertEquals("Entries compared by content", !trustCrc, counters.get("bytesCompared") > 0);
+      assertEquals(0, counters.get("cacheMisses"));
+      Map<String, Instant> times = readCentralTimes(build);
+      assertEquals(readLocalTimes(build), times);
+      assertEquals(OUTPUT_TIMESTAMP, times.get("size.txt"));
+      assertEquals(OUTPUT_TIMESTAMP, times.get("crc.txt"));
+      assertEquals(LAST_BUILD_TIME, times.get("same.txt"));
+      assertEquals(LAST_BUILD_TIME, times.get("same.bin"));
+      assertEquals("Only detected when not trusting CRC", trustCrc ? LAST_BUILD_TIME : OUTPUT_TIMESTAMP,
+          times.get("collision.txt"));
+    }
+  }
+
+  /**
+   * Tests {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}
+   * with a cache file: populated on the first merge, matching unchanged entries by digest without reading the last build
+   * on the next, and falling back to comparing content when corrupt.
+   */
+  @Test
+  public void testMergeDirectoryCache() throws IOException, ParseException {
+    Instant nextOutputTimestamp = OUTPUT_TIMESTAMP.plusSeconds(3600);
+    File cacheFile = new File(temporaryFolder.getRoot(), "merge.cache");
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", new byte[0]);
+    entries.put("a.txt", "a".getBytes(StandardCharsets.UTF_8));
+    entries.put("b.bin", "b".getBytes(StandardCharsets.UTF_8));
+    entries.put("changed.txt", "first".getBytes(StandardCharsets.UTF_8));
+    File lastBuildDirectory = temporaryFolder.newFolder("lastBuild");
+    writeZip(new File(lastBuildDirectory, ARTIFACT), entries, LAST_BUILD_TIME);
+    // First merge populates the cache, comparing by content
+    File buildDirectory = temporaryFolder.newFolder("build");
+    File build = writeZip(new File(buildDirectory, ARTIFACT), entries, OUTPUT_TIMESTAMP);
+    JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+    ZipTimestampMerge.mergeDirectory(OUTPUT_TIMESTAMP, true, true, lastBuildDirectory, buildDirectory, 1, false,
+        cacheFile, false, counters);
+    assertTrue(cacheFile.isFile());
+    assertEquals(0, counters.get("comparedByCachedDigest"));
+    assertEquals(3, counters.get("comparedByContent"));
+    assertEquals(3, counters.get("cacheMisses"));
+    // The merged build is the last build of the next merge
+    Files.copy(build.toPath(), new File(lastBuildDirectory, ARTIFACT).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    entries.put("changed.txt", "other".getBytes(StandardCharsets.UTF_8));
+    for (boolean corrupt : new boolean[] {false, true}) {
+      byte[] cacheBytes = Files.readAllBytes(cacheFile.toPath());
+      if (corrupt) {
+        cacheBytes[0] ^= 1;
+        Files.write(cacheFile.toPath(), cacheBytes);
+      }
+      build = writeZip(new File(buildDirectory, ARTIFACT), entries, nextOutputTimestamp);
+      counters = new JavadocJarFixture.Counters();
+      ZipTimestampMerge.mergeDirectory(nextOutputTimestamp, true, true, lastBuildDirectory, buildDirectory, 1, false,
+          cacheFile, false, counters);
+      assertEquals(corrupt ? 0 : 2, counters.get("comparedByCachedDigest"));
+      assertEquals(corrupt ? 2 : 0, counters.get("comparedByContent"));
+      assertEquals(corrupt ? 2 : 0, counters.get("cacheMisses"));
+      assertEquals("Cache does not read the last build", corrupt, counters.get("bytesCompared") > 0);
+      assertEquals("Cache reads the build", !corrupt, counters.get("bytesDigested") > 0);
+      assertEquals(1, counters.get("comparedByCrc"));
+      Map<String, Instant> times = readCentralTimes(build);
+      assertEquals(readLocalTimes(build), times);
+      assertEquals(LAST_BUILD_TIME, times.get("a.txt"));
+      assertEquals(LAST_BUILD_TIME, times.get("b.bin"));
+      assertEquals(nextOutputTimestamp, times.get("changed.txt"));
+      if (!corrupt) {
+        // Rewritten with the changed entry
+        assertFalse(Arrays.equals(cacheBytes, Files.readAllBytes(cacheFile.toPath())));
+      }
+    }
+  }
+
+  /**
+   * Tests {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}
+   * with multiple threads prefixes every per-entry debug message with its artifact, since these are not buffered.
+   */
+  @Test
+  public void testMergeDirectoryThreadsDebug() throws IOException, ParseException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", new byte[0]);
+    for (int i = 0; i < 20; i++) {
+      entries.put("entry" + i + ".txt", ("entry" + i).getBytes(StandardCharsets.UTF_8));
+    }
+    List<String> artifacts = Arrays.asList("fixture-1.0.0.jar", "fixture-1.0.0-javadoc.jar", "other-1.0.0.war");
+    List<String> identifiers = Arrays.asList("fixture-*.jar", "fixture-*-javadoc.jar", "other-*.war");
+    File lastBuildDirectory = temporaryFolder.newFolder("lastBuild");
+    File buildDirectory = temporaryFolder.newFolder("build");
+    for (String artifact : artifacts) {
+      writeZip(new File(lastBuildDirectory, artifact), entries, LAST_BUILD_TIME);
+      writeZip(new File(buildDirectory, artifact), entries, OUTPUT_TIMESTAMP);
+    }
+    List<String> messages = Collections.synchronizedList(new ArrayList<>());
+    ZipTimestampMerge.mergeDirectory(OUTPUT_TIMESTAMP, true, true, lastBuildDirectory, buildDirectory, 4, false,
+        null, false, MetricsListener.NONE, msg -> messages.add(msg.get()), NO_LOG, NO_LOG);
+    Map<String, Integer> buildEntries = new HashMap<>();
+    for (String message : messages) {
+      if (message.contains("buildEntry: ") || message.contains("updated: ") || message.contains(" bytes not read")) {
+        String identifier = message.substring(0, Math.max(message.indexOf(": "), 0));
+        assertTrue("Must start with the artifact: " + message, identifiers.contains(identifier));
+        if (message.startsWith(identifier + ": buildEntry: ")) {
+          buildEntries.merge(identifier, 1, Integer::sum);
+        }
+      }
+    }
+    for (String identifier : identifiers) {
+      assertEquals(identifier, Integer.valueOf(entries.size()), buildEntries.get(identifier));
+    }
+  }
+
+  /**
+   * Tests {@link ZipTimestampMerge#mergeDirectory(java.time.Instant, boolean, boolean, java.io.File, java.io.File, int, boolean, java.io.File, boolean, com.aoapps.ant.tasks.MetricsListener)}
+   * with a cache file and not trusting CRC still detects a CRC collision, since the build entry must match the cached
+   * digest.
+   */
+  @Test
+  public void testMergeDirectoryCacheCrcCollision() throws IOException, ParseException {
+    byte[] collision = forgeCrc("collision, build".getBytes(StandardCharsets.UTF_8), 0x12345678L);
+    byte[] lastBuildCollision = forgeCrc("collision, last ".getBytes(StandardCharsets.UTF_8), 0x12345678L);
+    Instant nextOutputTimestamp = OUTPUT_TIMESTAMP.plusSeconds(3600);
+    File cacheFile = new File(temporaryFolder.getRoot(), "merge.cache");
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("META-INF/", new byte[0]);
+    entries.put("same.txt", "same".getBytes(StandardCharsets.UTF_8));
+    entries.put("collision.txt", lastBuildCollision);
+    File lastBuildDirectory = temporaryFolder.newFolder("lastBuild");
+    writeZip(new File(lastBuildDirectory, ARTIFACT), entries, LAST_BUILD_TIME);
+    // First merge caches the last build content
+    File buildDirectory = temporaryFolder.newFolder("build");
+    File build = writeZip(new File(buildDirectory, ARTIFACT), entries, OUTPUT_TIMESTAMP);
+    ZipTimestampMerge.mergeDirectory(OUTPUT_TIMESTAMP, true, true, lastBuildDirectory, buildDirectory, 1, false,
+        cacheFile, false, null);
+    Files.copy(build.toPath(), new File(lastBuildDirectory, ARTIFACT).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    // Next build has the same size and CRC, but different content
+    entries.put("collision.txt", collision);
+    build = writeZip(new File(buildDirectory, ARTIFACT), entries, nextOutputTimestamp);
+    JavadocJarFixture.Counters counters = new JavadocJarFixture.Counters();
+    ZipTimestampMerge.mergeDirectory(nextOutputTimestamp, true, true, lastBuildDirectory, buildDirectory, 1, false,
+        cacheFile, false, counters);
+    assertEquals(0, counters.get("comparedByTrustedCrc"));
+    assertEquals(1, counters.get("comparedByCachedDigest"));
+    assertEquals(1, counters.get("comparedByContent"));
+    assertEquals(1, counters.get("cacheMisses"));
+    Map<String, Instant> times = readCentralTimes(build);
+    assertEquals(LAST_BUILD_TIME, times.get("same.txt"));
+    assertEquals("Collision detected", nextOutputTimestamp, times.get("collision.txt"));
+  }
 }